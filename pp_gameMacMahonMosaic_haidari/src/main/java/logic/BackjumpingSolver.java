@@ -0,0 +1,316 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Backtracking search with conflict-directed backjumping and nogood learning.
+ * <p>
+ * Every decision level remembers which earlier levels caused its candidates to fail
+ * (its conflict set). When a cell runs out of candidates, the search jumps straight back
+ * to the latest level in that conflict set instead of the previous level, skipping all
+ * decisions in between that had nothing to do with the failure. The conflict set is also
+ * recorded as a nogood, so the same combination of placements is rejected immediately
+ * when it shows up again in another branch.
+ */
+public class BackjumpingSolver implements PuzzleSolver {
+
+    static final int DEFAULT_NOGOOD_CAPACITY = 4096;
+    static final int DEFAULT_MAX_NOGOOD_SIZE = 6;
+
+    private static final int SOLVED = Integer.MAX_VALUE;
+    private static final int UNSOLVABLE = -1;
+    private static final int BUDGET_EXHAUSTED = -2;
+    private static final int NO_CONFLICT = -1;
+
+    /** The result of a search that may be limited by a node budget. */
+    enum Outcome { SOLVED, UNSOLVABLE, BUDGET_EXHAUSTED }
+
+    private final boolean sharedNogoods; // True if the store is kept across searches
+    private NogoodStore nogoods;
+
+    private CompiledPuzzle puzzle;
+    private int orientedCount;
+    private int[] assignment;   // cell -> oriented piece, or -1
+    private int[] cellDepth;    // cell -> decision level, or -1
+    private int[] depthCell;    // decision level -> cell
+    private int[] pieceDepth;   // piece -> decision level that placed it, or -1
+    private BitSet[] conflictSets;
+    private long nodeCount;
+    private long nodeBudget;
+    private Random random; // Shuffles the candidates of every cell if set
+
+    /** Creates a solver that starts every search with an empty nogood store. */
+    public BackjumpingSolver() {
+        this.sharedNogoods = false;
+    }
+
+    /**
+     * @param nogoods The store that collects learned nogoods and is kept across searches. It must
+     *                only be shared between searches of the same compiled puzzle.
+     */
+    BackjumpingSolver(NogoodStore nogoods) {
+        this.nogoods = nogoods;
+        this.sharedNogoods = true;
+    }
+
+    @Override
+    public String getName() {
+        return "backjumping";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        return findSolution(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors));
+    }
+
+    /**
+     * Searches a compiled puzzle.
+     *
+     * @param compiled The puzzle to solve.
+     * @return The solved field, or null if the puzzle is unsolvable.
+     */
+    Field findSolution(CompiledPuzzle compiled) {
+        return search(compiled, Long.MAX_VALUE, null) == Outcome.SOLVED ? getSolution() : null;
+    }
+
+    /**
+     * Searches a compiled puzzle until it is solved, proven unsolvable or the node budget is used up.
+     *
+     * @param compiled   The puzzle to solve.
+     * @param nodeBudget The maximum number of placements to try.
+     * @param random     Randomizes the order in which the candidates of a cell are tried, or null
+     *                   to try them in their natural order.
+     * @return The outcome of the search. The solution is available from {@link #getSolution()}.
+     */
+    Outcome search(CompiledPuzzle compiled, long nodeBudget, Random random) {
+        prepare(compiled);
+        this.nodeBudget = nodeBudget;
+        this.random = random;
+        return switch (search(0)) {
+            case SOLVED -> Outcome.SOLVED;
+            case BUDGET_EXHAUSTED -> Outcome.BUDGET_EXHAUSTED;
+            default -> Outcome.UNSOLVABLE;
+        };
+    }
+
+    /** @return The solution of the last successful search. */
+    Field getSolution() {
+        return puzzle.toField(assignment);
+    }
+
+    /** @return The number of placements tried by the last search. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /** @return The number of nogoods currently stored. */
+    public int getNogoodCount() {
+        return nogoods != null ? nogoods.size() : 0;
+    }
+
+    private void prepare(CompiledPuzzle compiled) {
+        this.puzzle = compiled;
+        if (!sharedNogoods) {
+            // Nogoods are encoded against one compiled puzzle and are wrong for any other
+            this.nogoods = new NogoodStore(DEFAULT_NOGOOD_CAPACITY, DEFAULT_MAX_NOGOOD_SIZE);
+        }
+        this.orientedCount = compiled.getOrientedCount();
+        int cellCount = compiled.getCellCount();
+        this.assignment = new int[cellCount];
+        this.cellDepth = new int[cellCount];
+        this.depthCell = new int[cellCount];
+        this.pieceDepth = new int[compiled.getPieceCount()];
+        this.conflictSets = new BitSet[cellCount];
+        for (int depth = 0; depth < cellCount; depth++) {
+            conflictSets[depth] = new BitSet(cellCount);
+        }
+        Arrays.fill(assignment, -1);
+        Arrays.fill(cellDepth, -1);
+        Arrays.fill(pieceDepth, -1);
+        this.nodeCount = 0;
+    }
+
+    /**
+     * Assigns one cell per decision level.
+     *
+     * @param depth The current decision level.
+     * @return SOLVED, UNSOLVABLE, BUDGET_EXHAUSTED, or the decision level the search has to jump back to.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    private int search(int depth) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+        if (depth == puzzle.getCellCount()) {
+            return SOLVED;
+        }
+
+        int cell = selectCell();
+        BitSet conflicts = conflictSets[depth];
+        conflicts.clear();
+        depthCell[depth] = cell;
+
+        for (int oriented : orderCandidates(cell)) {
+            if (addConflicts(cell, oriented, conflicts)) {
+                continue;
+            }
+            if (nodeCount >= nodeBudget) {
+                return BUDGET_EXHAUSTED;
+            }
+
+            nodeCount++;
+            assign(cell, oriented, depth);
+            int result = search(depth + 1);
+            if (result == SOLVED) {
+                return SOLVED;
+            }
+            unassign(cell, oriented);
+            if (result < depth) {
+                return result; // Caused further up, or out of budget: skip the remaining candidates.
+            }
+        }
+
+        return backjump(depth, conflicts);
+    }
+
+    private int[] orderCandidates(int cell) {
+        int[] candidates = puzzle.getCandidates(cell);
+        if (random == null) {
+            return candidates;
+        }
+        int[] shuffled = candidates.clone();
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        return shuffled;
+    }
+
+    /**
+     * Learns a nogood from an exhausted level and merges its conflict set into the
+     * level it jumps back to.
+     */
+    private int backjump(int depth, BitSet conflicts) {
+        if (conflicts.isEmpty()) {
+            return UNSOLVABLE; // The cell cannot be filled no matter what was placed before.
+        }
+
+        int[] nogood = new int[conflicts.cardinality()];
+        int i = 0;
+        for (int level = conflicts.nextSetBit(0); level >= 0; level = conflicts.nextSetBit(level + 1)) {
+            int conflictCell = depthCell[level];
+            nogood[i++] = conflictCell * orientedCount + assignment[conflictCell];
+        }
+        nogoods.add(nogood);
+
+        int target = conflicts.length() - 1;
+        conflicts.clear(target);
+        conflictSets[target].or(conflicts);
+        return target;
+    }
+
+    /**
+     * Checks a placement against the current assignment and records the decision levels responsible
+     * for a rejection in the conflict set.
+     *
+     * @return True if the placement is rejected.
+     */
+    private boolean addConflicts(int cell, int oriented, BitSet conflicts) {
+        int culprit = NO_CONFLICT;
+
+        int usedAt = pieceDepth[puzzle.getOrientedPiece(oriented)];
+        if (usedAt >= 0) {
+            culprit = usedAt;
+        }
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor != CompiledPuzzle.NO_CELL && assignment[neighbor] >= 0
+                    && puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT)
+                    != puzzle.getOrientedEdge(oriented, d)) {
+                // Blaming the earliest culprit allows the longest jumps.
+                if (culprit == NO_CONFLICT || cellDepth[neighbor] < culprit) {
+                    culprit = cellDepth[neighbor];
+                }
+            }
+        }
+        if (culprit != NO_CONFLICT) {
+            conflicts.set(culprit);
+            return true;
+        }
+
+        int[] violated = nogoods.findViolated(cell * orientedCount + oriented, assignment, orientedCount);
+        if (violated != null) {
+            for (int literal : violated) {
+                int otherCell = literal / orientedCount;
+                if (otherCell != cell) {
+                    conflicts.set(cellDepth[otherCell]);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Picks the unassigned cell with the fewest placements that are consistent
+     * with its assigned neighbors and the unused pieces.
+     */
+    private int selectCell() {
+        int bestCell = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            if (assignment[cell] >= 0) {
+                continue;
+            }
+            int count = 0;
+            for (int oriented : puzzle.getCandidates(cell)) {
+                if (isConsistent(cell, oriented) && ++count >= bestCount) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                bestCount = count;
+                bestCell = cell;
+                if (count == 0) {
+                    break;
+                }
+            }
+        }
+        return bestCell;
+    }
+
+    private boolean isConsistent(int cell, int oriented) {
+        if (pieceDepth[puzzle.getOrientedPiece(oriented)] >= 0) {
+            return false;
+        }
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor != CompiledPuzzle.NO_CELL && assignment[neighbor] >= 0
+                    && puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT)
+                    != puzzle.getOrientedEdge(oriented, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assign(int cell, int oriented, int depth) {
+        assignment[cell] = oriented;
+        cellDepth[cell] = depth;
+        pieceDepth[puzzle.getOrientedPiece(oriented)] = depth;
+    }
+
+    private void unassign(int cell, int oriented) {
+        assignment[cell] = -1;
+        cellDepth[cell] = -1;
+        pieceDepth[puzzle.getOrientedPiece(oriented)] = -1;
+    }
+}
@@ -0,0 +1,49 @@
+package logic;
+
+import java.util.Map;
+
+/**
+ * The features of a board that decide which solving engine is the fastest for it.
+ *
+ * @param rows         The number of rows; with the columns it gives the number of border segments.
+ * @param columns      The number of columns.
+ * @param holes        The number of holes.
+ * @param freeCells    The number of cells that are neither holes nor occupied.
+ * @param fixedBorders The number of border segments with a color.
+ * @param prePlaced    The number of pieces already on the board.
+ */
+public record BoardProfile(int rows, int columns, int holes, int freeCells, int fixedBorders, int prePlaced) {
+
+    /**
+     * Measures a board.
+     *
+     * @param field        The board.
+     * @param borderColors The border colors of the board.
+     * @return The profile of the board.
+     */
+    public static BoardProfile of(Field field, Map<BorderPosition, Color> borderColors) {
+        int holes = field.getHoles().size();
+        int prePlaced = 0;
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (!field.isCellHole(r, c) && !field.isCellEmpty(r, c)) {
+                    prePlaced++;
+                }
+            }
+        }
+        int freeCells = field.getRows() * field.getColumns() - holes - prePlaced;
+
+        int fixedBorders = 0;
+        for (Color color : borderColors.values()) {
+            if (color != Color.NONE) {
+                fixedBorders++;
+            }
+        }
+        return new BoardProfile(field.getRows(), field.getColumns(), holes, freeCells, fixedBorders, prePlaced);
+    }
+
+    /** @return The number of border segments of the board. */
+    public int borderSegments() {
+        return 2 * (rows + columns);
+    }
+}
@@ -0,0 +1,122 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Neighbor and border tables for one board shape: rows, columns and hole layout.
+ * <p>
+ * For every cell side, the table holds the neighbor cell, or marks the side as facing the border
+ * or a hole, and holds the border segment of border sides. A search then reads array entries instead
+ * of computing coordinates, checking bounds and creating {@link BorderPosition} keys for every
+ * placement check. Tables only depend on the shape, so they are shared through a small cache.
+ */
+class BoardShape {
+
+    /** Marks a side that faces the border in {@link #getNeighborRow}. */
+    static final int BORDER = -1;
+    /** Marks a side that faces a hole, which never constrains a piece. */
+    static final int HOLE = -2;
+
+    private static final int SHARED_CAPACITY = 16;
+    private static final Map<String, BoardShape> SHARED = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BoardShape> eldest) {
+                    return size() > SHARED_CAPACITY;
+                }
+            });
+
+    private final int rows;
+    private final int columns;
+    private final int[] neighborRows;             // (cell * 4 + direction) -> row, BORDER or HOLE
+    private final int[] neighborColumns;          // (cell * 4 + direction) -> column of a neighbor cell
+    private final BorderPosition[] borderSlots;   // (cell * 4 + direction) -> border segment, or null
+
+    private BoardShape(int rows, int columns, boolean[][] holes) {
+        this.rows = rows;
+        this.columns = columns;
+        int slots = rows * columns * Game.EDGE_COUNT;
+        neighborRows = new int[slots];
+        neighborColumns = new int[slots];
+        borderSlots = new BorderPosition[slots];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                for (Direction dir : Direction.values()) {
+                    int slot = slot(r, c, dir.ordinal());
+                    int row = r + CompiledPuzzle.ROW_OFFSET[dir.ordinal()];
+                    int column = c + CompiledPuzzle.COLUMN_OFFSET[dir.ordinal()];
+                    if (row < 0 || row >= rows || column < 0 || column >= columns) {
+                        neighborRows[slot] = BORDER;
+                        borderSlots[slot] = new BorderPosition(dir,
+                                dir == Direction.TOP || dir == Direction.BOTTOM ? c : r);
+                    } else if (holes[row][column]) {
+                        neighborRows[slot] = HOLE;
+                    } else {
+                        neighborRows[slot] = row;
+                        neighborColumns[slot] = column;
+                    }
+                }
+            }
+        }
+    }
+
+    /** @return The tables of the shape of a field, built if the same shape was not used recently. */
+    static BoardShape of(Field field) {
+        boolean[][] holes = new boolean[field.getRows()][field.getColumns()];
+        List<Position> holeList = field.getHoles() != null ? new ArrayList<>(field.getHoles()) : new ArrayList<>();
+        holeList.sort((a, b) -> a.row() != b.row() ? Integer.compare(a.row(), b.row())
+                : Integer.compare(a.column(), b.column()));
+        StringBuilder key = new StringBuilder().append(field.getRows()).append('x').append(field.getColumns());
+        for (Position hole : holeList) {
+            holes[hole.row()][hole.column()] = true;
+            key.append(' ').append(hole.row()).append(',').append(hole.column());
+        }
+        return SHARED.computeIfAbsent(key.toString(), k -> new BoardShape(field.getRows(), field.getColumns(), holes));
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    /** @return The index of a cell side in the tables of this shape. */
+    int slot(int row, int column, int direction) {
+        return (row * columns + column) * Game.EDGE_COUNT + direction;
+    }
+
+    /** @return The row of the neighbor cell on a side, or {@link #BORDER} or {@link #HOLE}. */
+    int getNeighborRow(int slot) {
+        return neighborRows[slot];
+    }
+
+    /** @return The column of the neighbor cell on a side; only valid if it has a neighbor row. */
+    int getNeighborColumn(int slot) {
+        return neighborColumns[slot];
+    }
+
+    /** @return The border segment a side faces, or null if it is not a border side. */
+    BorderPosition getBorderSlot(int slot) {
+        return borderSlots[slot];
+    }
+
+    /**
+     * Resolves the border colors of a puzzle for every cell side, so a search needs no map lookups.
+     *
+     * @return The required color per side, {@link Color#NONE} for sides without a border color.
+     */
+    Color[] resolveBorderColors(Map<BorderPosition, Color> borderColors) {
+        Color[] colors = new Color[borderSlots.length];
+        for (int slot = 0; slot < colors.length; slot++) {
+            colors[slot] = borderSlots[slot] != null
+                    ? borderColors.getOrDefault(borderSlots[slot], Color.NONE) : Color.NONE;
+        }
+        return colors;
+    }
+}
@@ -0,0 +1,62 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the oriented pieces that fit the outer edges of a border cell with one lookup.
+ * The key combines the set of outer sides with a colored border segment and the colors of
+ * these segments, so corners (two sides) and plain border cells (one side) share one index.
+ * The entries for a set of sides are built on its first lookup, because a board only has a few of them.
+ */
+class BorderIndex {
+    private static final int COLOR_BITS = 3; // Color ordinals are below 8
+    private static final int[] NO_PIECES = new int[0];
+
+    private final CompiledPuzzle puzzle;
+    private final Map<Integer, Map<Integer, int[]>> orientedBySides = new HashMap<>();
+
+    /**
+     * @param puzzle The puzzle whose oriented pieces are indexed.
+     */
+    BorderIndex(CompiledPuzzle puzzle) {
+        this.puzzle = puzzle;
+    }
+
+    /**
+     * @param sides  Bit d is set if side d is an outer side with a colored border segment.
+     * @param colors The required color ordinal of every side; only the sides in {@code sides} are read.
+     * @return The oriented pieces that show these colors on these sides. Must not be modified.
+     */
+    int[] lookup(int sides, int[] colors) {
+        return orientedBySides.computeIfAbsent(sides, this::buildEntries).getOrDefault(key(sides, colors), NO_PIECES);
+    }
+
+    private Map<Integer, int[]> buildEntries(int sides) {
+        Map<Integer, List<Integer>> lists = new HashMap<>();
+        int[] colors = new int[Game.EDGE_COUNT];
+        for (int oriented = 0; oriented < puzzle.getOrientedCount(); oriented++) {
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                colors[d] = puzzle.getOrientedEdge(oriented, d);
+            }
+            lists.computeIfAbsent(key(sides, colors), k -> new ArrayList<>()).add(oriented);
+        }
+        Map<Integer, int[]> entries = new HashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : lists.entrySet()) {
+            entries.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return entries;
+    }
+
+    private static int key(int sides, int[] colors) {
+        int key = 0;
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            if ((sides & 1 << d) != 0) {
+                key |= (colors[d] + 1) << (COLOR_BITS * d);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,315 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves the puzzle in two phases: first the ring of border cells, then the interior.
+ * Border cells whose outer segments are all uncolored are filled with the interior.
+ * <p>
+ * The outer edges of border cells are fixed by the border colors, so only a few pieces fit
+ * each of them. Their candidates come from a {@link BorderIndex} keyed by the outer edge colors.
+ * Before searching, the candidates of neighboring ring cells are made arc consistent (every
+ * candidate needs a matching candidate in each ring neighbor) and the ring cells are matched to
+ * distinct pieces. If a cell runs out of candidates or no such matching exists, the borders are
+ * impossible and the puzzle is rejected without any search.
+ * Each phase fills the cell with the fewest consistent candidates next.
+ */
+public class BorderRingSolver implements PuzzleSolver {
+
+    private CompiledPuzzle puzzle;
+    private boolean[] onRing;
+    private int ringSize;
+    private int[][] cellCandidates;
+    private int[] assignment;     // cell -> oriented piece, or -1
+    private boolean[] pieceUsed;
+    private int ringAssigned;
+
+    private boolean stopAtFirst;
+    private int[] solution;
+    private long solutionCount;
+    private long completedRings;
+    private boolean rejectedByPrecheck;
+
+    @Override
+    public String getName() {
+        return "border-ring";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), true)) {
+            return null;
+        }
+        search();
+        return solution != null ? puzzle.toField(solution) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), false)) {
+            return 0;
+        }
+        search();
+        return solutionCount;
+    }
+
+    /** @return The number of complete border rings the last search tried to extend into the interior. */
+    public long getCompletedRings() {
+        return completedRings;
+    }
+
+    /** @return True if the last puzzle was rejected by the ring checks, before any search. */
+    public boolean isRejectedByPrecheck() {
+        return rejectedByPrecheck;
+    }
+
+    /**
+     * Finds the ring cells and their candidates and checks that the ring can be filled at all.
+     *
+     * @return False if the border ring is impossible.
+     */
+    private boolean prepare(CompiledPuzzle compiled, boolean stopAtFirst) {
+        this.puzzle = compiled;
+        this.stopAtFirst = stopAtFirst;
+        this.solution = null;
+        this.solutionCount = 0;
+        this.completedRings = 0;
+        this.ringAssigned = 0;
+
+        int cellCount = compiled.getCellCount();
+        int rows = compiled.getField().getRows();
+        int columns = compiled.getField().getColumns();
+        BorderIndex borderIndex = new BorderIndex(compiled);
+        onRing = new boolean[cellCount];
+        cellCandidates = new int[cellCount][];
+        ringSize = 0;
+        int[] colors = new int[Game.EDGE_COUNT];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = compiled.getCellRow(cell);
+            int column = compiled.getCellColumn(cell);
+            int outerSides = 0;
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                int neighborRow = row + CompiledPuzzle.ROW_OFFSET[d];
+                int neighborCol = column + CompiledPuzzle.COLUMN_OFFSET[d];
+                boolean outside = neighborRow < 0 || neighborRow >= rows || neighborCol < 0 || neighborCol >= columns;
+                colors[d] = compiled.getFixedColor(cell, d);
+                if (outside && colors[d] != CompiledPuzzle.NO_COLOR) {
+                    outerSides |= 1 << d;
+                }
+            }
+            onRing[cell] = outerSides != 0;
+            if (onRing[cell]) {
+                ringSize++;
+                cellCandidates[cell] = matchingInnerSides(borderIndex.lookup(outerSides, colors), cell, outerSides);
+            } else {
+                cellCandidates[cell] = compiled.getCandidates(cell);
+            }
+        }
+
+        assignment = new int[cellCount];
+        Arrays.fill(assignment, -1);
+        pieceUsed = new boolean[compiled.getPieceCount()];
+        rejectedByPrecheck = !makeRingArcConsistent() || !ringHasDistinctPieces();
+        return !rejectedByPrecheck;
+    }
+
+    /** Keeps the oriented pieces that also fit the fixed colors on the sides that are not outer sides. */
+    private int[] matchingInnerSides(int[] orientedPieces, int cell, int outerSides) {
+        List<Integer> matching = new ArrayList<>();
+        for (int oriented : orientedPieces) {
+            boolean fits = true;
+            for (int d = 0; d < Game.EDGE_COUNT && fits; d++) {
+                int fixed = puzzle.getFixedColor(cell, d);
+                fits = (outerSides & 1 << d) != 0 || fixed == CompiledPuzzle.NO_COLOR
+                        || puzzle.getOrientedEdge(oriented, d) == fixed;
+            }
+            if (fits) {
+                matching.add(oriented);
+            }
+        }
+        return matching.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Removes ring candidates that no candidate of a neighboring ring cell matches, until nothing changes.
+     *
+     * @return False if a ring cell has no candidate left.
+     */
+    private boolean makeRingArcConsistent() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+                if (!onRing[cell]) {
+                    continue;
+                }
+                int[] supported = supportedCandidates(cell);
+                if (supported.length == 0) {
+                    return false;
+                }
+                if (supported.length < cellCandidates[cell].length) {
+                    cellCandidates[cell] = supported;
+                    changed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int[] supportedCandidates(int cell) {
+        List<Integer> supported = new ArrayList<>();
+        for (int oriented : cellCandidates[cell]) {
+            boolean hasSupport = true;
+            for (int d = 0; d < Game.EDGE_COUNT && hasSupport; d++) {
+                int neighbor = puzzle.getNeighbor(cell, d);
+                if (neighbor != CompiledPuzzle.NO_CELL && onRing[neighbor]) {
+                    hasSupport = hasMatchingCandidate(neighbor, (d + 2) % Game.EDGE_COUNT,
+                            puzzle.getOrientedEdge(oriented, d), puzzle.getOrientedPiece(oriented));
+                }
+            }
+            if (hasSupport) {
+                supported.add(oriented);
+            }
+        }
+        return supported.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private boolean hasMatchingCandidate(int cell, int direction, int color, int otherPiece) {
+        for (int oriented : cellCandidates[cell]) {
+            if (puzzle.getOrientedEdge(oriented, direction) == color && puzzle.getOrientedPiece(oriented) != otherPiece) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks with augmenting paths that every ring cell can get its own piece.
+     * This ignores the colors between neighboring cells, so it only proves impossibility.
+     */
+    private boolean ringHasDistinctPieces() {
+        int[] cellOfPiece = new int[puzzle.getPieceCount()];
+        Arrays.fill(cellOfPiece, -1);
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            if (onRing[cell] && !augment(cell, cellOfPiece, new boolean[puzzle.getPieceCount()])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean augment(int cell, int[] cellOfPiece, boolean[] visited) {
+        for (int oriented : cellCandidates[cell]) {
+            int piece = puzzle.getOrientedPiece(oriented);
+            if (visited[piece]) {
+                continue;
+            }
+            visited[piece] = true;
+            if (cellOfPiece[piece] < 0 || augment(cellOfPiece[piece], cellOfPiece, visited)) {
+                cellOfPiece[piece] = cell;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the ring cells first and the interior cells after them.
+     *
+     * @return True if the search should stop (a solution was found and only one is needed).
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    private boolean search() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+        int cell = selectCell();
+        if (cell < 0) {
+            solutionCount++;
+            if (solution == null) {
+                solution = assignment.clone();
+            }
+            return stopAtFirst;
+        }
+
+        for (int oriented : cellCandidates[cell]) {
+            if (!isConsistent(cell, oriented)) {
+                continue;
+            }
+            assign(cell, oriented);
+            boolean stop = search();
+            unassign(cell, oriented);
+            if (stop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the unassigned cell of the current phase with the fewest consistent candidates.
+     *
+     * @return The cell, or -1 if every cell is assigned.
+     */
+    private int selectCell() {
+        boolean ringPhase = ringAssigned < ringSize;
+        int bestCell = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            if (assignment[cell] >= 0 || onRing[cell] != ringPhase) {
+                continue;
+            }
+            int count = 0;
+            for (int oriented : cellCandidates[cell]) {
+                if (isConsistent(cell, oriented) && ++count >= bestCount) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                bestCount = count;
+                bestCell = cell;
+                if (count == 0) {
+                    break;
+                }
+            }
+        }
+        return bestCell;
+    }
+
+    private boolean isConsistent(int cell, int oriented) {
+        if (pieceUsed[puzzle.getOrientedPiece(oriented)]) {
+            return false;
+        }
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor != CompiledPuzzle.NO_CELL && assignment[neighbor] >= 0
+                    && puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT)
+                    != puzzle.getOrientedEdge(oriented, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assign(int cell, int oriented) {
+        assignment[cell] = oriented;
+        pieceUsed[puzzle.getOrientedPiece(oriented)] = true;
+        if (onRing[cell] && ++ringAssigned == ringSize) {
+            completedRings++;
+        }
+    }
+
+    private void unassign(int cell, int oriented) {
+        assignment[cell] = -1;
+        pieceUsed[puzzle.getOrientedPiece(oriented)] = false;
+        if (onRing[cell]) {
+            ringAssigned--;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filters the pieces that can meet the color constraints of a cell in a few bit operations.
+ * <p>
+ * The edges of all oriented pieces are stored as one byte array per direction. From these, every
+ * (direction, color) pair gets a bit set of the oriented pieces that show this color in this
+ * direction. The oriented pieces that meet a cell's constraints are the AND of the bit sets of its
+ * constrained sides, computed 64 oriented pieces per word, so the 81 oriented pieces of the shipped
+ * tiles take two words per side instead of one orientation and edge check at a time.
+ * {@link #matchingPiecesScalar} computes the same result edge by edge.
+ */
+class CandidateFilter {
+
+    private final Map<MosaicPiece, Integer> pieceIndex = new IdentityHashMap<>();
+    private final int[] orientedPieces;    // oriented piece -> piece index
+    private final byte[][] orientedEdges;  // direction -> oriented piece -> color ordinal
+    private final long[][][] colorMasks;   // direction -> color ordinal -> bit set of oriented pieces
+    private final int pieceCount;
+
+    /**
+     * @param pieces The pieces to filter; later lookups must use the same instances.
+     */
+    CandidateFilter(List<MosaicPiece> pieces) {
+        int orientedCount = 0;
+        for (MosaicPiece piece : pieces) {
+            if (!pieceIndex.containsKey(piece)) {
+                pieceIndex.put(piece, pieceIndex.size());
+                orientedCount += piece.getDistinctOrientationCount();
+            }
+        }
+        pieceCount = pieceIndex.size();
+        orientedPieces = new int[orientedCount];
+        orientedEdges = new byte[Game.EDGE_COUNT][orientedCount];
+        int oriented = 0;
+        for (Map.Entry<MosaicPiece, Integer> entry : pieceIndex.entrySet()) {
+            // A copy, so the orientation of the piece in the search is not changed
+            MosaicPiece rotated = new MosaicPiece(entry.getKey().getColorPattern());
+            for (int o = 0; o < rotated.getDistinctOrientationCount(); o++, oriented++) {
+                rotated.setOrientation(o * 90);
+                orientedPieces[oriented] = entry.getValue();
+                for (Direction dir : Direction.values()) {
+                    orientedEdges[dir.ordinal()][oriented] = (byte) rotated.getEdgeColor(dir).ordinal();
+                }
+            }
+        }
+
+        colorMasks = new long[Game.EDGE_COUNT][Color.values().length][words(orientedCount)];
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            for (int o = 0; o < orientedCount; o++) {
+                colorMasks[d][orientedEdges[d][o]][o >>> 6] |= 1L << o;
+            }
+        }
+    }
+
+    /** @return The index of a piece in the bit sets of this filter, or -1 if it is not one of its pieces. */
+    int indexOf(MosaicPiece piece) {
+        return pieceIndex.getOrDefault(piece, -1);
+    }
+
+    /**
+     * @param constraints The required colors of some sides of a cell.
+     * @return The bit set of pieces (see {@link #indexOf}) with an orientation that meets the constraints.
+     */
+    long[] matchingPieces(Map<Direction, Color> constraints) {
+        long[] oriented = new long[words(orientedPieces.length)];
+        Arrays.fill(oriented, -1L);
+        for (Map.Entry<Direction, Color> entry : constraints.entrySet()) {
+            long[] mask = colorMasks[entry.getKey().ordinal()][entry.getValue().ordinal()];
+            for (int w = 0; w < oriented.length; w++) {
+                oriented[w] &= mask[w];
+            }
+        }
+        long[] pieces = new long[words(pieceCount)];
+        for (int w = 0; w < oriented.length; w++) {
+            for (long bits = oriented[w]; bits != 0; bits &= bits - 1) {
+                int o = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (o >= orientedPieces.length) {
+                    break; // Unused bits of the last word
+                }
+                pieces[orientedPieces[o] >>> 6] |= 1L << orientedPieces[o];
+            }
+        }
+        return pieces;
+    }
+
+    /** Same result as {@link #matchingPieces}, checking every oriented piece edge by edge. */
+    long[] matchingPiecesScalar(Map<Direction, Color> constraints) {
+        long[] pieces = new long[words(pieceCount)];
+        for (int o = 0; o < orientedPieces.length; o++) {
+            boolean matches = true;
+            for (Map.Entry<Direction, Color> entry : constraints.entrySet()) {
+                if (orientedEdges[entry.getKey().ordinal()][o] != entry.getValue().ordinal()) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                pieces[orientedPieces[o] >>> 6] |= 1L << orientedPieces[o];
+            }
+        }
+        return pieces;
+    }
+
+    /** @return True if bit {@code index} of the bit set is set. */
+    static boolean contains(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    }
+}
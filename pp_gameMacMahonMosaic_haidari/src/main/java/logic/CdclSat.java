@@ -0,0 +1,557 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A small conflict-driven clause learning (CDCL) SAT solver for the {@link SatSolver} engine.
+ * <ul>
+ *     <li>Unit propagation with two watched literals per clause.</li>
+ *     <li>Decisions by VSIDS: the unassigned variable with the highest activity, kept in a heap.
+ *     Variables in recent conflicts get their activity bumped, and older bumps decay.</li>
+ *     <li>Every conflict is analyzed up to the first unique implication point. The learned clause
+ *     is added, and the search jumps back to the second highest level in it.</li>
+ *     <li>Learned clauses drop literals that are implied by other literals of the clause.</li>
+ *     <li>Phase saving and restarts after a Luby sequence of conflicts. At a restart, half of
+ *     the learned clauses are deleted once there are too many, keeping those with the fewest
+ *     decision levels (LBD), which tend to be the most useful.</li>
+ * </ul>
+ * A literal is {@code 2 * variable} for the positive and {@code 2 * variable + 1} for the negative
+ * literal.
+ */
+class CdclSat {
+
+    private static final int RESTART_BASE = 100;
+    private static final double ACTIVITY_DECAY = 0.95;
+    private static final double RESCALE_LIMIT = 1e100;
+    private static final int FIRST_REDUCE = 2000;
+    private static final int REDUCE_INCREMENT = 300;
+    private static final int KEPT_LBD = 2; // Learned clauses with at most this many levels are never deleted
+    private static final int NO_REASON = -1;
+    private static final byte UNASSIGNED = 0, TRUE = 1, FALSE = -1;
+
+    private final List<int[]> clauses = new ArrayList<>(); // Deleted clauses are null
+    private final IntList lbds = new IntList();            // clause -> LBD, or 0 for original clauses
+    private final IntList learnedClauses = new IntList();
+    private int reduceLimit = FIRST_REDUCE;
+    private final List<IntList> watches = new ArrayList<>(); // literal -> clauses that watch it
+    private byte[] values = new byte[0];
+    private int[] levels = new int[0];
+    private int[] reasons = new int[0];
+    private boolean[] savedPhases = new boolean[0];
+    private double[] activity = new double[0];
+    private boolean[] seen = new boolean[0];
+    private int[] levelStamps = new int[0];
+    private int stamp;
+    private int variableCount;
+    private boolean trivialConflict; // An empty clause was added, or units contradict each other
+
+    private final IntList trail = new IntList();
+    private final IntList levelStarts = new IntList(); // Trail position where each decision level starts
+    private int propagated;
+    private double activityIncrement = 1;
+    private VariableHeap heap;
+
+    private long conflicts;
+    private long decisions;
+    private long propagations;
+
+    /** @return A new variable. */
+    int newVariable() {
+        int variable = variableCount++;
+        if (variable == values.length) {
+            int capacity = Math.max(16, values.length * 2);
+            values = Arrays.copyOf(values, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+            savedPhases = Arrays.copyOf(savedPhases, capacity);
+            activity = Arrays.copyOf(activity, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            levelStamps = Arrays.copyOf(levelStamps, capacity + 1);
+        }
+        watches.add(new IntList());
+        watches.add(new IntList());
+        return variable;
+    }
+
+    static int positive(int variable) {
+        return 2 * variable;
+    }
+
+    static int negative(int variable) {
+        return 2 * variable + 1;
+    }
+
+    /** Adds a clause before solving. Duplicate literals are removed and tautologies are dropped. */
+    void addClause(int... literals) {
+        int[] clause = Arrays.stream(literals).distinct().toArray();
+        for (int literal : clause) {
+            if (Arrays.stream(clause).anyMatch(other -> other == (literal ^ 1))) {
+                return;
+            }
+        }
+        if (clause.length == 0) {
+            trivialConflict = true;
+        } else if (clause.length == 1) {
+            if (valueOf(clause[0]) == FALSE) {
+                trivialConflict = true;
+            } else if (valueOf(clause[0]) == UNASSIGNED) {
+                assign(clause[0], NO_REASON);
+            }
+        } else {
+            attach(clause, 0);
+        }
+    }
+
+    /**
+     * Searches for an assignment that satisfies all clauses.
+     *
+     * @return True if one was found (see {@link #isTrue}), false if the clauses are unsatisfiable.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    boolean solve() {
+        if (trivialConflict || propagate() >= 0) {
+            return false;
+        }
+        heap = new VariableHeap();
+        for (int variable = 0; variable < variableCount; variable++) {
+            heap.insert(variable);
+        }
+        for (int restart = 1; ; restart++) {
+            if (learnedClauses.size() >= reduceLimit) {
+                reduceLearnedClauses();
+                reduceLimit += REDUCE_INCREMENT;
+            }
+            Boolean result = search(RESTART_BASE * RestartingSolver.luby(restart));
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    /** @return True if the variable is true in the solution found by {@link #solve()}. */
+    boolean isTrue(int variable) {
+        return values[variable] == TRUE;
+    }
+
+    int getVariableCount() {
+        return variableCount;
+    }
+
+    int getClauseCount() {
+        return clauses.size();
+    }
+
+    long getConflicts() {
+        return conflicts;
+    }
+
+    long getDecisions() {
+        return decisions;
+    }
+
+    long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * Runs CDCL until a result is known or the conflict budget of this restart is used up.
+     *
+     * @return True or false as in {@link #solve()}, or null to restart.
+     */
+    private Boolean search(long conflictBudget) {
+        long budget = conflictBudget;
+        while (true) {
+            int conflict = propagate();
+            if (conflict >= 0) {
+                conflicts++;
+                if ((conflicts & 0xFF) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Solver was interrupted.");
+                }
+                if (decisionLevel() == 0) {
+                    return false;
+                }
+                IntList learned = new IntList();
+                int backjumpLevel = analyze(conflict, learned);
+                backtrack(backjumpLevel);
+                int[] clause = learned.toArray();
+                if (clause.length == 1) {
+                    assign(clause[0], NO_REASON);
+                } else {
+                    int index = attach(clause, levelCount(clause));
+                    learnedClauses.add(index);
+                    assign(clause[0], index);
+                }
+                decayActivity();
+                budget--;
+            } else if (budget <= 0) {
+                backtrack(0);
+                return null;
+            } else {
+                int variable = nextDecision();
+                if (variable < 0) {
+                    return true;
+                }
+                decisions++;
+                levelStarts.add(trail.size());
+                assign(savedPhases[variable] ? positive(variable) : negative(variable), NO_REASON);
+            }
+        }
+    }
+
+    /**
+     * Propagates all unit clauses.
+     *
+     * @return The index of a conflicting clause, or -1.
+     */
+    private int propagate() {
+        while (propagated < trail.size()) {
+            int falseLiteral = trail.get(propagated++) ^ 1;
+            propagations++;
+            IntList watching = watches.get(falseLiteral);
+            int kept = 0;
+            for (int i = 0; i < watching.size(); i++) {
+                int index = watching.get(i);
+                int[] clause = clauses.get(index);
+                if (clause == null) { // Deleted, drop the watch
+                    continue;
+                }
+                if (clause[0] == falseLiteral) { // Keep the false watch at position 1
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+                if (valueOf(clause[0]) == TRUE) {
+                    watching.set(kept++, index);
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < clause.length; k++) {
+                    if (valueOf(clause[k]) != FALSE) {
+                        clause[1] = clause[k];
+                        clause[k] = falseLiteral;
+                        watches.get(clause[1]).add(index);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) {
+                    continue;
+                }
+                watching.set(kept++, index);
+                if (valueOf(clause[0]) == FALSE) {
+                    for (i++; i < watching.size(); i++) {
+                        watching.set(kept++, watching.get(i));
+                    }
+                    watching.truncate(kept);
+                    return index;
+                }
+                assign(clause[0], index);
+            }
+            watching.truncate(kept);
+        }
+        return -1;
+    }
+
+    /**
+     * Derives the first-UIP clause of a conflict and bumps the activity of the variables involved.
+     * Literals whose reason only contains other literals of the clause are removed.
+     *
+     * @param learned Receives the clause; its first literal is the one asserted after the backjump.
+     * @return The level to jump back to.
+     */
+    private int analyze(int conflict, IntList learned) {
+        learned.add(-1); // Placeholder for the asserting literal
+        int pathCount = 0;
+        int literal = -1;
+        int index = trail.size() - 1;
+        int reason = conflict;
+        do {
+            int[] clause = clauses.get(reason);
+            for (int j = literal < 0 ? 0 : 1; j < clause.length; j++) {
+                int variable = clause[j] >> 1;
+                if (!seen[variable] && levels[variable] > 0) {
+                    seen[variable] = true;
+                    bumpActivity(variable);
+                    if (levels[variable] == decisionLevel()) {
+                        pathCount++;
+                    } else {
+                        learned.add(clause[j]);
+                    }
+                }
+            }
+            while (!seen[trail.get(index) >> 1]) {
+                index--;
+            }
+            literal = trail.get(index--);
+            reason = reasons[literal >> 1];
+            seen[literal >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learned.set(0, literal ^ 1);
+
+        int[] marked = learned.toArray();
+        int kept = 1;
+        for (int i = 1; i < learned.size(); i++) {
+            int reasonOf = reasons[learned.get(i) >> 1];
+            if (reasonOf == NO_REASON || !isImpliedBySeen(clauses.get(reasonOf))) {
+                learned.set(kept++, learned.get(i));
+            }
+        }
+        learned.truncate(kept);
+        for (int i = 1; i < marked.length; i++) {
+            seen[marked[i] >> 1] = false;
+        }
+
+        int backjumpLevel = 0;
+        for (int i = 1; i < learned.size(); i++) {
+            int level = levels[learned.get(i) >> 1];
+            if (level > backjumpLevel) {
+                backjumpLevel = level;
+                int first = learned.get(1); // Watch a literal of the backjump level
+                learned.set(1, learned.get(i));
+                learned.set(i, first);
+            }
+        }
+        return backjumpLevel;
+    }
+
+    /** @return True if all literals of a reason clause except the implied one are in the clause being learned. */
+    private boolean isImpliedBySeen(int[] reason) {
+        for (int j = 1; j < reason.length; j++) {
+            int variable = reason[j] >> 1;
+            if (!seen[variable] && levels[variable] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return The number of distinct decision levels of the literals (the LBD). */
+    private int levelCount(int[] clause) {
+        stamp++;
+        int count = 0;
+        for (int literal : clause) {
+            int level = levels[literal >> 1];
+            if (levelStamps[level] != stamp) {
+                levelStamps[level] = stamp;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deletes the half of the learned clauses with the most decision levels. Only called at level 0,
+     * where no learned clause is the reason of an assignment that conflict analysis can still reach.
+     */
+    private void reduceLearnedClauses() {
+        List<Integer> candidates = new ArrayList<>();
+        IntList kept = new IntList();
+        for (int i = 0; i < learnedClauses.size(); i++) {
+            int index = learnedClauses.get(i);
+            if (lbds.get(index) <= KEPT_LBD) {
+                kept.add(index);
+            } else {
+                candidates.add(index);
+            }
+        }
+        // Stable sort, so older clauses go first among equal LBDs
+        candidates.sort((a, b) -> Integer.compare(lbds.get(b), lbds.get(a)));
+        int deleted = candidates.size() / 2;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i < deleted) {
+                clauses.set(candidates.get(i), null);
+            } else {
+                kept.add(candidates.get(i));
+            }
+        }
+        learnedClauses.truncate(0);
+        for (int i = 0; i < kept.size(); i++) {
+            learnedClauses.add(kept.get(i));
+        }
+    }
+
+    private int attach(int[] clause, int lbd) {
+        int index = clauses.size();
+        clauses.add(clause);
+        lbds.add(lbd);
+        watches.get(clause[0]).add(index);
+        watches.get(clause[1]).add(index);
+        return index;
+    }
+
+    private void assign(int literal, int reason) {
+        int variable = literal >> 1;
+        values[variable] = (literal & 1) == 0 ? TRUE : FALSE;
+        levels[variable] = decisionLevel();
+        reasons[variable] = reason;
+        trail.add(literal);
+    }
+
+    private void backtrack(int level) {
+        if (decisionLevel() <= level) {
+            return;
+        }
+        int start = levelStarts.get(level);
+        for (int i = trail.size() - 1; i >= start; i--) {
+            int variable = trail.get(i) >> 1;
+            savedPhases[variable] = values[variable] == TRUE;
+            values[variable] = UNASSIGNED;
+            reasons[variable] = NO_REASON;
+            if (!heap.contains(variable)) {
+                heap.insert(variable);
+            }
+        }
+        trail.truncate(start);
+        levelStarts.truncate(level);
+        propagated = start;
+    }
+
+    /** @return The unassigned variable with the highest activity, or -1 if all are assigned. */
+    private int nextDecision() {
+        while (!heap.isEmpty()) {
+            int variable = heap.removeMax();
+            if (values[variable] == UNASSIGNED) {
+                return variable;
+            }
+        }
+        return -1;
+    }
+
+    private byte valueOf(int literal) {
+        byte value = values[literal >> 1];
+        return (literal & 1) == 0 ? value : (byte) -value;
+    }
+
+    private int decisionLevel() {
+        return levelStarts.size();
+    }
+
+    private void bumpActivity(int variable) {
+        activity[variable] += activityIncrement;
+        if (activity[variable] > RESCALE_LIMIT) {
+            for (int v = 0; v < variableCount; v++) {
+                activity[v] /= RESCALE_LIMIT;
+            }
+            activityIncrement /= RESCALE_LIMIT;
+        }
+        if (heap.contains(variable)) {
+            heap.increased(variable);
+        }
+    }
+
+    private void decayActivity() {
+        activityIncrement /= ACTIVITY_DECAY;
+    }
+
+    /** A growable array of ints. */
+    private static final class IntList {
+        private int[] items = new int[4];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        int get(int i) {
+            return items[i];
+        }
+
+        void set(int i, int item) {
+            items[i] = item;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void truncate(int newSize) {
+            size = newSize;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+
+    /** A binary max-heap of variables ordered by activity. */
+    private final class VariableHeap {
+        private final int[] heapItems = new int[variableCount];
+        private final int[] positions = new int[variableCount]; // variable -> heap position, or -1
+        private int heapSize;
+
+        VariableHeap() {
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        boolean contains(int variable) {
+            return positions[variable] >= 0;
+        }
+
+        void insert(int variable) {
+            heapItems[heapSize] = variable;
+            positions[variable] = heapSize;
+            siftUp(heapSize++);
+        }
+
+        void increased(int variable) {
+            siftUp(positions[variable]);
+        }
+
+        int removeMax() {
+            int max = heapItems[0];
+            positions[max] = -1;
+            if (--heapSize > 0) {
+                heapItems[0] = heapItems[heapSize];
+                positions[heapItems[0]] = 0;
+                siftDown(0);
+            }
+            return max;
+        }
+
+        private void siftUp(int position) {
+            int variable = heapItems[position];
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (activity[heapItems[parent]] >= activity[variable]) {
+                    break;
+                }
+                heapItems[position] = heapItems[parent];
+                positions[heapItems[position]] = position;
+                position = parent;
+            }
+            heapItems[position] = variable;
+            positions[variable] = position;
+        }
+
+        private void siftDown(int position) {
+            int variable = heapItems[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && activity[heapItems[child + 1]] > activity[heapItems[child]]) {
+                    child++;
+                }
+                if (activity[heapItems[child]] <= activity[variable]) {
+                    break;
+                }
+                heapItems[position] = heapItems[child];
+                positions[heapItems[position]] = position;
+                position = child;
+            }
+            heapItems[position] = variable;
+            positions[variable] = position;
+        }
+    }
+}
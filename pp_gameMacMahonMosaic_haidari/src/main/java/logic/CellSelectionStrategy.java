@@ -0,0 +1,13 @@
+package logic;
+
+/**
+ * Decides which empty cell the backtracking {@link Solver} fills next.
+ */
+public enum CellSelectionStrategy {
+    /** The cell with the most borders and placed neighbors, see {@link Field#findMostConstrainedEmptyCell()}. */
+    MOST_CONSTRAINED,
+    /** The cell with the fewest fitting (piece, orientation) candidates ("minimum remaining values"). */
+    MIN_DOMAIN,
+    /** Cells on the outer ring of the board before interior cells, each group most constrained first. */
+    BORDER_FIRST
+}
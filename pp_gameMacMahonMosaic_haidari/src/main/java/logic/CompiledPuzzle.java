@@ -0,0 +1,201 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index-based view of a puzzle that is shared by the array-based solving engines.
+ * Every empty, non-hole cell gets a cell index, and every distinct orientation of every
+ * available piece gets an "oriented piece" index. Colors are stored as {@link Color}
+ * ordinals and directions as {@link Direction} ordinals.
+ * Constraints coming from borders and from pieces that are already on the board are
+ * resolved once here, so the engines only have to deal with the empty cells.
+ */
+public class CompiledPuzzle {
+
+    /** Marks an edge without a fixed color, e.g. next to another empty cell or a hole. */
+    public static final int NO_COLOR = -1;
+    /** Marks a missing neighbor in {@link #getNeighbor(int, int)}. */
+    public static final int NO_CELL = -1;
+
+    static final int[] ROW_OFFSET = {-1, 0, 1, 0};
+    static final int[] COLUMN_OFFSET = {0, 1, 0, -1};
+
+    private final Field field;
+    private final List<MosaicPiece> pieces;
+    private final int[][] cellIndex;
+    private final int[] cellRows;
+    private final int[] cellColumns;
+    private final int[][] neighbors;
+    private final int[][] fixedColors;
+    private final int[] orientedPieces;
+    private final int[] orientedRotations;
+    private final int[][] orientedEdges;
+    private final int[][] candidates;
+
+    private CompiledPuzzle(Field field, List<MosaicPiece> pieces, Map<BorderPosition, Color> borderColors) {
+        this.field = field;
+        this.pieces = new ArrayList<>(pieces);
+
+        int rows = field.getRows();
+        int columns = field.getColumns();
+        this.cellIndex = new int[rows][columns];
+        List<Position> cells = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (field.isCellEmpty(r, c) && !field.isCellHole(r, c)) {
+                    cellIndex[r][c] = cells.size();
+                    cells.add(new Position(r, c));
+                } else {
+                    cellIndex[r][c] = NO_CELL;
+                }
+            }
+        }
+
+        int cellCount = cells.size();
+        this.cellRows = new int[cellCount];
+        this.cellColumns = new int[cellCount];
+        this.neighbors = new int[cellCount][Game.EDGE_COUNT];
+        this.fixedColors = new int[cellCount][Game.EDGE_COUNT];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = cells.get(cell).row();
+            int column = cells.get(cell).column();
+            cellRows[cell] = row;
+            cellColumns[cell] = column;
+            for (Direction dir : Direction.values()) {
+                int d = dir.ordinal();
+                int neighborRow = row + ROW_OFFSET[d];
+                int neighborCol = column + COLUMN_OFFSET[d];
+                boolean inside = neighborRow >= 0 && neighborRow < rows && neighborCol >= 0 && neighborCol < columns;
+                neighbors[cell][d] = inside ? cellIndex[neighborRow][neighborCol] : NO_CELL;
+
+                Color required = Solver.getRequiredEdgeColorFor(row, column, dir, field, borderColors);
+                fixedColors[cell][d] = required == Color.NONE ? NO_COLOR : required.ordinal();
+            }
+        }
+
+        List<int[]> oriented = new ArrayList<>();
+        for (int p = 0; p < this.pieces.size(); p++) {
+            int count = this.pieces.get(p).getDistinctOrientationCount();
+            for (int o = 0; o < count; o++) {
+                oriented.add(new int[]{p, o * 90});
+            }
+        }
+        this.orientedPieces = new int[oriented.size()];
+        this.orientedRotations = new int[oriented.size()];
+        this.orientedEdges = new int[oriented.size()][Game.EDGE_COUNT];
+        for (int i = 0; i < oriented.size(); i++) {
+            orientedPieces[i] = oriented.get(i)[0];
+            orientedRotations[i] = oriented.get(i)[1];
+            MosaicPiece rotated = new MosaicPiece(this.pieces.get(orientedPieces[i]).getColorPattern());
+            rotated.setOrientation(orientedRotations[i]);
+            for (Direction dir : Direction.values()) {
+                orientedEdges[i][dir.ordinal()] = rotated.getEdgeColor(dir).ordinal();
+            }
+        }
+
+        this.candidates = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            List<Integer> fitting = new ArrayList<>();
+            for (int i = 0; i < orientedPieces.length; i++) {
+                if (fitsFixedColors(cell, i)) {
+                    fitting.add(i);
+                }
+            }
+            candidates[cell] = fitting.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Compiles the given puzzle. The field and the pieces are not modified.
+     *
+     * @param field           The field whose empty cells should be filled.
+     * @param availablePieces The pieces that may be placed.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The compiled puzzle.
+     */
+    public static CompiledPuzzle compile(Field field, List<MosaicPiece> availablePieces,
+                                         Map<BorderPosition, Color> borderColors) {
+        return new CompiledPuzzle(field, availablePieces, borderColors);
+    }
+
+    private boolean fitsFixedColors(int cell, int oriented) {
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int required = fixedColors[cell][d];
+            if (required != NO_COLOR && orientedEdges[oriented][d] != required) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Field getField() {
+        return field;
+    }
+    public List<MosaicPiece> getPieces() {
+        return pieces;
+    }
+    public int getPieceCount() {
+        return pieces.size();
+    }
+    public int getCellCount() {
+        return cellRows.length;
+    }
+    public int getCellRow(int cell) {
+        return cellRows[cell];
+    }
+    public int getCellColumn(int cell) {
+        return cellColumns[cell];
+    }
+    /** @return The cell index at the given position, or {@link #NO_CELL} for holes and occupied cells. */
+    public int getCellAt(int row, int column) {
+        return cellIndex[row][column];
+    }
+    /** @return The empty neighbor cell in the given direction, or {@link #NO_CELL}. */
+    public int getNeighbor(int cell, int direction) {
+        return neighbors[cell][direction];
+    }
+    /** @return The color required by a border or a placed piece, or {@link #NO_COLOR}. */
+    public int getFixedColor(int cell, int direction) {
+        return fixedColors[cell][direction];
+    }
+    public int getOrientedCount() {
+        return orientedPieces.length;
+    }
+    public int getOrientedPiece(int oriented) {
+        return orientedPieces[oriented];
+    }
+    public int getOrientedRotation(int oriented) {
+        return orientedRotations[oriented];
+    }
+    public int getOrientedEdge(int oriented, int direction) {
+        return orientedEdges[oriented][direction];
+    }
+    /**
+     * Returns the oriented pieces that satisfy the fixed constraints of a cell.
+     * The returned array must not be modified.
+     */
+    public int[] getCandidates(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * Builds the solved field for an assignment of oriented pieces to cells.
+     *
+     * @param assignment The oriented piece for every cell index, or a negative value to leave a cell empty.
+     * @return A copy of the compiled field with new piece instances placed in their orientation.
+     */
+    public Field toField(int[] assignment) {
+        Field solution = field.deepCopy();
+        for (int cell = 0; cell < assignment.length; cell++) {
+            int oriented = assignment[cell];
+            if (oriented >= 0) {
+                MosaicPiece piece = new MosaicPiece(pieces.get(orientedPieces[oriented]).getColorPattern());
+                piece.setOrientation(orientedRotations[oriented]);
+                solution.setPieceAt(cellRows[cell], cellColumns[cell], piece);
+            }
+        }
+        return solution;
+    }
+}
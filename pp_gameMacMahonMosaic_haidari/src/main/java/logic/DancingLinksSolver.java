@@ -0,0 +1,437 @@
+package logic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves the puzzle as an exact cover problem with color constraints
+ * (Knuth's Algorithm X with Dancing Links, extended with colored items).
+ * <ul>
+ *     <li>Every empty cell is a primary item that has to be covered exactly once.</li>
+ *     <li>Every available piece is a secondary item that may be covered at most once.</li>
+ *     <li>Every edge between two empty cells is a colored secondary item. Two options may share
+ *     such an item only if they assign it the same color, which enforces edge matching.</li>
+ * </ul>
+ * An option places one oriented piece on one cell. Options that violate a border or
+ * a piece that is already on the board are never created.
+ */
+public class DancingLinksSolver implements PuzzleSolver {
+
+    private CompiledPuzzle puzzle;
+
+    // Item headers: 0 is the root of the primary list, secondaryRoot the root of the secondary list.
+    private int[] llink;
+    private int[] rlink;
+    private int[] length;
+    private int secondaryRoot;
+
+    // Nodes (headers first, then spacers and option nodes).
+    private int[] top;
+    private int[] ulink;
+    private int[] dlink;
+    private int[] color;
+
+    private int[] nodeOption;
+    private int[] optionCell;
+    private int[] optionOriented;
+    private int[] optionNode;     // option -> its node in the item of its cell
+
+    private int[] choices;
+    private int[] solution;
+    private long solutionCount;
+    private boolean stopAtFirst;
+    private PrefixCounts[] prefixPath; // level -> counts of its choices, while counting by prefixes
+
+    /**
+     * The solutions of a puzzle counted per placement on the cell the search decides first, and below each
+     * placement the same for the next cell, down to a fixed number of cells.
+     */
+    static final class PrefixCounts {
+        /** The cell decided at this level, or {@link CompiledPuzzle#NO_CELL} if every cell is filled. */
+        final int cell;
+        final int[] orientedPieces;
+        final long[] counts;
+        /** The counts below each placement; null below the last counted level or without solutions. */
+        final PrefixCounts[] next;
+
+        PrefixCounts(int cell, int placements) {
+            this.cell = cell;
+            this.orientedPieces = new int[placements];
+            this.counts = new long[placements];
+            this.next = new PrefixCounts[placements];
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "dlx";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        build(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors));
+        stopAtFirst = true;
+        search(0);
+        return solution != null ? puzzle.toField(solution) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        build(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors));
+        stopAtFirst = false;
+        search(0);
+        return solutionCount;
+    }
+
+    /**
+     * Counts the solutions that extend some placements in one search, split by the placements on the next
+     * cells the search decides. The structure of a puzzle is built once and kept for the next count.
+     *
+     * @param compiled   The puzzle to count.
+     * @param assignment The oriented piece per cell, or -1 for a cell to fill; the placements must fit.
+     * @param levels     The number of decided cells to split the counts by.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    PrefixCounts countByPrefix(CompiledPuzzle compiled, int[] assignment, int levels) {
+        if (puzzle != compiled) {
+            build(compiled);
+        }
+        solution = null;
+        solutionCount = 0;
+        stopAtFirst = false;
+        int[] fixed = new int[assignment.length];
+        int fixedCount = 0;
+        for (int option = 0; option < optionCell.length; option++) {
+            if (assignment[optionCell[option]] == optionOriented[option]) {
+                fixed[fixedCount++] = optionNode[option];
+            }
+        }
+        for (int i = 0; i < fixedCount; i++) {
+            cover(top[fixed[i]]);
+            choose(fixed[i]);
+        }
+        prefixPath = new PrefixCounts[Math.max(levels, 1)];
+        try {
+            search(0);
+            return prefixPath[0];
+        } finally {
+            prefixPath = null;
+            for (int i = fixedCount - 1; i >= 0; i--) {
+                unchoose(fixed[i]);
+                uncover(top[fixed[i]]);
+            }
+        }
+    }
+
+    /**
+     * Builds the linked item and option structure for a compiled puzzle.
+     *
+     * @param compiled The puzzle to encode.
+     */
+    private void build(CompiledPuzzle compiled) {
+        this.puzzle = compiled;
+        this.solution = null;
+        this.solutionCount = 0;
+
+        int cellCount = compiled.getCellCount();
+        int pieceCount = compiled.getPieceCount();
+
+        // Give every edge between two empty cells an id (only from the TOP/LEFT cell's point of view).
+        int[][] edgeItem = new int[cellCount][Game.EDGE_COUNT];
+        int edgeCount = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                edgeItem[cell][d] = -1;
+            }
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int d : new int[]{Direction.RIGHT.ordinal(), Direction.BOTTOM.ordinal()}) {
+                int neighbor = compiled.getNeighbor(cell, d);
+                if (neighbor != CompiledPuzzle.NO_CELL) {
+                    edgeItem[cell][d] = edgeCount;
+                    edgeItem[neighbor][(d + 2) % Game.EDGE_COUNT] = edgeCount;
+                    edgeCount++;
+                }
+            }
+        }
+
+        int firstPiece = cellCount + 1;
+        int firstEdge = firstPiece + pieceCount;
+        secondaryRoot = firstEdge + edgeCount;
+        int headerCount = secondaryRoot + 1;
+
+        int optionCount = 0;
+        int optionNodes = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int neighborCount = 0;
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                if (edgeItem[cell][d] >= 0) {
+                    neighborCount++;
+                }
+            }
+            optionCount += compiled.getCandidates(cell).length;
+            optionNodes += compiled.getCandidates(cell).length * (2 + neighborCount);
+        }
+        int nodeCount = headerCount + optionNodes + optionCount + 1;
+
+        llink = new int[headerCount];
+        rlink = new int[headerCount];
+        length = new int[headerCount];
+        top = new int[nodeCount];
+        ulink = new int[nodeCount];
+        dlink = new int[nodeCount];
+        color = new int[nodeCount];
+        nodeOption = new int[nodeCount];
+        optionCell = new int[optionCount];
+        optionOriented = new int[optionCount];
+        optionNode = new int[optionCount];
+        choices = new int[cellCount + 1];
+
+        // Primary items form the list rooted at 0, secondary items the list rooted at secondaryRoot.
+        for (int i = 0; i <= cellCount; i++) {
+            llink[i] = i == 0 ? cellCount : i - 1;
+            rlink[i] = i == cellCount ? 0 : i + 1;
+        }
+        for (int i = firstPiece; i <= secondaryRoot; i++) {
+            llink[i] = i == firstPiece ? secondaryRoot : i - 1;
+            rlink[i] = i == secondaryRoot ? firstPiece : i + 1;
+        }
+        if (firstPiece == secondaryRoot) {
+            llink[secondaryRoot] = secondaryRoot;
+            rlink[secondaryRoot] = secondaryRoot;
+        }
+        for (int i = 0; i < headerCount; i++) {
+            ulink[i] = i;
+            dlink[i] = i;
+        }
+
+        int node = headerCount;
+        int lastSpacer = node;
+        top[lastSpacer] = 0;
+        int option = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int oriented : compiled.getCandidates(cell)) {
+                int first = node + 1;
+                node = appendNode(node, cell + 1, 0, option);
+                node = appendNode(node, firstPiece + compiled.getOrientedPiece(oriented), 0, option);
+                for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                    if (edgeItem[cell][d] >= 0) {
+                        // Colors of colored items must be positive.
+                        node = appendNode(node, firstEdge + edgeItem[cell][d],
+                                compiled.getOrientedEdge(oriented, d) + 1, option);
+                    }
+                }
+                dlink[lastSpacer] = node;
+                node++;
+                top[node] = -(option + 1);
+                ulink[node] = first;
+                lastSpacer = node;
+                optionCell[option] = cell;
+                optionOriented[option] = oriented;
+                optionNode[option] = first;
+                option++;
+            }
+        }
+    }
+
+    private int appendNode(int previous, int item, int itemColor, int option) {
+        int node = previous + 1;
+        top[node] = item;
+        color[node] = itemColor;
+        nodeOption[node] = option;
+        ulink[node] = ulink[item];
+        dlink[node] = item;
+        dlink[ulink[item]] = node;
+        ulink[item] = node;
+        length[item]++;
+        return node;
+    }
+
+    /**
+     * Covers one primary item per level, always choosing the item with the fewest options.
+     *
+     * @param level The number of options chosen so far.
+     * @return True if the search should stop (a solution was found and only one is needed).
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    private boolean search(int level) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+        if (rlink[0] == 0) {
+            if (prefixPath != null && level < prefixPath.length) {
+                prefixPath[level] = new PrefixCounts(CompiledPuzzle.NO_CELL, 0);
+            }
+            solutionCount++;
+            if (solution == null) {
+                solution = new int[puzzle.getCellCount()];
+                for (int l = 0; l < level; l++) {
+                    int chosenOption = nodeOption[choices[l]];
+                    solution[optionCell[chosenOption]] = optionOriented[chosenOption];
+                }
+            }
+            return stopAtFirst;
+        }
+
+        int item = rlink[0];
+        for (int i = rlink[0]; i != 0 && length[item] > 0; i = rlink[i]) {
+            if (length[i] < length[item]) {
+                item = i;
+            }
+        }
+        PrefixCounts counts = null;
+        if (prefixPath != null && level < prefixPath.length) {
+            counts = new PrefixCounts(item - 1, length[item]); // Cell c is the primary item c + 1
+            prefixPath[level] = counts;
+        }
+        if (length[item] == 0) {
+            return false;
+        }
+
+        boolean stop = false;
+        cover(item);
+        int placement = 0;
+        for (int x = dlink[item]; x != item && !stop; x = dlink[x]) {
+            choices[level] = x;
+            choose(x);
+            long before = solutionCount;
+            stop = search(level + 1);
+            if (counts != null) {
+                counts.orientedPieces[placement] = optionOriented[nodeOption[x]];
+                counts.counts[placement] = solutionCount - before;
+                if (level + 1 < prefixPath.length && solutionCount > before) {
+                    counts.next[placement] = prefixPath[level + 1];
+                }
+                placement++;
+            }
+            unchoose(x);
+        }
+        uncover(item);
+        return stop;
+    }
+
+    /** Commits the other nodes of the option of node x, whose item is already covered. */
+    private void choose(int x) {
+        for (int p = x + 1; p != x; ) {
+            int j = top[p];
+            if (j <= 0) {
+                p = ulink[p];
+            } else {
+                commit(p, j);
+                p++;
+            }
+        }
+    }
+
+    /** Takes back {@link #choose}. */
+    private void unchoose(int x) {
+        for (int p = x - 1; p != x; ) {
+            int j = top[p];
+            if (j <= 0) {
+                p = dlink[p];
+            } else {
+                uncommit(p, j);
+                p--;
+            }
+        }
+    }
+
+    private void cover(int item) {
+        for (int p = dlink[item]; p != item; p = dlink[p]) {
+            hide(p);
+        }
+        int left = llink[item];
+        int right = rlink[item];
+        rlink[left] = right;
+        llink[right] = left;
+    }
+
+    private void uncover(int item) {
+        int left = llink[item];
+        int right = rlink[item];
+        rlink[left] = item;
+        llink[right] = item;
+        for (int p = ulink[item]; p != item; p = ulink[p]) {
+            unhide(p);
+        }
+    }
+
+    /** Removes all other nodes of the option containing node p from their items. */
+    private void hide(int p) {
+        for (int q = p + 1; q != p; ) {
+            int x = top[q];
+            if (x <= 0) {
+                q = ulink[q];
+            } else {
+                if (color[q] >= 0) {
+                    int up = ulink[q];
+                    int down = dlink[q];
+                    dlink[up] = down;
+                    ulink[down] = up;
+                    length[x]--;
+                }
+                q++;
+            }
+        }
+    }
+
+    private void unhide(int p) {
+        for (int q = p - 1; q != p; ) {
+            int x = top[q];
+            if (x <= 0) {
+                q = dlink[q];
+            } else {
+                if (color[q] >= 0) {
+                    ulink[dlink[q]] = q;
+                    dlink[ulink[q]] = q;
+                    length[x]++;
+                }
+                q--;
+            }
+        }
+    }
+
+    private void commit(int p, int item) {
+        if (color[p] == 0) {
+            cover(item);
+        } else if (color[p] > 0) {
+            purify(p);
+        }
+    }
+
+    private void uncommit(int p, int item) {
+        if (color[p] == 0) {
+            uncover(item);
+        } else if (color[p] > 0) {
+            unpurify(p);
+        }
+    }
+
+    /** Keeps only the options that agree with the color node p assigns to its item. */
+    private void purify(int p) {
+        int c = color[p];
+        int item = top[p];
+        for (int q = dlink[item]; q != item; q = dlink[q]) {
+            if (color[q] == c) {
+                color[q] = -1;
+            } else {
+                hide(q);
+            }
+        }
+    }
+
+    private void unpurify(int p) {
+        int c = color[p];
+        int item = top[p];
+        for (int q = ulink[item]; q != item; q = ulink[q]) {
+            if (color[q] < 0) {
+                color[q] = c;
+            } else {
+                unhide(q);
+            }
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package logic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Coordinates a search over several worker processes, so it is not limited to the cores and the
+ * heap of one JVM.
+ * <p>
+ * The search is split into cubes, the valid choices for the first cells of the
+ * {@link IterativeSolver}; cells are added until there are several cubes per worker, but at most
+ * half of the cells are fixed, so the workers and not the coordinator do most of the search. The
+ * coordinator then starts {@link SearchWorker} processes that connect to it over a loopback socket,
+ * and hands out the cubes one at a time. The results are merged: a search for one solution stops at
+ * the first cube with a solution, a count adds up the counts of all cubes.
+ * <p>
+ * A worker that crashes or loses its connection gives its cube back, and the next idle worker
+ * takes it. The search only fails if no worker is left.
+ */
+public class DistributedSolver implements PuzzleSolver {
+
+    private static final int CUBES_PER_WORKER = 16;
+    private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final int ACCEPT_POLL_MILLIS = 100;
+
+    /** Starts a worker that connects to the coordinator. */
+    interface WorkerLauncher {
+        /** @return The worker process, to be ended after the search; null if the worker is not a process. */
+        Process launch(int port) throws IOException;
+    }
+
+    private final int workerCount;
+    private final WorkerLauncher launcher;
+    private long nodeCount;
+    private int cubeCount;
+    private int reassignedCubes;
+
+    /** Creates a coordinator with one worker process per available core. */
+    public DistributedSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param workerCount The number of worker processes to start.
+     * @throws IllegalArgumentException if the worker count is not positive.
+     */
+    public DistributedSolver(int workerCount) {
+        this(workerCount, DistributedSolver::launchProcess);
+    }
+
+    DistributedSolver(int workerCount, WorkerLauncher launcher) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("A distributed search needs at least one worker.");
+        }
+        this.workerCount = workerCount;
+        this.launcher = launcher;
+    }
+
+    @Override
+    public String getName() {
+        return "distributed";
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if all workers failed before the search was finished.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle compiled = CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors);
+        Run run = solve(compiled, false, fieldToSolve, availablePieces, borderColors);
+        return run.solution != null ? compiled.toField(run.solution) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if all workers failed before the count was finished.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle compiled = CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors);
+        return solve(compiled, true, fieldToSolve, availablePieces, borderColors).solutions;
+    }
+
+    /** @return The placements tried by the last search, in the final split and in all finished cubes. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /** @return The number of cubes the last search was split into. */
+    public int getCubeCount() {
+        return cubeCount;
+    }
+
+    /** @return How often a cube of the last search was given to another worker after a failure. */
+    public int getReassignedCubes() {
+        return reassignedCubes;
+    }
+
+    /** Starts a worker JVM with the class path of this one. */
+    private static Process launchProcess(int port) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SearchWorker.class.getName(), String.valueOf(port))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Splits the search into cubes, one more cell at a time, until every worker gets several or half
+     * of the cells are fixed. A puzzle with few solutions stays split at half of its cells instead of
+     * being searched to the end by the coordinator.
+     */
+    private List<int[]> split(CompiledPuzzle compiled) {
+        IterativeSolver splitter = new IterativeSolver();
+        List<int[]> cubes = splitter.splitIntoCubes(compiled, 0);
+        int maxDepth = compiled.getCellCount() / 2;
+        for (int depth = 1; depth <= maxDepth && !cubes.isEmpty()
+                && cubes.size() < workerCount * CUBES_PER_WORKER; depth++) {
+            cubes = splitter.splitIntoCubes(compiled, depth);
+        }
+        nodeCount = splitter.getNodeCount(); // Each split repeats the ones before, so only the last one counts
+        return cubes;
+    }
+
+    private Run solve(CompiledPuzzle compiled, boolean countAll, Field field, List<MosaicPiece> pieces,
+                      Map<BorderPosition, Color> borderColors) {
+        reassignedCubes = 0;
+        List<int[]> cubes = split(compiled);
+        cubeCount = cubes.size();
+        Run run = new Run(cubes, countAll);
+        if (cubes.isEmpty()) {
+            return run;
+        }
+
+        List<Process> processes = new ArrayList<>();
+        List<Socket> sockets = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "solver-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ServerSocket server = new ServerSocket(0, workerCount, InetAddress.getLoopbackAddress())) {
+            byte[] puzzleMessage = encodePuzzle(compiled, field, pieces, borderColors);
+            for (int i = 0; i < workerCount; i++) {
+                Process process = launcher.launch(server.getLocalPort());
+                if (process != null) {
+                    processes.add(process);
+                }
+            }
+
+            // Workers that connect late still join; the search does not wait for them
+            server.setSoTimeout(ACCEPT_POLL_MILLIS);
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+            for (int connected = 0; connected < workerCount && !run.isFinished()
+                    && System.currentTimeMillis() < deadline; ) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                try {
+                    Socket socket = server.accept();
+                    sockets.add(socket);
+                    run.workerJoined();
+                    executor.execute(() -> work(socket, run, puzzleMessage));
+                    connected++;
+                } catch (SocketTimeoutException e) {
+                    // Check for an interrupt and the deadline again
+                }
+            }
+            run.stopAccepting();
+            run.awaitDone();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solver was interrupted.");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (sockets) {
+                for (Socket socket : sockets) {
+                    closeQuietly(socket); // Ends the workers still searching a cube no longer needed
+                }
+            }
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            executor.shutdownNow();
+        }
+
+        synchronized (run) {
+            nodeCount += run.nodes;
+            reassignedCubes = run.reassigned;
+            if (!run.isFinished()) {
+                throw new IllegalStateException("All workers failed before the search was finished.", run.lastFailure);
+            }
+        }
+        return run;
+    }
+
+    private static byte[] encodePuzzle(CompiledPuzzle compiled, Field field, List<MosaicPiece> pieces,
+                                       Map<BorderPosition, Color> borderColors) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            SearchWorker.writePuzzle(out, IterativeSolver.fingerprint(compiled), field, pieces, borderColors);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Feeds one connected worker with cubes until the search is done or the worker fails. */
+    private static void work(Socket socket, Run run, byte[] puzzleMessage) {
+        Integer cube = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            out.write(puzzleMessage);
+            while ((cube = run.next()) != null) {
+                out.writeByte(SearchWorker.CUBE);
+                out.writeInt(cube);
+                out.writeBoolean(run.countAll);
+                SearchWorker.writeInts(out, run.cubes.get(cube));
+                out.flush();
+
+                byte tag = in.readByte();
+                if (tag == SearchWorker.ERROR) {
+                    throw new IOException(in.readUTF());
+                }
+                if (tag != SearchWorker.RESULT || in.readInt() != cube) {
+                    throw new IOException("Unexpected message " + tag + " from a worker.");
+                }
+                long solutions = in.readLong();
+                long nodes = in.readLong();
+                run.finish(solutions, nodes, SearchWorker.readInts(in));
+                cube = null;
+            }
+        } catch (IOException e) {
+            run.workerFailed(cube, e); // Crashed, or closed by the coordinator at the end
+        } catch (InterruptedException e) {
+            // The search is over
+        } finally {
+            closeQuietly(socket);
+            run.workerLeft();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with this connection
+        }
+    }
+
+    /** The state of one distributed search, shared by the threads that talk to the workers. */
+    private static final class Run {
+        private final List<int[]> cubes;
+        private final boolean countAll;
+        private final Deque<Integer> open = new ArrayDeque<>(); // Cubes not handed out
+        private int unfinished;                                  // Cubes without a result
+        private int workers;                                     // Connected workers
+        private boolean accepting = true;
+        private long solutions;
+        private long nodes;
+        private int[] solution;
+        private int reassigned;
+        private IOException lastFailure;
+
+        Run(List<int[]> cubes, boolean countAll) {
+            this.cubes = cubes;
+            this.countAll = countAll;
+            for (int cube = 0; cube < cubes.size(); cube++) {
+                open.add(cube);
+            }
+            unfinished = cubes.size();
+        }
+
+        /** @return The next cube for an idle worker, or null if the search is done. */
+        synchronized Integer next() throws InterruptedException {
+            while (open.isEmpty() && !isDone()) {
+                wait(); // For a cube given back by a failed worker, or the end of the search
+            }
+            return isDone() ? null : open.poll();
+        }
+
+        synchronized void finish(long cubeSolutions, long cubeNodes, int[] assignment) {
+            solutions += cubeSolutions;
+            nodes += cubeNodes;
+            if (!countAll && cubeSolutions > 0 && solution == null) {
+                solution = assignment;
+            }
+            unfinished--;
+            notifyAll();
+        }
+
+        /** Takes back the cube of a failed worker, so that the next idle worker searches it. */
+        synchronized void workerFailed(Integer cube, IOException failure) {
+            if (isFinished()) {
+                return;
+            }
+            lastFailure = failure;
+            if (cube != null) {
+                open.addFirst(cube);
+                reassigned++;
+                notifyAll();
+            }
+        }
+
+        synchronized void workerJoined() {
+            workers++;
+        }
+
+        synchronized void workerLeft() {
+            workers--;
+            notifyAll();
+        }
+
+        synchronized void stopAccepting() {
+            accepting = false;
+            notifyAll();
+        }
+
+        synchronized boolean isFinished() {
+            return unfinished == 0 || solution != null;
+        }
+
+        /** @return True if the search is finished or no worker is left to finish it. */
+        synchronized boolean isDone() {
+            return isFinished() || !accepting && workers == 0;
+        }
+
+        synchronized void awaitDone() throws InterruptedException {
+            while (!isDone()) {
+                wait();
+            }
+        }
+    }
+}
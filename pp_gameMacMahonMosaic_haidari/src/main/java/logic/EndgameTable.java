@@ -0,0 +1,202 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, lazily filled table of endgames: small sets of empty cells together with the pieces
+ * that could still go there. The same endgame shows up again and again near the leaves of the
+ * backtracking search, so its completion (or the fact that there is none) is computed only once.
+ * <p>
+ * The key of an endgame holds the positions of the empty cells relative to the first one, the
+ * colors required on each of their sides and the sorted color patterns of the pieces that fit at
+ * least one of the cells. When the table is full, the least recently used endgame is dropped.
+ */
+class EndgameTable {
+
+    /** The largest number of empty cells handled by the table. */
+    static final int MAX_CELLS = 4;
+    static final int DEFAULT_CAPACITY = 20_000;
+
+    private static final int[] IMPOSSIBLE = new int[0];
+
+    private final Map<String, int[]> completions;
+    private long hits;
+    private long misses;
+    private long nodeCount;
+
+    /**
+     * @param capacity The maximum number of endgames kept.
+     */
+    EndgameTable(int capacity) {
+        this.completions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Fills the given empty cells with the available pieces if that is possible.
+     *
+     * @param field           The board. On success the cells are filled, otherwise it is left unchanged.
+     * @param emptyCells      The empty, non-hole cells of the board in row-major order, at most {@link #MAX_CELLS}.
+     * @param availablePieces The pieces not yet placed.
+     * @param borderColors    The border colors of the board.
+     * @return True if the cells were filled, false if the endgame has no completion.
+     */
+    boolean complete(Field field, List<Position> emptyCells, List<MosaicPiece> availablePieces,
+                     Map<BorderPosition, Color> borderColors) {
+        int cellCount = emptyCells.size();
+        Color[][] required = new Color[cellCount][Game.EDGE_COUNT];
+        StringBuilder key = new StringBuilder();
+        Position origin = emptyCells.get(0);
+        for (int i = 0; i < cellCount; i++) {
+            Position cell = emptyCells.get(i);
+            key.append(cell.row() - origin.row()).append(',').append(cell.column() - origin.column()).append(':');
+            for (Direction dir : Direction.values()) {
+                required[i][dir.ordinal()] =
+                        Solver.getRequiredEdgeColorFor(cell.row(), cell.column(), dir, field, borderColors);
+                key.append(required[i][dir.ordinal()].getChar());
+            }
+            key.append(';');
+        }
+
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (MosaicPiece piece : availablePieces) {
+            for (int i = 0; i < cellCount; i++) {
+                if (fitsSomehow(piece, required[i])) {
+                    pieces.add(piece);
+                    break;
+                }
+            }
+        }
+        pieces.sort(Comparator.comparing(piece -> Arrays.toString(piece.getColorPattern())));
+        for (MosaicPiece piece : pieces) {
+            key.append('|');
+            for (Color color : piece.getColorPattern()) {
+                key.append(color.getChar());
+            }
+        }
+
+        String endgame = key.toString();
+        int[] completion = completions.get(endgame);
+        if (completion == null) {
+            misses++;
+            completion = solve(emptyCells, required, pieces);
+            completions.put(endgame, completion);
+        } else {
+            hits++;
+        }
+        if (completion == IMPOSSIBLE) {
+            return false;
+        }
+        for (int i = 0; i < cellCount; i++) {
+            MosaicPiece piece = pieces.get(completion[i] / Game.EDGE_COUNT);
+            piece.setOrientation(completion[i] % Game.EDGE_COUNT * 90);
+            field.setPieceAt(emptyCells.get(i).row(), emptyCells.get(i).column(), piece);
+        }
+        return true;
+    }
+
+    /** @return The number of endgames answered from the table. */
+    long getHits() {
+        return hits;
+    }
+
+    /** @return The number of endgames that had to be solved. */
+    long getMisses() {
+        return misses;
+    }
+
+    /** @return The number of placements tried while solving endgames. */
+    long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Solves an endgame by backtracking over its cells in order.
+     *
+     * @return Per cell, the piece index times {@link Game#EDGE_COUNT} plus the quarter turns; or IMPOSSIBLE.
+     */
+    private int[] solve(List<Position> cells, Color[][] required, List<MosaicPiece> pieces) {
+        int[] completion = new int[cells.size()];
+        boolean[] used = new boolean[pieces.size()];
+        return solve(0, cells, required, pieces, used, completion) ? completion : IMPOSSIBLE;
+    }
+
+    private boolean solve(int index, List<Position> cells, Color[][] required, List<MosaicPiece> pieces,
+                          boolean[] used, int[] completion) {
+        if (index == cells.size()) {
+            return true;
+        }
+        for (int p = 0; p < pieces.size(); p++) {
+            if (used[p]) {
+                continue;
+            }
+            Color[] pattern = pieces.get(p).getColorPattern();
+            for (int turns = 0; turns < pieces.get(p).getDistinctOrientationCount(); turns++) {
+                if (!fits(pattern, turns, index, cells, required, pieces, completion)) {
+                    continue;
+                }
+                nodeCount++;
+                used[p] = true;
+                completion[index] = p * Game.EDGE_COUNT + turns;
+                if (solve(index + 1, cells, required, pieces, used, completion)) {
+                    return true;
+                }
+                used[p] = false;
+            }
+        }
+        return false;
+    }
+
+    /** Checks a placement against the fixed colors and the endgame cells filled before it. */
+    private static boolean fits(Color[] pattern, int turns, int index, List<Position> cells, Color[][] required,
+                                List<MosaicPiece> pieces, int[] completion) {
+        Position cell = cells.get(index);
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            Color edge = edgeColor(pattern, turns, d);
+            if (required[index][d] != Color.NONE && required[index][d] != edge) {
+                return false;
+            }
+            int neighborRow = cell.row() + CompiledPuzzle.ROW_OFFSET[d];
+            int neighborCol = cell.column() + CompiledPuzzle.COLUMN_OFFSET[d];
+            for (int j = 0; j < index; j++) {
+                if (cells.get(j).row() == neighborRow && cells.get(j).column() == neighborCol) {
+                    Color[] neighborPattern = pieces.get(completion[j] / Game.EDGE_COUNT).getColorPattern();
+                    Color neighborEdge = edgeColor(neighborPattern, completion[j] % Game.EDGE_COUNT,
+                            (d + 2) % Game.EDGE_COUNT);
+                    if (neighborEdge != edge) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean fitsSomehow(MosaicPiece piece, Color[] required) {
+        Color[] pattern = piece.getColorPattern();
+        for (int turns = 0; turns < piece.getDistinctOrientationCount(); turns++) {
+            boolean fits = true;
+            for (int d = 0; d < Game.EDGE_COUNT && fits; d++) {
+                fits = required[d] == Color.NONE || required[d] == edgeColor(pattern, turns, d);
+            }
+            if (fits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The color a pattern shows on side d after the given number of clockwise quarter turns. */
+    private static Color edgeColor(Color[] pattern, int turns, int d) {
+        return pattern[(d + Game.EDGE_COUNT - turns) % Game.EDGE_COUNT];
+    }
+}
@@ -0,0 +1,179 @@
+package logic;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dispatches every request to the engine that is the fastest for the profile of the board.
+ * The decision table is fitted with {@code SolverBenchmark --fit} and shipped as a resource.
+ * The first rule that matches the board decides; if none matches, the default engine is used.
+ * The engines are looked up in the {@link SolverRegistry}.
+ */
+public class EngineSelector implements PuzzleSolver {
+    private static final String TABLE_RESOURCE_PATH = "/logic/json/engineSelection.json";
+    static final String FALLBACK_ENGINE = "dlx";
+
+    private final SelectionTable table;
+    private String lastEngine;
+
+    public EngineSelector() {
+        this(ShippedTable.INSTANCE);
+    }
+
+    EngineSelector(SelectionTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public String getName() {
+        return "auto";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        return createEngine(BoardProfile.of(fieldToSolve, borderColors))
+                .findSolution(fieldToSolve, availablePieces, borderColors);
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        return createEngine(BoardProfile.of(fieldToSolve, borderColors))
+                .countSolutions(fieldToSolve, availablePieces, borderColors);
+    }
+
+    /**
+     * Looks up the engine for a board.
+     *
+     * @param profile The profile of the board.
+     * @return The name of a registered engine other than the selector itself.
+     */
+    public String selectEngine(BoardProfile profile) {
+        for (Rule rule : table.rules) {
+            if (rule.matches(profile) && isSelectable(rule.engine)) {
+                return rule.engine;
+            }
+        }
+        return isSelectable(table.defaultEngine) ? table.defaultEngine : FALLBACK_ENGINE;
+    }
+
+    private boolean isSelectable(String engine) {
+        return !getName().equals(engine) && SolverRegistry.getDefault().contains(engine);
+    }
+
+    /** @return The name of the engine that handled the last request, or null before the first one. */
+    public String getLastEngine() {
+        return lastEngine;
+    }
+
+    private PuzzleSolver createEngine(BoardProfile profile) {
+        lastEngine = selectEngine(profile);
+        return SolverRegistry.getDefault().create(lastEngine);
+    }
+
+    /** The decision table from the resource, loaded once on first use. */
+    private static class ShippedTable {
+        static final SelectionTable INSTANCE = loadTable();
+    }
+
+    private static SelectionTable loadTable() {
+        try (InputStream inputStream = EngineSelector.class.getResourceAsStream(TABLE_RESOURCE_PATH)) {
+            if (inputStream == null) {
+                System.err.println("EngineSelector Error: Resource not found: " + TABLE_RESOURCE_PATH);
+                return SelectionTable.fallback();
+            }
+            try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                SelectionTable table = new Gson().fromJson(reader, SelectionTable.class);
+                if (table != null && table.rules != null) {
+                    return table;
+                }
+                System.err.println("EngineSelector Error: Decision table is incomplete in " + TABLE_RESOURCE_PATH);
+            }
+        } catch (IOException | JsonParseException e) {
+            System.err.println("EngineSelector Error: Could not read the decision table " + TABLE_RESOURCE_PATH);
+            e.printStackTrace();
+        }
+        return SelectionTable.fallback();
+    }
+
+    /**
+     * The decision table, in the structure of the engineSelection.json file for Gson parsing.
+     */
+    static class SelectionTable {
+        String defaultEngine;
+        List<Rule> rules;
+
+        SelectionTable(String defaultEngine, List<Rule> rules) {
+            this.defaultEngine = defaultEngine;
+            this.rules = rules;
+        }
+
+        static SelectionTable fallback() {
+            return new SelectionTable(FALLBACK_ENGINE, Collections.emptyList());
+        }
+
+        /** Writes the table in the format of the resource. */
+        String toJson() {
+            return new GsonBuilder().setPrettyPrinting().create().toJson(this);
+        }
+    }
+
+    /**
+     * One row of the decision table. Bounds are inclusive; a missing bound does not restrict the board.
+     * Open borders are border segments without a color.
+     */
+    static class Rule {
+        Integer maxFreeCells;
+        Integer minHoles;
+        Integer maxHoles;
+        Integer minOpenBorders;
+        Integer maxOpenBorders;
+        Integer minPrePlaced;
+        Integer maxPrePlaced;
+        String engine;
+
+        Rule(Integer maxFreeCells, Integer minHoles, Integer maxHoles, Integer minOpenBorders,
+             Integer maxOpenBorders, Integer minPrePlaced, Integer maxPrePlaced, String engine) {
+            this.maxFreeCells = maxFreeCells;
+            this.minHoles = minHoles;
+            this.maxHoles = maxHoles;
+            this.minOpenBorders = minOpenBorders;
+            this.maxOpenBorders = maxOpenBorders;
+            this.minPrePlaced = minPrePlaced;
+            this.maxPrePlaced = maxPrePlaced;
+            this.engine = engine;
+        }
+
+        boolean matches(BoardProfile profile) {
+            int openBorders = profile.borderSegments() - profile.fixedBorders();
+            return within(profile.freeCells(), null, maxFreeCells)
+                    && within(profile.holes(), minHoles, maxHoles)
+                    && within(openBorders, minOpenBorders, maxOpenBorders)
+                    && within(profile.prePlaced(), minPrePlaced, maxPrePlaced);
+        }
+
+        /** @return True if the rule restricts the boards in the same way as another one, apart from the free cells. */
+        boolean hasSameConditions(Rule other) {
+            return Objects.equals(minHoles, other.minHoles) && Objects.equals(maxHoles, other.maxHoles)
+                    && Objects.equals(minOpenBorders, other.minOpenBorders)
+                    && Objects.equals(maxOpenBorders, other.maxOpenBorders)
+                    && Objects.equals(minPrePlaced, other.minPrePlaced)
+                    && Objects.equals(maxPrePlaced, other.maxPrePlaced);
+        }
+
+        private static boolean within(int value, Integer min, Integer max) {
+            return (min == null || value >= min) && (max == null || value <= max);
+        }
+    }
+}
@@ -104,27 +104,7 @@ public class Field {
         for (int r = 0; r < this.rows; r++) {
             for (int c = 0; c < this.columns; c++) {
                 if (isCellEmpty(r, c) && !isCellHole(r, c)) {
-                    int currentConstraints = 0;
-                    for (Direction dir : Direction.values()) {
-                        int neighborRow = r;
-                        int neighborCol = c;
-                        switch (dir) {
-                            case TOP: neighborRow--; break;
-                            case RIGHT:  neighborCol++; break;
-                            case BOTTOM: neighborRow++; break;
-                            case LEFT:  neighborCol--; break;
-                        }
-
-                        // A border counts as a constraint
-                        if (neighborRow < 0 || neighborRow >= rows || neighborCol < 0 || neighborCol >= columns) {
-                            currentConstraints++;
-                        } else {
-                            // A non-empty neighbor cell counts as a constraint
-                            if (!isCellEmpty(neighborRow, neighborCol)) {
-                                currentConstraints++;
-                            }
-                        }
-                    }
+                    int currentConstraints = countConstrainedSides(r, c);
 
                     if (currentConstraints > maxConstraints) {
                         maxConstraints = currentConstraints;
@@ -136,5 +116,37 @@ public class Field {
         return bestPosition;
     }
 
+    /**
+     * Counts the sides of a cell that are constrained by a border or a placed piece.
+     *
+     * @param row    The row of the cell.
+     * @param column The column of the cell.
+     * @return The number of constrained sides (0 to 4).
+     */
+    public int countConstrainedSides(int row, int column) {
+        int constraints = 0;
+        for (Direction dir : Direction.values()) {
+            int neighborRow = row;
+            int neighborCol = column;
+            switch (dir) {
+                case TOP: neighborRow--; break;
+                case RIGHT:  neighborCol++; break;
+                case BOTTOM: neighborRow++; break;
+                case LEFT:  neighborCol--; break;
+            }
+
+            // A border counts as a constraint
+            if (neighborRow < 0 || neighborRow >= rows || neighborCol < 0 || neighborCol >= columns) {
+                constraints++;
+            } else {
+                // A non-empty neighbor cell counts as a constraint
+                if (!isCellEmpty(neighborRow, neighborCol)) {
+                    constraints++;
+                }
+            }
+        }
+        return constraints;
+    }
+
 
 }
@@ -4,6 +4,7 @@ import com.google.gson.JsonSyntaxException;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 public class Game {
     private final GUIConnector gui;
@@ -13,11 +14,23 @@ public class Game {
     private final PuzzleFileManager fileManager;
     private final PuzzleEditor puzzleEditor;
     public static final int MIN_ALLOWED_FREE_CELL = 18;
+    static final long CLOSEST_PLACEMENT_MILLIS = 500; // Time the editor gives the closest placement search
     static final int EDGE_COUNT = Direction.values().length;
     private boolean isEditorMode = false; // Flag to track if the game is in editor mode
     private boolean isDirty = false; // Flag to track if the game state has been modified
     private Map<BorderPosition, Color> currentBoardBorderColors;
     private Field savedSolution = null; // Cache for the puzzle solution, if available
+    private PuzzleSolver solver = SolverRegistry.getDefault().createConfigured(); // Engine for solvability checks and hints
+
+    /** The outcome of {@link #checkSolvability()}. */
+    public enum Solvability {
+        /** A solution was found and saved. */
+        SOLVABLE,
+        /** The check stopped before the search and already showed the reason. */
+        REPORTED,
+        /** The search found no solution. */
+        UNSOLVABLE
+    }
 
     public Game(GUIConnector gui) {
         this.gui = gui;
@@ -500,30 +513,77 @@ public class Game {
 
 
     public boolean isPuzzleSolvable() {
+        return checkSolvability() == Solvability.SOLVABLE;
+    }
+
+    /**
+     * Checks whether the puzzle can be solved, and saves the solution if it can. Checks that fail
+     * before the search show their own message, so the caller only has to explain a failed search.
+     *
+     * @return Whether a solution was found, and if not, whether the reason was already shown.
+     */
+    public Solvability checkSolvability() {
         // check if the pieces already on the board are valid
         if (!isBoardStateValid()) {
             gui.showStatusMessage("game.puzzle.state.unsolvable");
-            return false;
+            return Solvability.REPORTED;
+        }
+        // Cheap proofs of unsolvability work for boards of any size
+        if (failsPrecheck()) {
+            return Solvability.REPORTED;
         }
 
         int freeCells = getNumberOfFreeCells();
         if (freeCells > MIN_ALLOWED_FREE_CELL) {
             gui.showAlert("alert.solvability.skipped.title", "alert.solvability.skipped.body");
-            return false;
+            return Solvability.REPORTED;
         }
         if (!puzzleEditor.hasEnoughAvailableEdges(gameField, availablePieces)) {
-            return false;
+            return Solvability.REPORTED;
         }
 
-        Solver solver = new Solver();
-
         // Start with a copy of the game field and all available pieces
         Field fieldCopy = this.gameField.deepCopy();
         List<MosaicPiece> piecesCopy = new ArrayList<>(this.availablePieces);
 
         this.savedSolution = solver.findSolution(fieldCopy, piecesCopy, this.currentBoardBorderColors);
 
-        return savedSolution != null;
+        return savedSolution != null ? Solvability.SOLVABLE : Solvability.UNSOLVABLE;
+    }
+
+    /**
+     * Prepares the search for the placement of the available pieces with the fewest mismatched edges,
+     * so the editor can show how close an unsolvable puzzle is to a solvable one. The board is copied
+     * now, so the search can run on another thread while the board is edited; it stops after
+     * {@link #CLOSEST_PLACEMENT_MILLIS} with the closest placement found so far.
+     *
+     * @return The search, or {@code null} if the placed pieces already mismatch, there are fewer pieces
+     * than free cells or more free cells than the solvability check allows.
+     */
+    public Callable<MismatchOptimizer.Result> prepareClosestPlacementSearch() {
+        int freeCells = getNumberOfFreeCells();
+        if (freeCells > MIN_ALLOWED_FREE_CELL || availablePieces.size() < freeCells || !isBoardStateValid()) {
+            return null;
+        }
+        Field fieldCopy = gameField.deepCopy();
+        List<MosaicPiece> piecesCopy = new ArrayList<>(availablePieces);
+        Map<BorderPosition, Color> bordersCopy = new HashMap<>(currentBoardBorderColors);
+        return () -> new MismatchOptimizer(CLOSEST_PLACEMENT_MILLIS).optimize(fieldCopy, piecesCopy, bordersCopy);
+    }
+
+    /**
+     * Runs the {@link SolvabilityPrecheck} on the current board and reports the check that failed.
+     *
+     * @return {@code true} if the board is proven unsolvable, {@code false} if a search is still needed.
+     */
+    private boolean failsPrecheck() {
+        SolvabilityPrecheck.Check failedCheck =
+                SolvabilityPrecheck.findFailedCheck(gameField, availablePieces, currentBoardBorderColors);
+        if (failedCheck != null) {
+            gui.showStatusMessage(failedCheck.getMessageKey());
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -562,10 +622,12 @@ public class Game {
             gui.showStatusMessage("hint.no.empty.cells");
             return;
         }
+        if (failsPrecheck()) {
+            return;
+        }
 
         Field fieldCopy = this.gameField.deepCopy();
         List<MosaicPiece> availablePiecesCopy = new ArrayList<>(this.availablePieces);
-        Solver solver = new Solver();
 
         this.savedSolution = solver.findSolution(fieldCopy, availablePiecesCopy, this.currentBoardBorderColors);
 
@@ -621,6 +683,17 @@ public class Game {
         return gameField;
     }
 
+    /**
+     * Selects the engine used for solvability checks and hints.
+     *
+     * @param solver The solving engine, e.g. {@link Solver} or {@link DancingLinksSolver}.
+     *               By default the engine configured in the {@link SolverRegistry} is used.
+     */
+    public void setSolver(PuzzleSolver solver) {
+        this.solver = solver;
+        this.savedSolution = null;
+    }
+
     public void clearSavedSolution() {
         this.savedSolution = null;
     }
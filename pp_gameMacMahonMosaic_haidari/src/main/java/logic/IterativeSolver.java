@@ -0,0 +1,432 @@
+package logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Backtracking without recursion, for boards too deep for the call stack.
+ * <p>
+ * The cells are filled line by line, so the top and left neighbor of a cell are usually decided
+ * when the cell is reached. The decisions live in preallocated arrays that form an explicit stack:
+ * for every level the candidate list of its cell, the index of the candidate tried last and the
+ * oriented piece placed. Going deeper or backtracking only moves the level, so the depth is limited
+ * by the board size alone and no lists are copied.
+ * <p>
+ * Candidates are looked up by the colors required on the top and left side, which leaves only the
+ * used pieces and the remaining sides to check.
+ * <p>
+ * Because the whole search state is in these arrays, a long search can save it to a
+ * {@link SearchCheckpoint} at regular intervals and when it is interrupted, and a new process can
+ * resume it from there with the same final result.
+ * <p>
+ * The same arrays split a search into independent parts: the valid choices for the first levels
+ * form a cube each, and a cube is searched with these levels fixed. The {@link DistributedSolver}
+ * hands such cubes to worker processes.
+ */
+public class IterativeSolver implements PuzzleSolver {
+
+    private static final int INTERRUPT_CHECK_INTERVAL = 4096;
+    private static final int COLORS = Color.values().length;
+    private static final int TOP = Direction.TOP.ordinal();
+    private static final int LEFT = Direction.LEFT.ordinal();
+
+    private CompiledPuzzle puzzle;
+    private int[][] byTopLeft;       // (top color * COLORS + left color) -> oriented pieces
+    private int[] assignment;        // cell -> oriented piece, or -1
+    private boolean[] used;          // piece -> placed
+    private int[] levelCell;         // level -> cell
+    private int[][] levelCandidates; // level -> candidates of its cell
+    private int[] levelIndex;        // level -> index of the candidate tried last
+    private int[] levelOriented;     // level -> oriented piece placed
+    private int level;               // Current level of the search
+    private int floor;               // Lowest level the search may change
+    private int depth;               // Level at which a branch is complete
+    private List<int[]> cubes;       // Collects the complete branches when splitting, or null
+    private long solutions;
+    private long nodeCount;
+
+    private Path checkpointFile;     // Where the search is saved, or null
+    private long checkpointIntervalNanos;
+    private long nextCheckpoint;
+
+    @Override
+    public String getName() {
+        return "iterative";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), null, 0);
+        start();
+        return search(false) > 0 ? puzzle.toField(assignment) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), null, 0);
+        start();
+        return search(true);
+    }
+
+    /**
+     * Same as {@link #findSolution(Field, List, Map)}, but saves the search to a checkpoint file
+     * at regular intervals and when the thread is interrupted. If the file exists, the search
+     * resumes from it. The file is deleted when the search ends.
+     *
+     * @param checkpointFile The checkpoint to resume from and to save to.
+     * @param intervalMillis The time between two checkpoints.
+     * @throws IOException              if the checkpoint cannot be read or written.
+     * @throws IllegalArgumentException if the checkpoint belongs to another puzzle or to a count.
+     * @throws CancellationException    if the current thread was interrupted; the search is saved first.
+     */
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors, Path checkpointFile,
+                              long intervalMillis) throws IOException {
+        prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), checkpointFile, intervalMillis);
+        return searchFromCheckpoint(false) > 0 ? puzzle.toField(assignment) : null;
+    }
+
+    /**
+     * Same as {@link #countSolutions(Field, List, Map)}, but saves the count to a checkpoint file
+     * at regular intervals and when the thread is interrupted. If the file exists, the count
+     * resumes from it. The file is deleted when the count ends.
+     *
+     * @param checkpointFile The checkpoint to resume from and to save to.
+     * @param intervalMillis The time between two checkpoints.
+     * @throws IOException              if the checkpoint cannot be read or written.
+     * @throws IllegalArgumentException if the checkpoint belongs to another puzzle or to a search for one solution.
+     * @throws CancellationException    if the current thread was interrupted; the count is saved first.
+     */
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors, Path checkpointFile,
+                               long intervalMillis) throws IOException {
+        prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), checkpointFile, intervalMillis);
+        return searchFromCheckpoint(true);
+    }
+
+    /**
+     * Splits a search into cubes: every valid choice for the first levels, given as the candidate
+     * index per level. Together the cubes cover the whole search, and no two overlap.
+     *
+     * @param depth The number of levels to fix; fewer if the puzzle has fewer cells.
+     * @return The cubes in search order.
+     */
+    List<int[]> splitIntoCubes(CompiledPuzzle compiled, int depth) {
+        prepare(compiled, null, 0);
+        this.depth = Math.min(depth, levelCell.length);
+        cubes = new ArrayList<>();
+        try {
+            start();
+            search(true);
+            return cubes;
+        } finally {
+            this.depth = levelCell.length;
+            cubes = null;
+        }
+    }
+
+    /**
+     * Searches one cube of {@link #splitIntoCubes}, with its levels fixed.
+     *
+     * @param countAll True to count the solutions of the cube.
+     * @return The number of solutions found; at most 1 unless counting. After a successful search
+     * for one solution, {@link #getAssignment()} holds it.
+     * @throws IllegalArgumentException if the cube does not belong to the puzzle.
+     */
+    long searchCube(CompiledPuzzle compiled, int[] cube, boolean countAll) {
+        prepare(compiled, null, 0);
+        if (cube.length > levelCell.length) {
+            throw new IllegalArgumentException("The cube does not match the puzzle.");
+        }
+        for (int l = 0; l < cube.length; l++) {
+            enter(l);
+            if (cube[l] < 0 || cube[l] >= levelCandidates[l].length || !fits(levelCell[l], levelCandidates[l][cube[l]])) {
+                throw new IllegalArgumentException("The cube does not match the puzzle.");
+            }
+            place(l, cube[l]);
+        }
+        level = cube.length;
+        floor = cube.length;
+        if (level < levelCell.length) {
+            enter(level);
+        }
+        try {
+            return search(countAll);
+        } finally {
+            floor = 0;
+        }
+    }
+
+    /** @return The oriented piece per cell after the last search; -1 for an empty cell. */
+    int[] getAssignment() {
+        return assignment.clone();
+    }
+
+    /** @return The number of placements tried by the last search. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    private void prepare(CompiledPuzzle compiled, Path checkpointFile, long intervalMillis) {
+        this.puzzle = compiled;
+        this.checkpointFile = checkpointFile;
+        this.checkpointIntervalNanos = intervalMillis * 1_000_000L;
+        this.nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+        int cellCount = compiled.getCellCount();
+
+        List<List<Integer>> buckets = new ArrayList<>(COLORS * COLORS);
+        for (int key = 0; key < COLORS * COLORS; key++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int oriented = 0; oriented < compiled.getOrientedCount(); oriented++) {
+            buckets.get(compiled.getOrientedEdge(oriented, TOP) * COLORS
+                    + compiled.getOrientedEdge(oriented, LEFT)).add(oriented);
+        }
+        byTopLeft = new int[COLORS * COLORS][];
+        for (int key = 0; key < byTopLeft.length; key++) {
+            byTopLeft[key] = buckets.get(key).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Cells are compiled in row-major order, which is the order the lines are filled in
+        level = 0;
+        floor = 0;
+        depth = cellCount;
+        levelCell = new int[cellCount];
+        Arrays.setAll(levelCell, cell -> cell);
+        levelCandidates = new int[cellCount][];
+        levelIndex = new int[cellCount];
+        levelOriented = new int[cellCount];
+        assignment = new int[cellCount];
+        Arrays.fill(assignment, -1);
+        used = new boolean[compiled.getPieceCount()];
+        nodeCount = 0;
+        solutions = 0;
+    }
+
+    /** Starts a new search at the first level. */
+    private void start() {
+        level = 0;
+        if (levelCell.length > 0) {
+            enter(0);
+        }
+    }
+
+    /** Resumes the search from the checkpoint file if it exists, and deletes the file at the end. */
+    private long searchFromCheckpoint(boolean countAll) throws IOException {
+        if (Files.exists(checkpointFile)) {
+            restore(SearchCheckpoint.read(checkpointFile), countAll);
+        } else {
+            start();
+        }
+        long result;
+        try {
+            result = search(countAll);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.deleteIfExists(checkpointFile);
+        return result;
+    }
+
+    /**
+     * Replays the decision stack of a checkpoint.
+     *
+     * @throws IllegalArgumentException if the checkpoint does not belong to this puzzle and kind of search.
+     */
+    private void restore(SearchCheckpoint checkpoint, boolean countAll) {
+        if (checkpoint.fingerprint() != fingerprint(puzzle) || checkpoint.countAll() != countAll) {
+            throw new IllegalArgumentException("The checkpoint belongs to another puzzle or kind of search.");
+        }
+        int[] indices = checkpoint.candidateIndices();
+        if (indices.length == 0 || indices.length > levelCell.length) {
+            throw new IllegalArgumentException("The checkpoint does not match the puzzle.");
+        }
+        level = indices.length - 1;
+        for (int l = 0; l <= level; l++) {
+            enter(l);
+            if (indices[l] < -1 || indices[l] >= levelCandidates[l].length
+                    || l < level && (indices[l] < 0 || !fits(levelCell[l], levelCandidates[l][indices[l]]))) {
+                throw new IllegalArgumentException("The checkpoint does not match the puzzle.");
+            }
+            if (l < level) {
+                place(l, indices[l]);
+            } else {
+                levelIndex[l] = indices[l];
+            }
+        }
+        if (!Arrays.equals(usedMask(), checkpoint.usedPieces())) {
+            throw new IllegalArgumentException("The checkpoint does not match the puzzle.");
+        }
+        solutions = checkpoint.solutions();
+        nodeCount = checkpoint.nodeCount();
+    }
+
+    /** Saves the search; the current level must have been entered. */
+    private void saveCheckpoint(boolean countAll) {
+        try {
+            new SearchCheckpoint(fingerprint(puzzle), countAll, solutions, nodeCount,
+                    Arrays.copyOf(levelIndex, level + 1), usedMask()).write(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+    }
+
+    private long[] usedMask() {
+        long[] mask = new long[(used.length + Long.SIZE - 1) / Long.SIZE];
+        for (int piece = 0; piece < used.length; piece++) {
+            if (used[piece]) {
+                mask[piece / Long.SIZE] |= 1L << piece;
+            }
+        }
+        return mask;
+    }
+
+    /** @return A hash over the cells, fixed colors and oriented pieces of a compiled puzzle. */
+    static long fingerprint(CompiledPuzzle compiled) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        List<Integer> values = new ArrayList<>();
+        values.add(compiled.getCellCount());
+        for (int cell = 0; cell < compiled.getCellCount(); cell++) {
+            values.add(compiled.getCellRow(cell));
+            values.add(compiled.getCellColumn(cell));
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                values.add(compiled.getFixedColor(cell, d));
+            }
+        }
+        values.add(compiled.getOrientedCount());
+        for (int oriented = 0; oriented < compiled.getOrientedCount(); oriented++) {
+            values.add(compiled.getOrientedPiece(oriented));
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                values.add(compiled.getOrientedEdge(oriented, d));
+            }
+        }
+        for (int value : values) {
+            hash = (hash ^ value) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Runs the search on the explicit stack from the current level.
+     *
+     * @param countAll True to go on after each solution and count them all.
+     * @return The number of solutions found; at most 1 unless counting. After a successful search
+     * for one solution, the assignment holds it.
+     * @throws CancellationException if the current thread was interrupted.
+     * @throws UncheckedIOException  if a checkpoint cannot be saved.
+     */
+    private long search(boolean countAll) {
+        int cellCount = levelCell.length;
+        while (level >= floor) {
+            if (level == depth) {
+                if (cubes != null) {
+                    cubes.add(Arrays.copyOf(levelIndex, level));
+                }
+                solutions++;
+                if (!countAll) {
+                    return solutions;
+                }
+                level--;
+                if (level >= floor) {
+                    undo(level);
+                }
+                continue;
+            }
+
+            int cell = levelCell[level];
+            int[] candidates = levelCandidates[level];
+            int index = levelIndex[level] + 1;
+            while (index < candidates.length && !fits(cell, candidates[index])) {
+                index++;
+            }
+            if (index == candidates.length) {
+                level--; // Backtrack
+                if (level >= floor) {
+                    undo(level);
+                }
+                continue;
+            }
+
+            place(level, index);
+            level++;
+            if (level < cellCount) {
+                enter(level);
+                if (++nodeCount % INTERRUPT_CHECK_INTERVAL == 0) {
+                    pause(countAll);
+                }
+            } else {
+                nodeCount++;
+            }
+        }
+        return solutions;
+    }
+
+    /** Saves a checkpoint if one is due, and stops the search if the thread was interrupted. */
+    private void pause(boolean countAll) {
+        boolean interrupted = Thread.currentThread().isInterrupted();
+        if (checkpointFile != null && (interrupted || System.nanoTime() >= nextCheckpoint)) {
+            saveCheckpoint(countAll);
+        }
+        if (interrupted) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+    }
+
+    /** Places a candidate of a level on its cell. */
+    private void place(int level, int index) {
+        int oriented = levelCandidates[level][index];
+        levelIndex[level] = index;
+        levelOriented[level] = oriented;
+        assignment[levelCell[level]] = oriented;
+        used[puzzle.getOrientedPiece(oriented)] = true;
+    }
+
+    /** Prepares a level: picks the candidate list of its cell and starts before its first entry. */
+    private void enter(int level) {
+        int cell = levelCell[level];
+        int top = requiredColor(cell, TOP);
+        int left = requiredColor(cell, LEFT);
+        levelCandidates[level] = top != CompiledPuzzle.NO_COLOR && left != CompiledPuzzle.NO_COLOR
+                ? byTopLeft[top * COLORS + left] : puzzle.getCandidates(cell);
+        levelIndex[level] = -1;
+    }
+
+    /** Takes back the placement of a level, so its next candidate can be tried. */
+    private void undo(int level) {
+        assignment[levelCell[level]] = -1;
+        used[puzzle.getOrientedPiece(levelOriented[level])] = false;
+    }
+
+    /** @return The color a side of a cell has to show, or {@link CompiledPuzzle#NO_COLOR} if it is still open. */
+    private int requiredColor(int cell, int direction) {
+        int neighbor = puzzle.getNeighbor(cell, direction);
+        if (neighbor == CompiledPuzzle.NO_CELL) {
+            return puzzle.getFixedColor(cell, direction);
+        }
+        int placed = assignment[neighbor];
+        return placed >= 0 ? puzzle.getOrientedEdge(placed, (direction + 2) % Game.EDGE_COUNT) : CompiledPuzzle.NO_COLOR;
+    }
+
+    private boolean fits(int cell, int oriented) {
+        if (used[puzzle.getOrientedPiece(oriented)]) {
+            return false;
+        }
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int required = requiredColor(cell, d);
+            if (required != CompiledPuzzle.NO_COLOR && puzzle.getOrientedEdge(oriented, d) != required) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,370 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Min-conflicts search with a tabu list for boards that are too large for a complete search.
+ * <p>
+ * The search starts with every empty cell holding a random piece in a random orientation and
+ * counts the mismatched edges, i.e. the edges that make {@link Solver#checkPlacementValidity}
+ * fail: sides of two pieces with different colors, and sides facing a colored border segment
+ * or a fixed piece with another color. Every step picks a random cell with a mismatch and makes
+ * the best move for it: rotating its piece, swapping it with another cell (both pieces in their
+ * best orientations) or exchanging it with a piece that is not on the board. The best move is
+ * made even if it adds mismatches, but a piece may not return to a cell it just left for a few
+ * steps, unless that gives a new best placement. After a long time without a new best placement,
+ * the search restarts from the best one with a few random swaps.
+ * <p>
+ * Local search can not prove that a board has no solution, so it is not a {@link PuzzleSolver}.
+ * It reports the best placement found within the time budget instead.
+ */
+public class LocalSearchSolver {
+
+    static final long DEFAULT_SEED = 20240101L;
+    static final int DEFAULT_TABU_TENURE = 10;
+    private static final int STAGNATION_STEPS_PER_CELL = 50;
+    private static final int TIME_CHECK_INTERVAL = 64;
+
+    private final long seed;
+    private final long timeBudgetMillis;
+    private final int tabuTenure;
+
+    private CompiledPuzzle puzzle;
+    private Random random;
+    private int[][] orientedOfPiece; // piece -> its oriented pieces
+    private int[] orientedAt;        // cell -> oriented piece
+    private int[] cellOfPiece;       // piece -> cell, or -1 if it is not on the board
+    private long[] tabuUntil;        // (piece * cells + cell) -> step until which the piece may not enter the cell
+    private int mismatches;
+    private long step;
+
+    /**
+     * The best placement found by a search.
+     *
+     * @param field      The field with every empty cell filled; it has {@code mismatches} mismatched edges.
+     * @param mismatches The number of mismatched edges; 0 means the field is a solution.
+     * @param steps      The number of moves made.
+     */
+    public record Result(Field field, int mismatches, long steps) {
+        public boolean isSolved() {
+            return mismatches == 0;
+        }
+    }
+
+    /**
+     * @param timeBudgetMillis The time after which the best placement so far is reported.
+     */
+    public LocalSearchSolver(long timeBudgetMillis) {
+        this(DEFAULT_SEED, timeBudgetMillis, DEFAULT_TABU_TENURE);
+    }
+
+    /**
+     * @param seed             The seed of all random decisions. The same seed and budget give the same search,
+     *                         unless the budget ends it.
+     * @param timeBudgetMillis The time after which the best placement so far is reported.
+     * @param tabuTenure       The number of steps a piece may not return to a cell it left.
+     */
+    public LocalSearchSolver(long seed, long timeBudgetMillis, int tabuTenure) {
+        if (timeBudgetMillis <= 0 || tabuTenure < 0) {
+            throw new IllegalArgumentException("The time budget must be positive and the tabu tenure not negative.");
+        }
+        this.seed = seed;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.tabuTenure = tabuTenure;
+    }
+
+    /**
+     * Searches for a placement with as few mismatched edges as possible.
+     *
+     * @param fieldToSolve    The field configuration to solve. It is not modified.
+     * @param availablePieces The list of pieces available to use.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The best placement found; it stops early when a solution is found.
+     * @throws IllegalArgumentException if there are fewer pieces than empty cells.
+     * @throws CancellationException    if the current thread was interrupted.
+     */
+    public Result search(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                         Map<BorderPosition, Color> borderColors) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors));
+        int cells = puzzle.getCellCount();
+
+        int[] best = orientedAt.clone();
+        int bestMismatches = mismatches;
+        long lastImprovement = 0;
+        for (step = 1; bestMismatches > 0; step++) {
+            if (step % TIME_CHECK_INTERVAL == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Solver was interrupted.");
+                }
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            int cell = randomConflictedCell();
+            makeBestMove(cell, bestMismatches);
+            if (mismatches < bestMismatches) {
+                bestMismatches = mismatches;
+                best = orientedAt.clone();
+                lastImprovement = step;
+            } else if (step - lastImprovement > (long) STAGNATION_STEPS_PER_CELL * cells) {
+                restartFrom(best);
+                lastImprovement = step;
+            }
+        }
+        return new Result(puzzle.toField(best), bestMismatches, step - 1);
+    }
+
+    private void prepare(CompiledPuzzle compiled) {
+        this.puzzle = compiled;
+        int cells = compiled.getCellCount();
+        int pieces = compiled.getPieceCount();
+        if (cells > pieces) {
+            throw new IllegalArgumentException("The board has " + cells + " empty cells but only " + pieces + " pieces.");
+        }
+        random = new Random(seed);
+        List<List<Integer>> oriented = new ArrayList<>();
+        for (int p = 0; p < pieces; p++) {
+            oriented.add(new ArrayList<>());
+        }
+        for (int o = 0; o < compiled.getOrientedCount(); o++) {
+            oriented.get(compiled.getOrientedPiece(o)).add(o);
+        }
+        orientedOfPiece = new int[pieces][];
+        for (int p = 0; p < pieces; p++) {
+            orientedOfPiece[p] = oriented.get(p).stream().mapToInt(Integer::intValue).toArray();
+        }
+        tabuUntil = new long[pieces * cells];
+
+        // A random piece in a random orientation on every cell
+        int[] order = new int[pieces];
+        Arrays.setAll(order, p -> p);
+        for (int i = pieces - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        orientedAt = new int[cells];
+        cellOfPiece = new int[pieces];
+        Arrays.fill(cellOfPiece, -1);
+        for (int cell = 0; cell < cells; cell++) {
+            int[] orientations = orientedOfPiece[order[cell]];
+            orientedAt[cell] = orientations[random.nextInt(orientations.length)];
+            cellOfPiece[order[cell]] = cell;
+        }
+        mismatches = countMismatches();
+    }
+
+    /** @return The number of mismatched edges of the current placement, every edge counted once. */
+    private int countMismatches() {
+        int count = 0;
+        for (int cell = 0; cell < orientedAt.length; cell++) {
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                int neighbor = puzzle.getNeighbor(cell, d);
+                // An edge between two cells is counted at the cell with the lower index
+                if ((neighbor == CompiledPuzzle.NO_CELL || neighbor > cell) && sideMismatches(cell, d, orientedAt[cell])) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** @return A random cell with at least one mismatched side. */
+    private int randomConflictedCell() {
+        int chosen = -1;
+        int seen = 0;
+        for (int cell = 0; cell < orientedAt.length; cell++) {
+            if (costAround(cell, -1) > 0 && random.nextInt(++seen) == 0) {
+                chosen = cell;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Makes the best move for a cell that is not tabu, or tabu but better than the best placement.
+     * Ties are broken at random.
+     */
+    private void makeBestMove(int cell, int bestMismatches) {
+        int bestDelta = Integer.MAX_VALUE;
+        int bestOther = -1;      // Other cell of a swap, or -1
+        int bestPiece = -1;      // Piece from outside the board for an exchange, or -1
+        int bestOriented = -1;   // New oriented piece of the cell
+        int bestOtherOriented = -1;
+        int ties = 0;
+        int piece = puzzle.getOrientedPiece(orientedAt[cell]);
+        int before = costAround(cell, -1);
+
+        for (int oriented : orientedOfPiece[piece]) {
+            if (oriented == orientedAt[cell]) {
+                continue;
+            }
+            int delta = placeCost(cell, oriented) - before;
+            if (delta < bestDelta || delta == bestDelta && random.nextInt(++ties) == 0) {
+                ties = delta < bestDelta ? 1 : ties;
+                bestDelta = delta;
+                bestOther = -1;
+                bestPiece = -1;
+                bestOriented = oriented;
+            }
+        }
+
+        for (int other = 0; other < orientedAt.length; other++) {
+            int otherPiece = puzzle.getOrientedPiece(orientedAt[other]);
+            if (other == cell) {
+                continue;
+            }
+            int[] move = bestSwap(cell, other);
+            int delta = move[0];
+            boolean tabu = isTabu(otherPiece, cell) || isTabu(piece, other);
+            if (tabu && mismatches + delta >= bestMismatches) {
+                continue;
+            }
+            if (delta < bestDelta || delta == bestDelta && random.nextInt(++ties) == 0) {
+                ties = delta < bestDelta ? 1 : ties;
+                bestDelta = delta;
+                bestOther = other;
+                bestPiece = -1;
+                bestOriented = move[1];
+                bestOtherOriented = move[2];
+            }
+        }
+
+        for (int outside = 0; outside < cellOfPiece.length; outside++) {
+            if (cellOfPiece[outside] >= 0) {
+                continue;
+            }
+            for (int oriented : orientedOfPiece[outside]) {
+                int delta = placeCost(cell, oriented) - before;
+                if (isTabu(outside, cell) && mismatches + delta >= bestMismatches) {
+                    continue;
+                }
+                if (delta < bestDelta || delta == bestDelta && random.nextInt(++ties) == 0) {
+                    ties = delta < bestDelta ? 1 : ties;
+                    bestDelta = delta;
+                    bestOther = -1;
+                    bestPiece = outside;
+                    bestOriented = oriented;
+                }
+            }
+        }
+
+        if (bestOriented < 0) {
+            return; // Every move is tabu
+        }
+        long tabuEnd = step + tabuTenure;
+        if (bestOther >= 0) {
+            int otherPiece = puzzle.getOrientedPiece(orientedAt[bestOther]);
+            tabuUntil[piece * orientedAt.length + cell] = tabuEnd;
+            tabuUntil[otherPiece * orientedAt.length + bestOther] = tabuEnd;
+            orientedAt[cell] = bestOriented;
+            orientedAt[bestOther] = bestOtherOriented;
+            cellOfPiece[otherPiece] = cell;
+            cellOfPiece[piece] = bestOther;
+        } else {
+            if (bestPiece >= 0) {
+                tabuUntil[piece * orientedAt.length + cell] = tabuEnd;
+                cellOfPiece[piece] = -1;
+                cellOfPiece[bestPiece] = cell;
+            }
+            orientedAt[cell] = bestOriented;
+        }
+        mismatches += bestDelta;
+    }
+
+    /**
+     * Finds the best orientations for swapping the pieces of two cells.
+     *
+     * @return The change of mismatches, the new oriented piece of {@code cell} and that of {@code other}.
+     */
+    private int[] bestSwap(int cell, int other) {
+        int before = costAround(cell, other);
+        int[] cellOptions = orientedOfPiece[puzzle.getOrientedPiece(orientedAt[other])];
+        int[] otherOptions = orientedOfPiece[puzzle.getOrientedPiece(orientedAt[cell])];
+        int oldCell = orientedAt[cell];
+        int oldOther = orientedAt[other];
+        int[] best = {Integer.MAX_VALUE, -1, -1};
+        for (int cellOriented : cellOptions) {
+            for (int otherOriented : otherOptions) {
+                orientedAt[cell] = cellOriented;
+                orientedAt[other] = otherOriented;
+                int delta = costAround(cell, other) - before;
+                if (delta < best[0]) {
+                    best[0] = delta;
+                    best[1] = cellOriented;
+                    best[2] = otherOriented;
+                }
+            }
+        }
+        orientedAt[cell] = oldCell;
+        orientedAt[other] = oldOther;
+        return best;
+    }
+
+    /** @return The mismatched sides of a cell if it held the given oriented piece. */
+    private int placeCost(int cell, int oriented) {
+        int cost = 0;
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            if (sideMismatches(cell, d, oriented)) {
+                cost++;
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * @return The mismatched edges around one or two cells, with the edge between them counted once.
+     */
+    private int costAround(int cell, int other) {
+        int cost = placeCost(cell, orientedAt[cell]);
+        if (other >= 0) {
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                if (puzzle.getNeighbor(other, d) != cell && sideMismatches(other, d, orientedAt[other])) {
+                    cost++;
+                }
+            }
+        }
+        return cost;
+    }
+
+    private boolean sideMismatches(int cell, int d, int oriented) {
+        int neighbor = puzzle.getNeighbor(cell, d);
+        int required = neighbor != CompiledPuzzle.NO_CELL
+                ? puzzle.getOrientedEdge(orientedAt[neighbor], (d + 2) % Game.EDGE_COUNT)
+                : puzzle.getFixedColor(cell, d);
+        return required != CompiledPuzzle.NO_COLOR && required != puzzle.getOrientedEdge(oriented, d);
+    }
+
+    private boolean isTabu(int piece, int cell) {
+        return tabuUntil[piece * orientedAt.length + cell] >= step;
+    }
+
+    /** Continues from the best placement with a few random swaps, and clears the tabu list. */
+    private void restartFrom(int[] best) {
+        System.arraycopy(best, 0, orientedAt, 0, best.length);
+        Arrays.fill(cellOfPiece, -1);
+        for (int cell = 0; cell < orientedAt.length; cell++) {
+            cellOfPiece[puzzle.getOrientedPiece(orientedAt[cell])] = cell;
+        }
+        int swaps = Math.max(2, orientedAt.length / 10);
+        for (int i = 0; i < swaps && orientedAt.length > 1; i++) {
+            int a = random.nextInt(orientedAt.length);
+            int b = random.nextInt(orientedAt.length);
+            int pieceA = puzzle.getOrientedPiece(orientedAt[a]);
+            int pieceB = puzzle.getOrientedPiece(orientedAt[b]);
+            orientedAt[a] = orientedOfPiece[pieceB][random.nextInt(orientedOfPiece[pieceB].length)];
+            orientedAt[b] = orientedOfPiece[pieceA][random.nextInt(orientedOfPiece[pieceA].length)];
+            cellOfPiece[pieceA] = b;
+            cellOfPiece[pieceB] = a;
+        }
+        Arrays.fill(tabuUntil, 0L);
+        mismatches = countMismatches();
+    }
+}
@@ -0,0 +1,128 @@
+package logic;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from non-negative long keys to long values with open addressing and linear probing.
+ * Keys and values are kept in primitive arrays, so a lookup neither boxes nor allocates.
+ * {@link #clear()} keeps the arrays, so one map can be reused for many rounds of a search.
+ */
+class LongLongHashMap {
+
+    private static final long EMPTY = -1L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    /** Receives the entries of the map, see {@link #forEach}. */
+    interface EntryVisitor {
+        void visit(long key, long value);
+    }
+
+    LongLongHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * Adds a value to the value of a key; a missing key counts as 0.
+     *
+     * @param key   The key, which must not be negative.
+     * @param delta The value to add.
+     */
+    void addTo(long key, long delta) {
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /** Sets the value of a key, which must not be negative. */
+    void put(long key, long value) {
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /** @return The value of the key, or 0 if the map does not contain it. */
+    long get(long key) {
+        int slot = findSlot(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    boolean containsKey(long key) {
+        return keys[findSlot(key)] == key;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Removes all entries but keeps the allocated capacity. */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    /** Passes every entry to the visitor, in no particular order. */
+    void forEach(EntryVisitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /** @return The slot that holds the key, or the empty slot where it would be inserted. */
+    private int findSlot(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads packed bit fields
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int target = findSlot(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+                size++;
+            }
+        }
+    }
+}
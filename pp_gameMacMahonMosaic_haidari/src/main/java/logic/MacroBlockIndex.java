@@ -0,0 +1,233 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All internally consistent 2x2 blocks of four distinct oriented pieces of a piece catalog, for the
+ * macro-block search of {@link MacroBlockSolver}. Each block stores its four oriented pieces, the bit
+ * mask of its catalog pieces and the colors of its eight outer edges.
+ * <p>
+ * Blocks are found with one lookup by the colors required on some of the outer edges. As in
+ * {@link BorderIndex}, the entries for a set of edges are built on its first lookup; since each of
+ * these groupings holds every block, only the ones used most recently are kept. An index only
+ * depends on the catalog, so the index of the shipped tiles is built once and used for every board;
+ * pieces that are not available on a board are simply treated as used.
+ */
+class MacroBlockIndex {
+
+    /** Position of a piece in a block. */
+    static final int TOP_LEFT = 0, TOP_RIGHT = 1, BOTTOM_LEFT = 2, BOTTOM_RIGHT = 3;
+    static final int CORNERS = 4;
+    /** The outer edges of a block, clockwise from the top edge of the top-left piece: corner and direction. */
+    static final int[][] OUTER_EDGES = {
+            {TOP_LEFT, 0}, {TOP_RIGHT, 0}, {TOP_RIGHT, 1}, {BOTTOM_RIGHT, 1},
+            {BOTTOM_RIGHT, 2}, {BOTTOM_LEFT, 2}, {BOTTOM_LEFT, 3}, {TOP_LEFT, 3}};
+
+    private static final int COLOR_BITS = 2; // Piece edges only use three colors
+    private static final int COLOR_MASK = (1 << COLOR_BITS) - 1;
+    private static final int[] NO_BLOCKS = new int[0];
+    private static final int SHARED_CAPACITY = 4;
+    // One search looks up at most 4 sets of edges on the shipped tiles; the rest is for the next boards
+    private static final int GROUPINGS_CAPACITY = 8;
+    private static final Map<String, MacroBlockIndex> SHARED = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MacroBlockIndex> eldest) {
+                    return size() > SHARED_CAPACITY;
+                }
+            });
+
+    private final List<MosaicPiece> catalog;
+    private final int[] orientedPieces;    // oriented piece -> catalog piece
+    private final int[] orientedRotations; // oriented piece -> rotation in degrees
+    private final int[][] orientedEdges;   // oriented piece -> color ordinal per direction
+    private final int[] corners;           // 4 oriented pieces per block
+    private final long[] masks;
+    private final int[] outerColors;       // 8 colors per block, COLOR_BITS each
+    private final Map<Integer, Map<Integer, int[]>> blocksByEdges = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Map<Integer, int[]>> eldest) {
+                    return size() > GROUPINGS_CAPACITY;
+                }
+            });
+
+    private MacroBlockIndex(List<MosaicPiece> catalog) {
+        this.catalog = List.copyOf(catalog);
+        List<int[]> oriented = new ArrayList<>();
+        for (int p = 0; p < catalog.size(); p++) {
+            for (int o = 0; o < catalog.get(p).getDistinctOrientationCount(); o++) {
+                oriented.add(new int[]{p, o * 90});
+            }
+        }
+        int count = oriented.size();
+        orientedPieces = new int[count];
+        orientedRotations = new int[count];
+        orientedEdges = new int[count][Game.EDGE_COUNT];
+        for (int i = 0; i < count; i++) {
+            orientedPieces[i] = oriented.get(i)[0];
+            orientedRotations[i] = oriented.get(i)[1];
+            MosaicPiece rotated = new MosaicPiece(catalog.get(orientedPieces[i]).getColorPattern());
+            rotated.setOrientation(orientedRotations[i]);
+            for (Direction dir : Direction.values()) {
+                orientedEdges[i][dir.ordinal()] = rotated.getEdgeColor(dir).ordinal();
+            }
+        }
+
+        List<int[]> blocks = new ArrayList<>();
+        for (int topLeft = 0; topLeft < count; topLeft++) {
+            for (int topRight = 0; topRight < count; topRight++) {
+                if (!fitsBeside(topLeft, topRight)) {
+                    continue;
+                }
+                for (int bottomLeft = 0; bottomLeft < count; bottomLeft++) {
+                    if (!fitsBelow(topLeft, bottomLeft) || sharesPiece(bottomLeft, topLeft, topRight)) {
+                        continue;
+                    }
+                    for (int bottomRight = 0; bottomRight < count; bottomRight++) {
+                        if (fitsBelow(topRight, bottomRight) && fitsBeside(bottomLeft, bottomRight)
+                                && !sharesPiece(bottomRight, topLeft, topRight, bottomLeft)) {
+                            blocks.add(new int[]{topLeft, topRight, bottomLeft, bottomRight});
+                        }
+                    }
+                }
+            }
+        }
+
+        corners = new int[blocks.size() * CORNERS];
+        masks = new long[blocks.size()];
+        outerColors = new int[blocks.size()];
+        for (int block = 0; block < blocks.size(); block++) {
+            int[] pieces = blocks.get(block);
+            System.arraycopy(pieces, 0, corners, block * CORNERS, CORNERS);
+            for (int piece : pieces) {
+                masks[block] |= 1L << orientedPieces[piece];
+            }
+            for (int edge = 0; edge < OUTER_EDGES.length; edge++) {
+                outerColors[block] |= orientedEdges[pieces[OUTER_EDGES[edge][0]]][OUTER_EDGES[edge][1]] << (COLOR_BITS * edge);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a piece catalog, building it if the same catalog was not used recently.
+     *
+     * @param catalog The pieces, fewer than {@link Long#SIZE}.
+     */
+    static MacroBlockIndex forCatalog(List<MosaicPiece> catalog) {
+        StringBuilder key = new StringBuilder();
+        for (MosaicPiece piece : catalog) {
+            for (Color color : piece.getColorPattern()) {
+                key.append(color.getChar());
+            }
+            key.append(',');
+        }
+        return SHARED.computeIfAbsent(key.toString(), k -> new MacroBlockIndex(catalog));
+    }
+
+    /** @return The pieces of the catalog; bit i of a block mask stands for piece i. */
+    List<MosaicPiece> getCatalog() {
+        return catalog;
+    }
+
+    int getOrientedCount() {
+        return orientedPieces.length;
+    }
+
+    int getOrientedPiece(int oriented) {
+        return orientedPieces[oriented];
+    }
+
+    int getOrientedRotation(int oriented) {
+        return orientedRotations[oriented];
+    }
+
+    /**
+     * @param edges  Bit e is set if outer edge e (see {@link #OUTER_EDGES}) has a required color.
+     * @param colors The required color ordinal of every outer edge; only the edges in {@code edges} are read.
+     * @return The blocks that show these colors on these edges. Must not be modified.
+     */
+    int[] lookup(int edges, int[] colors) {
+        int key = 0;
+        for (int edge = 0; edge < OUTER_EDGES.length; edge++) {
+            if ((edges & 1 << edge) != 0) {
+                key |= colors[edge] << (COLOR_BITS * edge);
+            }
+        }
+        return blocksByEdges.computeIfAbsent(edges, this::buildEntries).getOrDefault(key, NO_BLOCKS);
+    }
+
+    /** @return The number of edge sets whose blocks are currently grouped. */
+    int getGroupingCount() {
+        return blocksByEdges.size();
+    }
+
+    int getBlockCount() {
+        return masks.length;
+    }
+
+    /** @return The oriented piece at a corner of a block, e.g. {@link #TOP_LEFT}. */
+    int getCorner(int block, int corner) {
+        return corners[block * CORNERS + corner];
+    }
+
+    /** @return The bit mask of the four pieces of a block. */
+    long getMask(int block) {
+        return masks[block];
+    }
+
+    /** Groups the blocks by the colors of the given edges with a counting sort, without boxing. */
+    private Map<Integer, int[]> buildEntries(int edges) {
+        int selected = 0;
+        for (int edge = 0; edge < OUTER_EDGES.length; edge++) {
+            if ((edges & 1 << edge) != 0) {
+                selected |= COLOR_MASK << (COLOR_BITS * edge);
+            }
+        }
+        int[] sizes = new int[1 << (COLOR_BITS * OUTER_EDGES.length)];
+        for (int colors : outerColors) {
+            sizes[colors & selected]++;
+        }
+        int[][] groups = new int[sizes.length][];
+        for (int key = 0; key < sizes.length; key++) {
+            if (sizes[key] > 0) {
+                groups[key] = new int[sizes[key]];
+                sizes[key] = 0;
+            }
+        }
+        for (int block = 0; block < outerColors.length; block++) {
+            int key = outerColors[block] & selected;
+            groups[key][sizes[key]++] = block;
+        }
+        Map<Integer, int[]> entries = new HashMap<>();
+        for (int key = 0; key < groups.length; key++) {
+            if (groups[key] != null) {
+                entries.put(key, groups[key]);
+            }
+        }
+        return entries;
+    }
+
+    private boolean fitsBeside(int left, int right) {
+        return orientedPieces[left] != orientedPieces[right]
+                && orientedEdges[left][Direction.RIGHT.ordinal()] == orientedEdges[right][Direction.LEFT.ordinal()];
+    }
+
+    private boolean fitsBelow(int top, int bottom) {
+        return orientedEdges[top][Direction.BOTTOM.ordinal()] == orientedEdges[bottom][Direction.TOP.ordinal()];
+    }
+
+    private boolean sharesPiece(int oriented, int... others) {
+        for (int other : others) {
+            if (orientedPieces[other] == orientedPieces[oriented]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
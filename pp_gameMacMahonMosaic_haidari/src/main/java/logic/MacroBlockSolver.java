@@ -0,0 +1,297 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Tiles the board with 2x2 macro-blocks of pieces from a {@link MacroBlockIndex}.
+ * <p>
+ * The board is covered row by row with blocks wherever four empty cells form a square; cells
+ * at odd edges, next to holes and next to pieces already on the board are filled with single
+ * pieces. Each block is chosen with one index lookup by the colors its outer edges have to
+ * match, so a step places four consistent pieces at once and the search is about four times
+ * shallower than placing single pieces.
+ * <p>
+ * The used pieces are a bit mask over the catalog of the block index. Catalog pieces that are
+ * not available on the board start out as used, so blocks containing them are skipped.
+ */
+public class MacroBlockSolver implements PuzzleSolver {
+
+    private CompiledPuzzle puzzle;
+    private MacroBlockIndex index;
+    private int[] catalogPieceOf;    // puzzle piece -> catalog piece of the index
+    private int[] orientedOfCatalog; // catalog oriented piece -> puzzle oriented piece, or -1
+    private long unavailablePieces;  // Catalog pieces that are not available on this board
+    private List<int[]> units;       // The cells of each step: four cells for a block, one for a single piece
+    private int[] assignment;        // cell -> oriented piece, or -1
+    private final int[] requiredColors = new int[MacroBlockIndex.OUTER_EDGES.length];
+
+    private boolean stopAtFirst;
+    private int[] solution;
+    private long solutionCount;
+    private long nodeCount;
+    private int blockUnits;
+    private boolean fallbackUsed;
+
+    @Override
+    public String getName() {
+        return "macro";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), true)) {
+            return new DancingLinksSolver().findSolution(fieldToSolve, availablePieces, borderColors);
+        }
+        search(0, unavailablePieces);
+        return solution != null ? puzzle.toField(solution) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), false)) {
+            return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+        }
+        search(0, unavailablePieces);
+        return solutionCount;
+    }
+
+    /** @return The number of blocks and single pieces placed by the last search. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /** @return The number of 2x2 blocks in the tiling plan of the last board. */
+    public int getBlockUnits() {
+        return blockUnits;
+    }
+
+    /** @return True if the last request had too many pieces for the block index and was handed to the {@link DancingLinksSolver}. */
+    public boolean isFallbackUsed() {
+        return fallbackUsed;
+    }
+
+    /**
+     * Plans the tiling and gets the block index.
+     *
+     * @return False if the pieces do not fit into a long bit mask.
+     */
+    private boolean prepare(CompiledPuzzle compiled, boolean stopAtFirst) {
+        this.puzzle = compiled;
+        this.stopAtFirst = stopAtFirst;
+        this.solution = null;
+        this.solutionCount = 0;
+        this.nodeCount = 0;
+        this.fallbackUsed = compiled.getPieceCount() >= Long.SIZE;
+        if (fallbackUsed) {
+            return false;
+        }
+        mapToCatalog();
+        planUnits();
+        assignment = new int[compiled.getCellCount()];
+        Arrays.fill(assignment, -1);
+        return true;
+    }
+
+    /**
+     * Uses the index of the shipped tiles if every available piece is one of them, so the blocks are
+     * computed only once for all boards. Otherwise the available pieces get an index of their own.
+     */
+    private void mapToCatalog() {
+        List<MosaicPiece> pieces = puzzle.getPieces();
+        catalogPieceOf = matchPieces(pieces, ShippedTiles.PIECES);
+        index = MacroBlockIndex.forCatalog(catalogPieceOf != null ? ShippedTiles.PIECES : pieces);
+        if (catalogPieceOf == null) {
+            catalogPieceOf = new int[pieces.size()];
+            Arrays.setAll(catalogPieceOf, p -> p);
+        }
+
+        unavailablePieces = (1L << index.getCatalog().size()) - 1;
+        int[] pieceOfCatalog = new int[index.getCatalog().size()];
+        Arrays.fill(pieceOfCatalog, -1);
+        for (int p = 0; p < catalogPieceOf.length; p++) {
+            pieceOfCatalog[catalogPieceOf[p]] = p;
+            unavailablePieces &= ~(1L << catalogPieceOf[p]);
+        }
+        int[][] orientedByRotation = new int[pieces.size()][Game.EDGE_COUNT];
+        for (int oriented = 0; oriented < puzzle.getOrientedCount(); oriented++) {
+            orientedByRotation[puzzle.getOrientedPiece(oriented)][puzzle.getOrientedRotation(oriented) / 90] = oriented;
+        }
+        orientedOfCatalog = new int[index.getOrientedCount()];
+        for (int oriented = 0; oriented < orientedOfCatalog.length; oriented++) {
+            int piece = pieceOfCatalog[index.getOrientedPiece(oriented)];
+            orientedOfCatalog[oriented] = piece < 0 ? -1 : orientedByRotation[piece][index.getOrientedRotation(oriented) / 90];
+        }
+    }
+
+    /** @return For every piece, the index of a distinct catalog piece with the same colors; or null if there is none. */
+    private static int[] matchPieces(List<MosaicPiece> pieces, List<MosaicPiece> catalog) {
+        int[] matched = new int[pieces.size()];
+        boolean[] taken = new boolean[catalog.size()];
+        for (int p = 0; p < pieces.size(); p++) {
+            matched[p] = -1;
+            for (int c = 0; c < catalog.size() && matched[p] < 0; c++) {
+                if (!taken[c] && Arrays.equals(pieces.get(p).getColorPattern(), catalog.get(c).getColorPattern())) {
+                    taken[c] = true;
+                    matched[p] = c;
+                }
+            }
+            if (matched[p] < 0) {
+                return null;
+            }
+        }
+        return matched;
+    }
+
+    private static class ShippedTiles {
+        static final List<MosaicPiece> PIECES = TileLoader.loadTilePatterns().stream().map(MosaicPiece::new).toList();
+    }
+
+    /** Covers the board row by row with 2x2 blocks where possible and single cells elsewhere. */
+    private void planUnits() {
+        units = new ArrayList<>();
+        blockUnits = 0;
+        boolean[] covered = new boolean[puzzle.getCellCount()];
+        Field field = puzzle.getField();
+        for (int row = 0; row < field.getRows(); row++) {
+            for (int column = 0; column < field.getColumns(); column++) {
+                int cell = puzzle.getCellAt(row, column);
+                if (cell == CompiledPuzzle.NO_CELL || covered[cell]) {
+                    continue;
+                }
+                int[] block = blockAt(row, column, covered);
+                int[] unit = block != null ? block : new int[]{cell};
+                for (int member : unit) {
+                    covered[member] = true;
+                }
+                units.add(unit);
+                if (block != null) {
+                    blockUnits++;
+                }
+            }
+        }
+    }
+
+    /** @return The four uncovered empty cells of the square with the given top-left corner, or null. */
+    private int[] blockAt(int row, int column, boolean[] covered) {
+        Field field = puzzle.getField();
+        if (row + 1 >= field.getRows() || column + 1 >= field.getColumns()) {
+            return null;
+        }
+        int[] cells = new int[MacroBlockIndex.CORNERS];
+        cells[MacroBlockIndex.TOP_LEFT] = puzzle.getCellAt(row, column);
+        cells[MacroBlockIndex.TOP_RIGHT] = puzzle.getCellAt(row, column + 1);
+        cells[MacroBlockIndex.BOTTOM_LEFT] = puzzle.getCellAt(row + 1, column);
+        cells[MacroBlockIndex.BOTTOM_RIGHT] = puzzle.getCellAt(row + 1, column + 1);
+        for (int cell : cells) {
+            if (cell == CompiledPuzzle.NO_CELL || covered[cell]) {
+                return null;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Fills the units in plan order.
+     *
+     * @return True if the search should stop (a solution was found and only one is needed).
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    private boolean search(int unitIndex, long usedPieces) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+        if (unitIndex == units.size()) {
+            solutionCount++;
+            if (solution == null) {
+                solution = assignment.clone();
+            }
+            return stopAtFirst;
+        }
+        int[] unit = units.get(unitIndex);
+        return unit.length == 1 ? placeSingle(unitIndex, unit[0], usedPieces) : placeBlock(unitIndex, unit, usedPieces);
+    }
+
+    private boolean placeSingle(int unitIndex, int cell, long usedPieces) {
+        for (int oriented : puzzle.getCandidates(cell)) {
+            long piece = 1L << catalogPieceOf[puzzle.getOrientedPiece(oriented)];
+            if ((usedPieces & piece) != 0 || !matchesAssignedNeighbors(cell, oriented)) {
+                continue;
+            }
+            nodeCount++;
+            assignment[cell] = oriented;
+            boolean stop = search(unitIndex + 1, usedPieces | piece);
+            assignment[cell] = -1;
+            if (stop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean placeBlock(int unitIndex, int[] cells, long usedPieces) {
+        int[] blocks = index.lookup(requiredOuterEdges(cells), requiredColors);
+        for (int block : blocks) {
+            long mask = index.getMask(block);
+            if ((usedPieces & mask) != 0) {
+                continue;
+            }
+            nodeCount++;
+            for (int corner = 0; corner < MacroBlockIndex.CORNERS; corner++) {
+                assignment[cells[corner]] = orientedOfCatalog[index.getCorner(block, corner)];
+            }
+            boolean stop = search(unitIndex + 1, usedPieces | mask);
+            for (int cell : cells) {
+                assignment[cell] = -1;
+            }
+            if (stop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the colors the outer edges of a block must show: fixed colors from borders and placed
+     * pieces, and the edges of neighbors that are already assigned.
+     *
+     * @return The bit set of outer edges with a required color; the colors are in {@link #requiredColors}.
+     */
+    private int requiredOuterEdges(int[] cells) {
+        int edges = 0;
+        for (int edge = 0; edge < MacroBlockIndex.OUTER_EDGES.length; edge++) {
+            int cell = cells[MacroBlockIndex.OUTER_EDGES[edge][0]];
+            int d = MacroBlockIndex.OUTER_EDGES[edge][1];
+            int neighbor = puzzle.getNeighbor(cell, d);
+            int color;
+            if (neighbor == CompiledPuzzle.NO_CELL) {
+                color = puzzle.getFixedColor(cell, d);
+            } else {
+                color = assignment[neighbor] >= 0
+                        ? puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT) : CompiledPuzzle.NO_COLOR;
+            }
+            if (color != CompiledPuzzle.NO_COLOR) {
+                requiredColors[edge] = color;
+                edges |= 1 << edge;
+            }
+        }
+        return edges;
+    }
+
+    private boolean matchesAssignedNeighbors(int cell, int oriented) {
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor != CompiledPuzzle.NO_CELL && assignment[neighbor] >= 0
+                    && puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT)
+                    != puzzle.getOrientedEdge(oriented, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
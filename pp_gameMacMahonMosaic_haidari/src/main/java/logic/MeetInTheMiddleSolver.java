@@ -0,0 +1,320 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Splits the board along a row into a top and a bottom half and meets in the middle.
+ * <p>
+ * Every valid filling of the top half is enumerated and stored under the colors it shows on the
+ * boundary row (the bottom edges of the last top row). The bottom half is then searched starting
+ * at the boundary: as soon as its first row is filled, the boundary colors are looked up, and the
+ * branch is dropped if no stored top filling has the same colors and a disjoint set of pieces.
+ * Complete bottom fillings are joined with the stored top fillings of the same boundary.
+ * <p>
+ * The stored half grows exponentially with its size. If it exceeds {@link #MAX_STORED_FILLINGS},
+ * or if the boundary has more edges than fit into one key, the request is handed to the
+ * {@link DancingLinksSolver} instead.
+ */
+public class MeetInTheMiddleSolver implements PuzzleSolver {
+
+    static final int MAX_STORED_FILLINGS = 1_000_000;
+    private static final int MAX_PIECES = Long.SIZE; // Used pieces are kept in a long bit mask
+    private static final int BOUNDARY_COLOR_BITS = 3;
+    // Boundary colors are packed into a long key; more edges would shift the first ones out
+    static final int MAX_BOUNDARY_EDGES = (Long.SIZE - 1) / BOUNDARY_COLOR_BITS;
+
+    private CompiledPuzzle puzzle;
+    private int[] assignment; // cell -> oriented piece, or -1
+    private int[] topCells;
+    private int[] bottomCells;
+    private int[] boundaryAbove; // Top cell of every boundary edge between two empty cells
+    private int[] boundaryBelow; // Bottom cell of the same edge
+    private int firstBottomRowCells; // Number of bottom cells in the boundary row
+
+    // Stored top fillings: boundary key -> used-piece masks and the pieces on the top cells (find)
+    // or boundary key -> used-piece mask -> number of fillings (count).
+    private Map<Long, List<long[]>> topMasks;
+    private Map<Long, List<int[]>> topAssignments;
+    private Map<Long, Map<Long, Long>> topCounts;
+    private int storedFillings;
+    private boolean counting;
+    private boolean fallbackUsed;
+
+    private int[] solution;
+    private long solutionCount;
+
+    @Override
+    public String getName() {
+        return "mitm";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle compiled = CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors);
+        if (!prepare(compiled, false)) {
+            return new DancingLinksSolver().findSolution(fieldToSolve, availablePieces, borderColors);
+        }
+        searchBottom(0, 0L);
+        return solution != null ? puzzle.toField(solution) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle compiled = CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors);
+        if (!prepare(compiled, true)) {
+            return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+        }
+        searchBottom(0, 0L);
+        return solutionCount;
+    }
+
+    /** @return True if the last request was too large and handed to the {@link DancingLinksSolver}. */
+    public boolean isFallbackUsed() {
+        return fallbackUsed;
+    }
+
+    /** @return The number of top-half fillings stored by the last request. */
+    public int getStoredFillings() {
+        return storedFillings;
+    }
+
+    /**
+     * Chooses the split row and stores all fillings of the top half.
+     *
+     * @return False if the puzzle is too large for this engine, or its boundary too wide.
+     */
+    private boolean prepare(CompiledPuzzle compiled, boolean counting) {
+        this.puzzle = compiled;
+        this.counting = counting;
+        this.solution = null;
+        this.solutionCount = 0;
+        this.storedFillings = 0;
+        this.fallbackUsed = true;
+        if (compiled.getPieceCount() > MAX_PIECES) {
+            return false;
+        }
+
+        splitAt(chooseSplitRow());
+        if (boundaryAbove.length > MAX_BOUNDARY_EDGES) {
+            return false;
+        }
+        assignment = new int[compiled.getCellCount()];
+        Arrays.fill(assignment, -1);
+        topMasks = new HashMap<>();
+        topAssignments = new HashMap<>();
+        topCounts = new HashMap<>();
+        if (!enumerateTop(0, 0L)) {
+            topMasks = null;
+            topAssignments = null;
+            topCounts = null;
+            return false;
+        }
+        fallbackUsed = false;
+        return true;
+    }
+
+    /** @return The row that starts the bottom half, chosen so the stored top half has at most half of the cells. */
+    private int chooseSplitRow() {
+        int rows = puzzle.getField().getRows();
+        int splitRow = 0;
+        int topCount = 0;
+        for (int row = 0; row < rows; row++) {
+            int rowCount = 0;
+            for (int column = 0; column < puzzle.getField().getColumns(); column++) {
+                if (puzzle.getCellAt(row, column) != CompiledPuzzle.NO_CELL) {
+                    rowCount++;
+                }
+            }
+            if (2 * (topCount + rowCount) > puzzle.getCellCount()) {
+                break;
+            }
+            topCount += rowCount;
+            splitRow = row + 1;
+        }
+        return splitRow;
+    }
+
+    private void splitAt(int splitRow) {
+        List<Integer> top = new ArrayList<>();
+        List<Integer> bottom = new ArrayList<>();
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            (puzzle.getCellRow(cell) < splitRow ? top : bottom).add(cell);
+        }
+        topCells = top.stream().mapToInt(Integer::intValue).toArray();
+        bottomCells = bottom.stream().mapToInt(Integer::intValue).toArray();
+
+        firstBottomRowCells = 0;
+        for (int cell : bottomCells) {
+            if (puzzle.getCellRow(cell) == splitRow) {
+                firstBottomRowCells++;
+            }
+        }
+
+        List<int[]> boundary = new ArrayList<>();
+        for (int cell : bottomCells) {
+            int above = puzzle.getNeighbor(cell, Direction.TOP.ordinal());
+            if (puzzle.getCellRow(cell) == splitRow && above != CompiledPuzzle.NO_CELL) {
+                boundary.add(new int[]{above, cell});
+            }
+        }
+        boundaryAbove = boundary.stream().mapToInt(edge -> edge[0]).toArray();
+        boundaryBelow = boundary.stream().mapToInt(edge -> edge[1]).toArray();
+    }
+
+    /**
+     * Enumerates and stores every filling of the top half.
+     *
+     * @return False if more than {@link #MAX_STORED_FILLINGS} fillings exist.
+     */
+    private boolean enumerateTop(int index, long usedPieces) {
+        checkInterrupted();
+        if (index == topCells.length) {
+            long key = boundaryKey(boundaryAbove, Direction.BOTTOM.ordinal());
+            if (counting) {
+                topCounts.computeIfAbsent(key, k -> new HashMap<>()).merge(usedPieces, 1L, Long::sum);
+            } else {
+                topMasks.computeIfAbsent(key, k -> new ArrayList<>()).add(new long[]{usedPieces});
+                int[] placements = new int[topCells.length];
+                for (int i = 0; i < topCells.length; i++) {
+                    placements[i] = assignment[topCells[i]];
+                }
+                topAssignments.computeIfAbsent(key, k -> new ArrayList<>()).add(placements);
+            }
+            return ++storedFillings <= MAX_STORED_FILLINGS;
+        }
+        int cell = topCells[index];
+        for (int oriented : puzzle.getCandidates(cell)) {
+            long piece = 1L << puzzle.getOrientedPiece(oriented);
+            if ((usedPieces & piece) != 0 || !matchesAssignedNeighbors(cell, oriented)) {
+                continue;
+            }
+            assignment[cell] = oriented;
+            boolean withinLimit = enumerateTop(index + 1, usedPieces | piece);
+            assignment[cell] = -1;
+            if (!withinLimit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches the bottom half, beginning with the boundary row, and joins it with the stored top fillings.
+     *
+     * @return True if the search should stop (a solution was found and only one is needed).
+     */
+    private boolean searchBottom(int index, long usedPieces) {
+        checkInterrupted();
+        if (index == firstBottomRowCells && !hasCompatibleTop(usedPieces)) {
+            return false; // No top filling fits this boundary row.
+        }
+        if (index == bottomCells.length) {
+            return join(usedPieces);
+        }
+        int cell = bottomCells[index];
+        for (int oriented : puzzle.getCandidates(cell)) {
+            long piece = 1L << puzzle.getOrientedPiece(oriented);
+            if ((usedPieces & piece) != 0 || !matchesAssignedNeighbors(cell, oriented)) {
+                continue;
+            }
+            assignment[cell] = oriented;
+            boolean stop = searchBottom(index + 1, usedPieces | piece);
+            assignment[cell] = -1;
+            if (stop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasCompatibleTop(long usedPieces) {
+        long key = boundaryKey(boundaryBelow, Direction.TOP.ordinal());
+        if (counting) {
+            Map<Long, Long> counts = topCounts.get(key);
+            if (counts != null) {
+                for (long mask : counts.keySet()) {
+                    if ((mask & usedPieces) == 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        List<long[]> masks = topMasks.get(key);
+        if (masks != null) {
+            for (long[] mask : masks) {
+                if ((mask[0] & usedPieces) == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Combines a complete bottom filling with the stored top fillings of the same boundary. */
+    private boolean join(long usedPieces) {
+        long key = boundaryKey(boundaryBelow, Direction.TOP.ordinal());
+        if (counting) {
+            Map<Long, Long> counts = topCounts.get(key);
+            if (counts != null) {
+                for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+                    if ((entry.getKey() & usedPieces) == 0) {
+                        solutionCount += entry.getValue();
+                    }
+                }
+            }
+            return false;
+        }
+        List<long[]> masks = topMasks.get(key);
+        if (masks == null) {
+            return false;
+        }
+        for (int i = 0; i < masks.size(); i++) {
+            if ((masks.get(i)[0] & usedPieces) == 0) {
+                int[] placements = topAssignments.get(key).get(i);
+                solution = assignment.clone();
+                for (int j = 0; j < topCells.length; j++) {
+                    solution[topCells[j]] = placements[j];
+                }
+                solutionCount = 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Encodes the colors of the boundary edges as seen from one side. */
+    private long boundaryKey(int[] cells, int direction) {
+        long key = 0;
+        for (int cell : cells) {
+            key = key << BOUNDARY_COLOR_BITS | puzzle.getOrientedEdge(assignment[cell], direction);
+        }
+        return key;
+    }
+
+    /** Checks the edges to neighbors of the same half; the boundary is checked through the key. */
+    private boolean matchesAssignedNeighbors(int cell, int oriented) {
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor != CompiledPuzzle.NO_CELL && assignment[neighbor] >= 0
+                    && puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT)
+                    != puzzle.getOrientedEdge(oriented, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+    }
+}
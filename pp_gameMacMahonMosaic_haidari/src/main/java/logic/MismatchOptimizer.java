@@ -0,0 +1,288 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Finds the placement with the fewest mismatched edges, so editors can see how close an
+ * unsolvable puzzle is to a solvable one.
+ * <p>
+ * A short {@link LocalSearchSolver} run gives a first placement. A branch-and-bound search then
+ * fills the cells in row-major order and only follows a partial placement while its mismatches
+ * plus a lower bound for the remaining cells stay below the best placement so far. The lower bound
+ * is the larger of two admissible estimates:
+ * <ul>
+ *     <li>Edge-color histograms: the sides of remaining cells that already require a color (borders,
+ *     fixed pieces and placed neighbors) are counted per color. If the unused pieces have fewer
+ *     edges of a color than required, each missing edge is a mismatch.</li>
+ *     <li>Cell minimum: every remaining cell with two or more required colors gets at least the
+ *     mismatches of its best fitting unused piece.</li>
+ * </ul>
+ * Identical pieces are branched on once. If the time limit ends the search, the best placement
+ * found so far is reported as not proven optimal.
+ */
+public class MismatchOptimizer {
+
+    static final long DEFAULT_TIME_LIMIT_MILLIS = 2_000;
+    private static final long LOCAL_SEARCH_MILLIS = 100;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final long timeLimitMillis;
+
+    private CompiledPuzzle puzzle;
+    private int[][][] typeEdges;     // piece type -> orientation -> color ordinal per direction
+    private int[][] typeOriented;    // piece type -> orientation -> oriented piece of the puzzle
+    private int[] typeRemaining;     // piece type -> unused pieces of this type
+    private int[] typeColorCounts;   // (piece type * colors + color) -> edges of this color on one piece
+    private int[] unusedColorCounts; // color -> edges of this color on all unused pieces
+    private int[] placedType;        // cell -> piece type, or -1
+    private int[] placedOrientation; // cell -> orientation index of the type
+    private int[] bestAssignment;
+    private int bestMismatches;
+    private long nodeCount;
+    private long deadline;
+    private boolean timedOut;
+
+    /**
+     * The closest placement found.
+     *
+     * @param field      The field with every empty cell filled.
+     * @param mismatches The number of mismatched edges of the field; 0 means it is a solution.
+     * @param optimal    True if no placement has fewer mismatches; false if the time limit ended the search.
+     * @param nodes      The number of partial placements the search visited.
+     */
+    public record Result(Field field, int mismatches, boolean optimal, long nodes) {}
+
+    public MismatchOptimizer() {
+        this(DEFAULT_TIME_LIMIT_MILLIS);
+    }
+
+    /**
+     * @param timeLimitMillis The time after which the best placement so far is reported.
+     */
+    public MismatchOptimizer(long timeLimitMillis) {
+        if (timeLimitMillis <= LOCAL_SEARCH_MILLIS) {
+            throw new IllegalArgumentException("The time limit must be above " + LOCAL_SEARCH_MILLIS + " ms.");
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Searches for the placement with the fewest mismatched edges.
+     *
+     * @param fieldToSolve    The field configuration to solve. It is not modified.
+     * @param availablePieces The list of pieces available to use.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The closest placement found.
+     * @throws IllegalArgumentException if there are fewer pieces than empty cells.
+     * @throws CancellationException    if the current thread was interrupted.
+     */
+    public Result optimize(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                           Map<BorderPosition, Color> borderColors) {
+        deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        LocalSearchSolver.Result first = new LocalSearchSolver(LOCAL_SEARCH_MILLIS)
+                .search(fieldToSolve, availablePieces, borderColors);
+        if (first.isSolved()) {
+            return new Result(first.field(), 0, true, 0);
+        }
+        prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors));
+        bestMismatches = first.mismatches();
+        bestAssignment = null;
+        nodeCount = 0;
+        timedOut = false;
+
+        search(0, 0);
+        Field closest = bestAssignment != null ? puzzle.toField(bestAssignment) : first.field();
+        return new Result(closest, bestMismatches, !timedOut, nodeCount);
+    }
+
+    /** Groups identical pieces into types and resets the placement. */
+    private void prepare(CompiledPuzzle compiled) {
+        this.puzzle = compiled;
+        List<MosaicPiece> pieces = compiled.getPieces();
+        List<Integer> representatives = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (int p = 0; p < pieces.size(); p++) {
+            int type = -1;
+            for (int t = 0; t < representatives.size() && type < 0; t++) {
+                if (Arrays.equals(pieces.get(representatives.get(t)).getColorPattern(), pieces.get(p).getColorPattern())) {
+                    type = t;
+                }
+            }
+            if (type < 0) {
+                representatives.add(p);
+                counts.add(1);
+            } else {
+                counts.set(type, counts.get(type) + 1);
+            }
+        }
+
+        int types = representatives.size();
+        int colors = Color.values().length;
+        typeEdges = new int[types][][];
+        typeOriented = new int[types][];
+        typeRemaining = new int[types];
+        typeColorCounts = new int[types * colors];
+        unusedColorCounts = new int[colors];
+        for (int t = 0; t < types; t++) {
+            List<Integer> oriented = new ArrayList<>();
+            for (int o = 0; o < compiled.getOrientedCount(); o++) {
+                if (compiled.getOrientedPiece(o) == representatives.get(t)) {
+                    oriented.add(o);
+                }
+            }
+            typeOriented[t] = oriented.stream().mapToInt(Integer::intValue).toArray();
+            typeEdges[t] = new int[typeOriented[t].length][Game.EDGE_COUNT];
+            for (int i = 0; i < typeOriented[t].length; i++) {
+                for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                    typeEdges[t][i][d] = compiled.getOrientedEdge(typeOriented[t][i], d);
+                }
+            }
+            typeRemaining[t] = counts.get(t);
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                typeColorCounts[t * colors + typeEdges[t][0][d]]++;
+            }
+            for (int color = 0; color < colors; color++) {
+                unusedColorCounts[color] += typeRemaining[t] * typeColorCounts[t * colors + color];
+            }
+        }
+
+        placedType = new int[compiled.getCellCount()];
+        placedOrientation = new int[compiled.getCellCount()];
+        Arrays.fill(placedType, -1);
+    }
+
+    /**
+     * Fills the cells from {@code cell} on.
+     *
+     * @param mismatches The mismatches of the cells before {@code cell}.
+     */
+    private void search(int cell, int mismatches) {
+        if (++nodeCount % TIME_CHECK_INTERVAL == 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Solver was interrupted.");
+            }
+            if (System.nanoTime() > deadline) {
+                timedOut = true;
+            }
+        }
+        if (timedOut || mismatches + lowerBound(cell) >= bestMismatches) {
+            return;
+        }
+        if (cell == puzzle.getCellCount()) {
+            bestMismatches = mismatches;
+            bestAssignment = new int[cell];
+            for (int c = 0; c < cell; c++) {
+                bestAssignment[c] = typeOriented[placedType[c]][placedOrientation[c]];
+            }
+            return;
+        }
+
+        // Try the placements with the fewest new mismatches first, so good placements are found early
+        int[] required = requiredColors(cell);
+        List<int[]> moves = new ArrayList<>();
+        for (int t = 0; t < typeRemaining.length; t++) {
+            if (typeRemaining[t] == 0) {
+                continue;
+            }
+            for (int o = 0; o < typeEdges[t].length; o++) {
+                moves.add(new int[]{countMismatches(typeEdges[t][o], required), t, o});
+            }
+        }
+        moves.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        int colors = Color.values().length;
+        for (int[] move : moves) {
+            int type = move[1];
+            if (mismatches + move[0] >= bestMismatches) {
+                break; // Sorted, so no later move can be better
+            }
+            placedType[cell] = type;
+            placedOrientation[cell] = move[2];
+            typeRemaining[type]--;
+            for (int color = 0; color < colors; color++) {
+                unusedColorCounts[color] -= typeColorCounts[type * colors + color];
+            }
+            search(cell + 1, mismatches + move[0]);
+            for (int color = 0; color < colors; color++) {
+                unusedColorCounts[color] += typeColorCounts[type * colors + color];
+            }
+            typeRemaining[type]++;
+            placedType[cell] = -1;
+            if (timedOut) {
+                return;
+            }
+        }
+    }
+
+    /** @return A lower bound for the mismatches of the cells from {@code firstCell} on. */
+    private int lowerBound(int firstCell) {
+        int colors = Color.values().length;
+        int[] demand = new int[colors];
+        int cellMinimums = 0;
+        for (int cell = firstCell; cell < puzzle.getCellCount(); cell++) {
+            int[] required = requiredColors(cell);
+            int requiredSides = 0;
+            for (int color : required) {
+                if (color != CompiledPuzzle.NO_COLOR) {
+                    demand[color]++;
+                    requiredSides++;
+                }
+            }
+            if (requiredSides >= 2) {
+                cellMinimums += minimumMismatches(required);
+            }
+        }
+        int histogramDeficit = 0;
+        for (int color = 0; color < colors; color++) {
+            histogramDeficit += Math.max(0, demand[color] - unusedColorCounts[color]);
+        }
+        return Math.max(histogramDeficit, cellMinimums);
+    }
+
+    /** @return The fewest mismatches any unused piece has against the required colors. */
+    private int minimumMismatches(int[] required) {
+        int minimum = Game.EDGE_COUNT;
+        for (int t = 0; t < typeRemaining.length && minimum > 0; t++) {
+            if (typeRemaining[t] == 0) {
+                continue;
+            }
+            for (int[] edges : typeEdges[t]) {
+                minimum = Math.min(minimum, countMismatches(edges, required));
+            }
+        }
+        return minimum;
+    }
+
+    /**
+     * @return The color every side of a cell must show: fixed colors and the edges of placed
+     * neighbors; {@link CompiledPuzzle#NO_COLOR} for sides without a requirement.
+     */
+    private int[] requiredColors(int cell) {
+        int[] required = new int[Game.EDGE_COUNT];
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor == CompiledPuzzle.NO_CELL) {
+                required[d] = puzzle.getFixedColor(cell, d);
+            } else if (placedType[neighbor] >= 0) {
+                required[d] = typeEdges[placedType[neighbor]][placedOrientation[neighbor]][(d + 2) % Game.EDGE_COUNT];
+            } else {
+                required[d] = CompiledPuzzle.NO_COLOR;
+            }
+        }
+        return required;
+    }
+
+    private static int countMismatches(int[] edges, int[] required) {
+        int mismatches = 0;
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            if (required[d] != CompiledPuzzle.NO_COLOR && required[d] != edges[d]) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+}
@@ -3,6 +3,7 @@ package logic;
 public class MosaicPiece {
     private final Color[] colorPattern;
     private int orientation; // 0, 90, 180, 270 degrees clockwise
+    private final int distinctOrientationCount; // 1, 2 or 4, depending on rotational symmetry
     private static final int EDGE_COUNT = 4; // Number of edges in a piece
 
     public MosaicPiece(Color[] colorPattern) {
@@ -11,6 +12,7 @@ public class MosaicPiece {
         }
         this.colorPattern = colorPattern;
         this.orientation = 0;
+        this.distinctOrientationCount = computeDistinctOrientationCount(colorPattern);
     }
 
     /**
@@ -41,6 +43,33 @@ public class MosaicPiece {
         return pattern;
     }
 
+    /**
+     * Computes how many visually distinct orientations a color pattern has.
+     * A pattern like "RRRR" looks the same in every rotation (1), "GRGR" repeats
+     * after a half turn (2), and every other pattern has 4 distinct orientations.
+     *
+     * @param pattern The four edge colors of the piece.
+     * @return The number of distinct orientations (1, 2 or 4).
+     */
+    private static int computeDistinctOrientationCount(Color[] pattern) {
+        for (int period = 1; period < EDGE_COUNT; period++) {
+            if (EDGE_COUNT % period != 0) {
+                continue;
+            }
+            boolean repeats = true;
+            for (int i = 0; i < EDGE_COUNT; i++) {
+                if (pattern[i] != pattern[(i + period) % EDGE_COUNT]) {
+                    repeats = false;
+                    break;
+                }
+            }
+            if (repeats) {
+                return period;
+            }
+        }
+        return EDGE_COUNT;
+    }
+
     /**
      * Rotates the piece 90 degrees clockwise.
      * The orientation is updated accordingly.
@@ -72,6 +101,17 @@ public Color getEdgeColor(Direction direction) {
         return colorPattern;
     }
 
+    /**
+     * Returns the number of visually distinct orientations of this piece.
+     * The distinct orientations are 0, 90, ... up to (count - 1) * 90 degrees;
+     * every other orientation repeats one of them.
+     *
+     * @return 1 for fully symmetric pieces, 2 for half-turn symmetric pieces, otherwise 4.
+     */
+    public int getDistinctOrientationCount() {
+        return distinctOrientationCount;
+    }
+
     public int getOrientation() {
         return orientation;
     }
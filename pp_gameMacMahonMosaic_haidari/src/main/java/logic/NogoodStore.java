@@ -0,0 +1,91 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded store of learned nogoods. A nogood is a set of placements
+ * (cell, oriented piece) that can never be part of the same solution.
+ * Placements are encoded as literals {@code cell * orientedCount + oriented}.
+ * When the store is full, the oldest nogood is replaced.
+ */
+class NogoodStore {
+
+    private final int capacity;
+    private final int maxSize;
+    private final int[][] slots;
+    private final Map<Integer, List<Integer>> slotsByLiteral = new HashMap<>();
+    private int nextSlot = 0;
+    private int size = 0;
+
+    /**
+     * @param capacity The maximum number of nogoods kept.
+     * @param maxSize  The maximum number of placements per nogood; larger ones are not worth storing.
+     */
+    NogoodStore(int capacity, int maxSize) {
+        this.capacity = capacity;
+        this.maxSize = maxSize;
+        this.slots = new int[capacity][];
+    }
+
+    /**
+     * Stores a nogood, replacing the oldest one if the store is full.
+     *
+     * @param literals The placements that cannot coexist.
+     * @return True if the nogood was stored, false if it is empty or too large.
+     */
+    boolean add(int[] literals) {
+        if (literals.length == 0 || literals.length > maxSize || capacity == 0) {
+            return false;
+        }
+        int[] evicted = slots[nextSlot];
+        if (evicted != null) {
+            for (int literal : evicted) {
+                slotsByLiteral.get(literal).remove(Integer.valueOf(nextSlot));
+            }
+        } else {
+            size++;
+        }
+        slots[nextSlot] = literals.clone();
+        for (int literal : literals) {
+            slotsByLiteral.computeIfAbsent(literal, key -> new ArrayList<>()).add(nextSlot);
+        }
+        nextSlot = (nextSlot + 1) % capacity;
+        return true;
+    }
+
+    /**
+     * Finds a nogood that becomes violated by adding the given placement.
+     *
+     * @param literal    The placement that is about to be made.
+     * @param assignment The current oriented piece of every cell, or a negative value for empty cells.
+     * @param orientedCount The number of oriented pieces used for the literal encoding.
+     * @return The violated nogood, or null if the placement is allowed.
+     */
+    int[] findViolated(int literal, int[] assignment, int orientedCount) {
+        List<Integer> candidates = slotsByLiteral.get(literal);
+        if (candidates == null) {
+            return null;
+        }
+        for (int slot : candidates) {
+            int[] nogood = slots[slot];
+            boolean violated = true;
+            for (int other : nogood) {
+                if (other != literal && assignment[other / orientedCount] != other % orientedCount) {
+                    violated = false;
+                    break;
+                }
+            }
+            if (violated) {
+                return nogood;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+}
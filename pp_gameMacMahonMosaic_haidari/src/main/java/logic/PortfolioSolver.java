@@ -0,0 +1,130 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Races several solving strategies against each other on separate threads.
+ * Every strategy works on its own copy of the board and the pieces. The first strategy
+ * that finishes provides the answer, all others are cancelled by interrupting their threads.
+ * The name of the winning strategy is kept so the defaults can be tuned.
+ */
+public class PortfolioSolver implements PuzzleSolver {
+
+    private final Map<String, Supplier<PuzzleSolver>> strategies;
+    private volatile String lastWinner;
+
+    /**
+     * Creates a portfolio of the default strategies: neighbor-count ordering, domain-size
+     * ordering (also with least-constraining values), border-first ordering and randomized restarts.
+     */
+    public PortfolioSolver() {
+        this(defaultStrategies());
+    }
+
+    /**
+     * @param strategies The strategies to race, by name. Every call of a supplier must return a new engine.
+     */
+    public PortfolioSolver(Map<String, Supplier<PuzzleSolver>> strategies) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("A portfolio needs at least one strategy.");
+        }
+        this.strategies = new LinkedHashMap<>(strategies);
+    }
+
+    /** @return The default strategies, by name. */
+    public static Map<String, Supplier<PuzzleSolver>> defaultStrategies() {
+        Map<String, Supplier<PuzzleSolver>> strategies = new LinkedHashMap<>();
+        strategies.put("most-constrained", () -> new Solver(CellSelectionStrategy.MOST_CONSTRAINED));
+        strategies.put("min-domain", () -> new Solver(CellSelectionStrategy.MIN_DOMAIN));
+        strategies.put("least-constraining",
+                () -> new Solver(CellSelectionStrategy.MIN_DOMAIN, ValueOrdering.LEAST_CONSTRAINING));
+        strategies.put("border-first", () -> new Solver(CellSelectionStrategy.BORDER_FIRST));
+        strategies.put("randomized", RestartingSolver::new);
+        return strategies;
+    }
+
+    @Override
+    public String getName() {
+        return "portfolio";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        return race(fieldToSolve, availablePieces,
+                (solver, copy) -> solver.findSolution(copy.field, copy.pieces, borderColors));
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        return race(fieldToSolve, availablePieces,
+                (solver, copy) -> solver.countSolutions(copy.field, copy.pieces, borderColors));
+    }
+
+    /** @return The name of the strategy that answered the last request, or null if none did. */
+    public String getLastWinner() {
+        return lastWinner;
+    }
+
+    /** A private copy of the board and the pieces for one strategy. */
+    private record BoardCopy(Field field, List<MosaicPiece> pieces) {
+        static BoardCopy of(Field field, List<MosaicPiece> pieces) {
+            List<MosaicPiece> piecesCopy = new ArrayList<>();
+            for (MosaicPiece piece : pieces) {
+                piecesCopy.add(new MosaicPiece(piece.getColorPattern()));
+            }
+            return new BoardCopy(field.deepCopy(), piecesCopy);
+        }
+    }
+
+    private interface Task<T> {
+        T run(PuzzleSolver solver, BoardCopy copy);
+    }
+
+    /** The answer of one strategy. A null value is a regular answer ("unsolvable"). */
+    private record Answer<T>(String strategy, T value) {}
+
+    /**
+     * Runs a task with every strategy and returns the first regular result.
+     * Strategies that fail (e.g. because they cannot count) are ignored as long as another one succeeds.
+     */
+    private <T> T race(Field field, List<MosaicPiece> pieces, Task<T> task) {
+        lastWinner = null;
+        ExecutorService executor = Executors.newFixedThreadPool(strategies.size(), runnable -> {
+            Thread thread = new Thread(runnable, "solver-portfolio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Answer<T>> completion = new ExecutorCompletionService<>(executor);
+        try {
+            for (Map.Entry<String, Supplier<PuzzleSolver>> strategy : strategies.entrySet()) {
+                BoardCopy copy = BoardCopy.of(field, pieces);
+                completion.submit(() -> new Answer<>(strategy.getKey(), task.run(strategy.getValue().get(), copy)));
+            }
+
+            RuntimeException lastFailure = null;
+            for (int i = 0; i < strategies.size(); i++) {
+                try {
+                    Answer<T> answer = completion.take().get();
+                    lastWinner = answer.strategy();
+                    return answer.value();
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause() instanceof RuntimeException runtime
+                            ? runtime : new IllegalStateException(e.getCause());
+                }
+            }
+            throw lastFailure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solver portfolio was interrupted.");
+        } finally {
+            executor.shutdownNow(); // Interrupts and thereby cancels the losing strategies.
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package logic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Dynamic programming over a broken frontier ("profile") for boards with one short side.
+ * <p>
+ * The cells are visited line by line along the long side of the board; a line runs across
+ * the short side. After every cell, the state holds the colors that the next line has to
+ * match (one slot per position of a line), the color the next cell of the same line has to
+ * match, and the bit mask of the pieces used so far. Different fillings that lead to the
+ * same state are merged, which makes the work grow with the number of states instead of the
+ * number of fillings.
+ * <ul>
+ *     <li>Counting runs forward over all states, and each state keeps the number of fillings that reach it.</li>
+ *     <li>Finding one solution searches depth-first and remembers the states that lead nowhere.</li>
+ * </ul>
+ * States are packed into one long and stored in a {@link LongLongHashMap}. If the packed state
+ * does not fit into a long, or a count has more than {@link #MAX_STATES} states after one cell,
+ * the request is handed to the {@link DancingLinksSolver} instead.
+ */
+public class ProfileSolver implements PuzzleSolver {
+
+    static final int MAX_STATES = 2_000_000;
+    private static final int SLOT_BITS = 2; // 0 = no constraint, otherwise color ordinal + 1
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    private CompiledPuzzle puzzle;
+    private int[] order;          // Cells in the order they are visited
+    private int[] linePosition;   // cell -> position across the short side
+    private int lineBackward;     // Direction to the previous line
+    private int stepBackward;     // Direction to the previous cell of the same line
+    private int pieceBits;
+    private int stepSlotShift;
+
+    private int[] assignment;     // cell -> oriented piece, used when looking for one solution
+    private LongLongHashMap deadStates;
+
+    private boolean fallbackUsed;
+    private long stateCount;
+    private int largestLayer;
+
+    @Override
+    public String getName() {
+        return "profile";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors))) {
+            return new DancingLinksSolver().findSolution(fieldToSolve, availablePieces, borderColors);
+        }
+        fallbackUsed = false;
+        assignment = new int[puzzle.getCellCount()];
+        deadStates = new LongLongHashMap();
+        return search(0, 0L) ? puzzle.toField(assignment) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors))) {
+            return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+        }
+        LongLongHashMap last = countForward();
+        if (last == null) {
+            return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+        }
+        long[] total = new long[1];
+        last.forEach((state, count) -> total[0] += count);
+        return total[0];
+    }
+
+    /** @return True if the last request was handed to the {@link DancingLinksSolver}. */
+    public boolean isFallbackUsed() {
+        return fallbackUsed;
+    }
+
+    /** @return The number of states created by the last count, or proven dead by the last search. */
+    public long getStateCount() {
+        return stateCount;
+    }
+
+    /** @return The largest number of states after a single cell in the last count. */
+    public int getLargestLayer() {
+        return largestLayer;
+    }
+
+    /** @return The cells in the order the states visit them; valid after {@link #prepare}. */
+    int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Chooses the scan direction and the state layout.
+     *
+     * @return False if a state does not fit into a long.
+     */
+    boolean prepare(CompiledPuzzle compiled) {
+        this.puzzle = compiled;
+        this.fallbackUsed = true;
+        this.stateCount = 0;
+        this.largestLayer = 0;
+
+        int rows = compiled.getField().getRows();
+        int columns = compiled.getField().getColumns();
+        boolean byColumns = rows <= columns;
+        int lineLength = byColumns ? rows : columns;
+        pieceBits = compiled.getPieceCount();
+        stepSlotShift = pieceBits + lineLength * SLOT_BITS;
+        if (stepSlotShift + SLOT_BITS >= Long.SIZE) {
+            return false;
+        }
+        lineBackward = (byColumns ? Direction.LEFT : Direction.TOP).ordinal();
+        stepBackward = (byColumns ? Direction.TOP : Direction.LEFT).ordinal();
+
+        order = new int[compiled.getCellCount()];
+        linePosition = new int[compiled.getCellCount()];
+        int next = 0;
+        for (int line = 0; line < (byColumns ? columns : rows); line++) {
+            for (int position = 0; position < lineLength; position++) {
+                int cell = byColumns ? compiled.getCellAt(position, line) : compiled.getCellAt(line, position);
+                if (cell != CompiledPuzzle.NO_CELL) {
+                    order[next++] = cell;
+                    linePosition[cell] = position;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks for one solution depth-first. A state from which no solution can be reached is
+     * remembered, so other fillings that lead to the same state are not searched again.
+     * If too many such states are remembered, they are forgotten and the search goes on.
+     *
+     * @return True if the remaining cells can be filled; the placements are then in the assignment.
+     */
+    private boolean search(int step, long state) {
+        checkInterrupted();
+        if (step == order.length) {
+            return true;
+        }
+        if (deadStates.containsKey(state)) {
+            return false;
+        }
+        int cell = order[step];
+        for (int oriented : puzzle.getCandidates(cell)) {
+            long successor = successor(state, cell, oriented);
+            if (successor >= 0) {
+                assignment[cell] = oriented;
+                if (search(step + 1, successor)) {
+                    return true;
+                }
+            }
+        }
+        if (deadStates.size() >= MAX_STATES) {
+            deadStates.clear();
+        }
+        deadStates.put(state, 0L);
+        stateCount++;
+        return false;
+    }
+
+    /**
+     * Runs the forward pass that counts, for every state after each cell, the fillings leading to it.
+     * Only two layers are kept; they swap roles after every cell.
+     *
+     * @return The states after the last cell with their counts, or null if a layer grew beyond {@link #MAX_STATES}.
+     */
+    private LongLongHashMap countForward() {
+        LongLongHashMap current = new LongLongHashMap();
+        LongLongHashMap next = new LongLongHashMap();
+        current.put(0L, 1L);
+        for (int cell : order) {
+            checkInterrupted();
+            LongLongHashMap target = next;
+            current.forEach((state, count) -> {
+                for (int oriented : puzzle.getCandidates(cell)) {
+                    long successor = successor(state, cell, oriented);
+                    if (successor >= 0) {
+                        target.addTo(successor, count);
+                    }
+                }
+            });
+            stateCount += target.size();
+            largestLayer = Math.max(largestLayer, target.size());
+            if (target.size() > MAX_STATES) {
+                return null;
+            }
+            current.clear();
+            next = current;
+            current = target;
+        }
+        fallbackUsed = false;
+        return current;
+    }
+
+    /**
+     * Applies a placement to a state.
+     *
+     * @return The new state, or -1 if the piece is used or does not match the frontier.
+     */
+    long successor(long state, int cell, int oriented) {
+        int piece = puzzle.getOrientedPiece(oriented);
+        if ((state >>> piece & 1L) != 0) {
+            return -1;
+        }
+        int lineSlotShift = pieceBits + linePosition[cell] * SLOT_BITS;
+        int fromLine = (int) (state >>> lineSlotShift) & SLOT_MASK;
+        int fromStep = (int) (state >>> stepSlotShift) & SLOT_MASK;
+        if (fromLine != 0 && puzzle.getOrientedEdge(oriented, lineBackward) + 1 != fromLine
+                || fromStep != 0 && puzzle.getOrientedEdge(oriented, stepBackward) + 1 != fromStep) {
+            return -1;
+        }
+
+        int lineForward = (lineBackward + 2) % Game.EDGE_COUNT;
+        int stepForward = (stepBackward + 2) % Game.EDGE_COUNT;
+        long toLine = puzzle.getNeighbor(cell, lineForward) != CompiledPuzzle.NO_CELL
+                ? puzzle.getOrientedEdge(oriented, lineForward) + 1 : 0;
+        long toStep = puzzle.getNeighbor(cell, stepForward) != CompiledPuzzle.NO_CELL
+                ? puzzle.getOrientedEdge(oriented, stepForward) + 1 : 0;
+        long cleared = state & ~((long) SLOT_MASK << lineSlotShift) & ~((long) SLOT_MASK << stepSlotShift);
+        return cleared | 1L << piece | toLine << lineSlotShift | toStep << stepSlotShift;
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+    }
+}
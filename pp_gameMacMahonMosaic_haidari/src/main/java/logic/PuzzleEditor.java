@@ -1,11 +1,21 @@
 package logic;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class PuzzleEditor {
 
     private final Game game;
     private final GUIConnector gui;
+    private final ExecutorService closestPlacementExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "editor-closest-placement");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> closestPlacementSearch; // The running search of the last check, if any
 
 
     static final int MAX_PIECES = 24; // Maximum number of pieces on the board
@@ -63,6 +73,9 @@ public class PuzzleEditor {
     }
 
     public boolean isPuzzleReadyToPlay() {
+        if (closestPlacementSearch != null) {
+            closestPlacementSearch.cancel(true); // Its board may have changed since
+        }
         Field gameField = game.getGameField();
         if (gameField == null) {
             gui.showStatusMessage("error.field.not.initialized");
@@ -123,8 +136,13 @@ public class PuzzleEditor {
 
 
 
-        if (!game.isPuzzleSolvable()) {
+        Game.Solvability solvability = game.checkSolvability();
+        if (solvability == Game.Solvability.REPORTED) {
+            return false; // Keep the message that names the failed check
+        }
+        if (solvability == Game.Solvability.UNSOLVABLE) {
             gui.showStatusMessage("error.unsolvable");
+            showClosestPlacementLater();
             return false;
         }
 
@@ -133,6 +151,26 @@ public class PuzzleEditor {
         return true; // All checks passed, puzzle is ready to play
     }
 
+    /**
+     * Shows how close an unsolvable puzzle is, so the editor knows how much has to change. The search
+     * runs on a background thread, so the editor stays responsive, and its message follows when it ends.
+     */
+    private void showClosestPlacementLater() {
+        Callable<MismatchOptimizer.Result> search = game.prepareClosestPlacementSearch();
+        if (search == null) {
+            return;
+        }
+        closestPlacementSearch = closestPlacementExecutor.submit(() -> {
+            MismatchOptimizer.Result closest = search.call();
+            if (closest.optimal()) {
+                gui.showStatusMessage("error.unsolvable.closest", closest.mismatches());
+            } else {
+                gui.showStatusMessage("error.unsolvable.closest.found", closest.mismatches());
+            }
+            return null;
+        });
+    }
+
     /**
      * Checks if a border segment is valid. A segment is valid if it has a color,
      * or if it is adjacent to a hole (in which case it doesn't need a color).
@@ -0,0 +1,54 @@
+package logic;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Common contract of all puzzle solving engines.
+ * An engine receives a (partially) filled field together with the pieces that
+ * are still available and fills every remaining empty, non-hole cell so that all
+ * edges match their neighbors and the colored border segments.
+ * <p>
+ * Engines are discovered by the {@link SolverRegistry} through {@link java.util.ServiceLoader}:
+ * an implementation needs a public no-argument constructor and an entry in
+ * {@code META-INF/services/logic.PuzzleSolver}.
+ * <p>
+ * One instance may be used for many calls, e.g. by the {@link Game} for every check and hint. Every
+ * call is a new search: state an engine keeps between calls must not change the answer for
+ * another board.
+ */
+public interface PuzzleSolver {
+
+    /**
+     * @return The short name the engine is registered and configured under, e.g. "dlx".
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Searches for one complete placement of the available pieces.
+     *
+     * @param fieldToSolve    The field configuration to solve. Engines may modify it.
+     * @param availablePieces The list of pieces available to use.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return A Field object representing the solution, or null if unsolvable.
+     */
+    Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                       Map<BorderPosition, Color> borderColors);
+
+    /**
+     * Counts all complete placements of the available pieces. Two solutions are
+     * different if any cell holds a different piece or a visually different orientation.
+     *
+     * @param fieldToSolve    The field configuration to solve. Engines may modify it.
+     * @param availablePieces The list of pieces available to use.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The number of solutions.
+     * @throws UnsupportedOperationException if the engine cannot enumerate solutions.
+     */
+    default long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                                Map<BorderPosition, Color> borderColors) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot count solutions.");
+    }
+}
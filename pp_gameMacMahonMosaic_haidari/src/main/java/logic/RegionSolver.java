@@ -0,0 +1,235 @@
+package logic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves the independent regions of a board separately.
+ * <p>
+ * Holes and pieces already on the board can split the empty cells into regions that do not
+ * touch each other. Such regions only interact through the shared pieces: a solution is one
+ * filling per region, with no piece used twice.
+ * <ul>
+ *     <li>Counting enumerates the fillings of every region on its own, counted per bit mask of
+ *     the pieces used, and combines the regions with a dynamic program over disjoint masks.</li>
+ *     <li>Finding one solution fills the regions one after the other, smallest first, instead of
+ *     interleaving them in one deep search. The piece masks after which the remaining regions
+ *     cannot be filled are remembered, so a region is never refilled with the same pieces.</li>
+ * </ul>
+ * Boards with a single region, more pieces than fit into a long, or too many fillings to count
+ * are handed to the {@link DancingLinksSolver}.
+ */
+public class RegionSolver implements PuzzleSolver {
+
+    static final int MAX_FILLINGS = 2_000_000;
+
+    private CompiledPuzzle puzzle;
+    private int[] assignment; // cell -> oriented piece, or -1
+    private List<int[]> regions;
+    private LongLongHashMap deadMasks;
+    private int fillingCount;
+    private boolean fallbackUsed;
+
+    @Override
+    public String getName() {
+        return "regions";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors))) {
+            return new DancingLinksSolver().findSolution(fieldToSolve, availablePieces, borderColors);
+        }
+        deadMasks = new LongLongHashMap();
+        return fill(0, 0, 0L) ? puzzle.toField(assignment) : null;
+    }
+
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        if (!prepare(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors))) {
+            return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+        }
+        // combined: union of the piece masks of the regions so far -> number of ways to fill them
+        LongLongHashMap combined = new LongLongHashMap();
+        combined.put(0L, 1L);
+        for (int[] region : regions) {
+            LongLongHashMap counts = new LongLongHashMap();
+            if (!enumerate(region, 0, 0L, counts)) {
+                fallbackUsed = true;
+                return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+            }
+            LongLongHashMap next = new LongLongHashMap();
+            combined.forEach((usedMask, ways) -> counts.forEach((regionMask, regionWays) -> {
+                if ((usedMask & regionMask) == 0) {
+                    next.addTo(usedMask | regionMask, ways * regionWays);
+                }
+            }));
+            checkInterrupted();
+            combined = next;
+            if (combined.size() > MAX_FILLINGS) {
+                fallbackUsed = true;
+                return new DancingLinksSolver().countSolutions(fieldToSolve, availablePieces, borderColors);
+            }
+        }
+        long[] total = new long[1];
+        combined.forEach((usedMask, ways) -> total[0] += ways);
+        return total[0];
+    }
+
+    /** @return True if the last request was handed to the {@link DancingLinksSolver}. */
+    public boolean isFallbackUsed() {
+        return fallbackUsed;
+    }
+
+    /** @return The number of independent regions of the last board. */
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    /**
+     * Finds the regions of empty cells that are connected through shared edges.
+     * Every region lists its cells in breadth-first order, so each cell after the first
+     * touches an earlier one.
+     *
+     * @param puzzle The compiled puzzle.
+     * @return The regions, in the order of their first cell.
+     */
+    public static List<int[]> findRegions(CompiledPuzzle puzzle) {
+        List<int[]> regions = new ArrayList<>();
+        boolean[] visited = new boolean[puzzle.getCellCount()];
+        for (int start = 0; start < puzzle.getCellCount(); start++) {
+            if (visited[start]) {
+                continue;
+            }
+            List<Integer> region = new ArrayList<>();
+            Queue<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            visited[start] = true;
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                region.add(cell);
+                for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                    int neighbor = puzzle.getNeighbor(cell, d);
+                    if (neighbor != CompiledPuzzle.NO_CELL && !visited[neighbor]) {
+                        visited[neighbor] = true;
+                        queue.add(neighbor);
+                    }
+                }
+            }
+            regions.add(region.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return regions;
+    }
+
+    /**
+     * Finds the regions, smallest first.
+     *
+     * @return False if the board is not split or the pieces do not fit into a long bit mask.
+     */
+    private boolean prepare(CompiledPuzzle compiled) {
+        this.puzzle = compiled;
+        this.fillingCount = 0;
+        this.regions = findRegions(compiled);
+        this.regions.sort(Comparator.comparingInt(region -> region.length));
+        this.assignment = new int[compiled.getCellCount()];
+        Arrays.fill(assignment, -1);
+        this.fallbackUsed = regions.size() < 2 || compiled.getPieceCount() >= Long.SIZE;
+        return !fallbackUsed;
+    }
+
+    /**
+     * Enumerates every filling of a region and counts the fillings per piece mask.
+     *
+     * @return False if more than {@link #MAX_FILLINGS} fillings were enumerated in total.
+     */
+    private boolean enumerate(int[] region, int index, long usedPieces, LongLongHashMap counts) {
+        checkInterrupted();
+        if (index == region.length) {
+            counts.addTo(usedPieces, 1L);
+            return ++fillingCount <= MAX_FILLINGS;
+        }
+        int cell = region[index];
+        for (int oriented : puzzle.getCandidates(cell)) {
+            long piece = 1L << puzzle.getOrientedPiece(oriented);
+            if ((usedPieces & piece) != 0 || !matchesAssignedNeighbors(cell, oriented)) {
+                continue;
+            }
+            assignment[cell] = oriented;
+            boolean withinLimit = enumerate(region, index + 1, usedPieces | piece, counts);
+            assignment[cell] = -1;
+            if (!withinLimit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the regions one after the other by backtracking. When a region is complete, the
+     * remaining regions only depend on the set of pieces used so far. Sets after which the
+     * remaining regions cannot be filled are remembered, so other fillings of the earlier
+     * regions with the same pieces are rejected at once.
+     *
+     * @return True if all regions were filled; the placements are then in the assignment.
+     */
+    private boolean fill(int regionIndex, int cellIndex, long usedPieces) {
+        checkInterrupted();
+        int[] region = regions.get(regionIndex);
+        if (cellIndex == region.length) {
+            if (regionIndex == regions.size() - 1) {
+                return true;
+            }
+            // The regions are always filled in the same order, so the mask alone identifies how far the search is.
+            if (deadMasks.containsKey(usedPieces)) {
+                return false;
+            }
+            if (fill(regionIndex + 1, 0, usedPieces)) {
+                return true;
+            }
+            if (deadMasks.size() >= MAX_FILLINGS) {
+                deadMasks.clear();
+            }
+            deadMasks.put(usedPieces, 0L);
+            return false;
+        }
+        int cell = region[cellIndex];
+        for (int oriented : puzzle.getCandidates(cell)) {
+            long piece = 1L << puzzle.getOrientedPiece(oriented);
+            if ((usedPieces & piece) != 0 || !matchesAssignedNeighbors(cell, oriented)) {
+                continue;
+            }
+            assignment[cell] = oriented;
+            if (fill(regionIndex, cellIndex + 1, usedPieces | piece)) {
+                return true;
+            }
+            assignment[cell] = -1;
+        }
+        return false;
+    }
+
+    private boolean matchesAssignedNeighbors(int cell, int oriented) {
+        for (int d = 0; d < Game.EDGE_COUNT; d++) {
+            int neighbor = puzzle.getNeighbor(cell, d);
+            if (neighbor != CompiledPuzzle.NO_CELL && assignment[neighbor] >= 0
+                    && puzzle.getOrientedEdge(assignment[neighbor], (d + 2) % Game.EDGE_COUNT)
+                    != puzzle.getOrientedEdge(oriented, d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+    }
+}
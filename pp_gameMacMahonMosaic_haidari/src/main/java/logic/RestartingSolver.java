@@ -0,0 +1,91 @@
+package logic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs the {@link BackjumpingSolver} with randomized candidate ordering and restarts it
+ * whenever a node budget is used up. The budgets follow the Luby sequence
+ * (1, 1, 2, 1, 1, 2, 4, 1, ...) times a base unit, so short runs are tried often while
+ * the budget still grows without limit, which keeps the search complete.
+ * <p>
+ * Search times of a single ordering are heavy-tailed; restarting cuts off the unlucky
+ * orderings. Learned nogoods do not depend on the ordering and are kept across restarts.
+ */
+public class RestartingSolver implements PuzzleSolver {
+
+    static final long DEFAULT_SEED = 20240101L;
+    static final int DEFAULT_BUDGET_UNIT = 1024;
+
+    private final long seed;
+    private final int budgetUnit;
+    private int restartCount;
+
+    public RestartingSolver() {
+        this(DEFAULT_SEED, DEFAULT_BUDGET_UNIT);
+    }
+
+    /**
+     * @param seed       The seed of the random candidate ordering. The same seed gives the same search.
+     * @param budgetUnit The number of placements the Luby sequence is multiplied with.
+     */
+    public RestartingSolver(long seed, int budgetUnit) {
+        if (budgetUnit <= 0) {
+            throw new IllegalArgumentException("The budget unit must be positive.");
+        }
+        this.seed = seed;
+        this.budgetUnit = budgetUnit;
+    }
+
+    @Override
+    public String getName() {
+        return "restarts";
+    }
+
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle compiled = CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors);
+        NogoodStore nogoods = new NogoodStore(BackjumpingSolver.DEFAULT_NOGOOD_CAPACITY,
+                BackjumpingSolver.DEFAULT_MAX_NOGOOD_SIZE);
+        Random random = new Random(seed);
+
+        restartCount = 0;
+        for (int run = 1; ; run++) {
+            BackjumpingSolver solver = new BackjumpingSolver(nogoods);
+            BackjumpingSolver.Outcome outcome = solver.search(compiled, luby(run) * budgetUnit, random);
+            if (outcome == BackjumpingSolver.Outcome.SOLVED) {
+                return solver.getSolution();
+            }
+            if (outcome == BackjumpingSolver.Outcome.UNSOLVABLE) {
+                return null;
+            }
+            restartCount++;
+        }
+    }
+
+    /** @return The number of restarts needed by the last search. */
+    public int getRestartCount() {
+        return restartCount;
+    }
+
+    /**
+     * Returns the i-th element of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...
+     *
+     * @param i The 1-based position in the sequence.
+     * @return The element at that position.
+     */
+    static long luby(long i) {
+        while (true) {
+            int k = 1;
+            while ((1L << k) - 1 < i) {
+                k++;
+            }
+            if (i == (1L << k) - 1) {
+                return 1L << (k - 1);
+            }
+            i = i - (1L << (k - 1)) + 1;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Encodes a puzzle as a SAT problem and solves it with the built-in {@link CdclSat} solver.
+ * <ul>
+ *     <li>There is one variable per empty cell and oriented piece that fits the fixed colors
+ *     around the cell.</li>
+ *     <li>Every cell holds exactly one oriented piece, and every piece is used at most once
+ *     (exactly once if there are as many pieces as cells). At-most-one constraints with more
+ *     than a few literals use the sequential counter encoding, which needs a linear number of
+ *     clauses.</li>
+ *     <li>Every edge between two empty cells has one variable per color. A placed piece implies
+ *     the color of its edges, and an edge has at most one color, so both pieces must show the
+ *     same color on it.</li>
+ * </ul>
+ * Clause learning lets the solver skip whole subtrees that backtracking would explore again and
+ * again for the same reason. Counting solutions is not supported.
+ */
+public class SatSolver implements PuzzleSolver {
+
+    private static final int PAIRWISE_LIMIT = 4;
+
+    private CdclSat sat;
+    private long conflicts;
+    private int variableCount;
+    private int clauseCount;
+
+    @Override
+    public String getName() {
+        return "sat";
+    }
+
+    /**
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    @Override
+    public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle puzzle = CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors);
+        if (puzzle.getCellCount() > puzzle.getPieceCount()) {
+            return null; // Pigeonhole problems are hard for clause learning, so reject them here
+        }
+        sat = new CdclSat();
+        int[][] placementVariables = encode(puzzle);
+        variableCount = sat.getVariableCount();
+        clauseCount = sat.getClauseCount();
+        boolean satisfiable;
+        try {
+            satisfiable = sat.solve();
+        } finally {
+            conflicts = sat.getConflicts();
+        }
+        if (!satisfiable) {
+            return null;
+        }
+        int[] assignment = new int[puzzle.getCellCount()];
+        for (int cell = 0; cell < assignment.length; cell++) {
+            int[] candidates = puzzle.getCandidates(cell);
+            for (int i = 0; i < candidates.length; i++) {
+                if (sat.isTrue(placementVariables[cell][i])) {
+                    assignment[cell] = candidates[i];
+                }
+            }
+        }
+        return puzzle.toField(assignment);
+    }
+
+    /** @return The number of conflicts of the last search. */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /** @return The number of variables of the last encoding, including auxiliary variables. */
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /** @return The number of clauses with at least two literals in the last encoding. */
+    public int getClauseCount() {
+        return clauseCount;
+    }
+
+    /** @return For every cell, the variable of each candidate in {@link CompiledPuzzle#getCandidates(int)}. */
+    private int[][] encode(CompiledPuzzle puzzle) {
+        int[][] placementVariables = new int[puzzle.getCellCount()][];
+        List<List<Integer>> variablesOfPiece = new ArrayList<>();
+        for (int p = 0; p < puzzle.getPieceCount(); p++) {
+            variablesOfPiece.add(new ArrayList<>());
+        }
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            int[] candidates = puzzle.getCandidates(cell);
+            placementVariables[cell] = new int[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                placementVariables[cell][i] = sat.newVariable();
+                variablesOfPiece.get(puzzle.getOrientedPiece(candidates[i])).add(placementVariables[cell][i]);
+            }
+            sat.addClause(Arrays.stream(placementVariables[cell]).map(CdclSat::positive).toArray());
+            addAtMostOne(placementVariables[cell]);
+        }
+
+        boolean allPiecesUsed = puzzle.getPieceCount() == puzzle.getCellCount();
+        for (List<Integer> variables : variablesOfPiece) {
+            int[] literals = variables.stream().mapToInt(Integer::intValue).toArray();
+            addAtMostOne(literals);
+            if (allPiecesUsed) {
+                sat.addClause(Arrays.stream(literals).map(CdclSat::positive).toArray());
+            }
+        }
+
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            // Only right and bottom edges, so every shared edge is encoded once
+            for (int d = 1; d <= 2; d++) {
+                int neighbor = puzzle.getNeighbor(cell, d);
+                if (neighbor != CompiledPuzzle.NO_CELL) {
+                    encodeEdge(puzzle, cell, neighbor, d, placementVariables);
+                }
+            }
+        }
+        return placementVariables;
+    }
+
+    /** Adds the color variables of the edge between a cell and its neighbor in direction {@code d}. */
+    private void encodeEdge(CompiledPuzzle puzzle, int cell, int neighbor, int d, int[][] placementVariables) {
+        int[] colorVariables = new int[Color.values().length];
+        Arrays.fill(colorVariables, -1);
+        int opposite = (d + 2) % Game.EDGE_COUNT;
+        implyColors(puzzle, cell, d, placementVariables, colorVariables);
+        implyColors(puzzle, neighbor, opposite, placementVariables, colorVariables);
+        int[] used = Arrays.stream(colorVariables).filter(variable -> variable >= 0).toArray();
+        for (int i = 0; i < used.length; i++) {
+            for (int j = i + 1; j < used.length; j++) {
+                sat.addClause(CdclSat.negative(used[i]), CdclSat.negative(used[j]));
+            }
+        }
+    }
+
+    private void implyColors(CompiledPuzzle puzzle, int cell, int d, int[][] placementVariables, int[] colorVariables) {
+        int[] candidates = puzzle.getCandidates(cell);
+        for (int i = 0; i < candidates.length; i++) {
+            int color = puzzle.getOrientedEdge(candidates[i], d);
+            if (colorVariables[color] < 0) {
+                colorVariables[color] = sat.newVariable();
+            }
+            sat.addClause(CdclSat.negative(placementVariables[cell][i]), CdclSat.positive(colorVariables[color]));
+        }
+    }
+
+    /** Adds clauses that allow at most one of the variables to be true. */
+    private void addAtMostOne(int[] variables) {
+        int n = variables.length;
+        if (n <= PAIRWISE_LIMIT) {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    sat.addClause(CdclSat.negative(variables[i]), CdclSat.negative(variables[j]));
+                }
+            }
+            return;
+        }
+        // Sequential counter: register i is true if one of the first i + 1 variables is true
+        int previous = -1;
+        for (int i = 0; i < n; i++) {
+            int x = CdclSat.negative(variables[i]);
+            if (previous >= 0) {
+                sat.addClause(x, CdclSat.negative(previous));
+            }
+            if (i < n - 1) {
+                int register = sat.newVariable();
+                sat.addClause(x, CdclSat.positive(register));
+                if (previous >= 0) {
+                    sat.addClause(CdclSat.negative(previous), CdclSat.positive(register));
+                }
+                previous = register;
+            }
+        }
+    }
+}
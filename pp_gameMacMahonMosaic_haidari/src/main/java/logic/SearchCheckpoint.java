@@ -0,0 +1,100 @@
+package logic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A snapshot of an {@link IterativeSolver} search, stored in a small binary file, so the search
+ * can go on in another process.
+ * <p>
+ * The decision stack is stored as the candidate index of every level; replaying these indices
+ * rebuilds the placements. The used-piece mask is stored as well and compared after the replay,
+ * which rejects a checkpoint that does not fit the puzzle. The file is written next to its target
+ * and moved into place, so a crash while saving leaves the previous checkpoint intact.
+ *
+ * @param fingerprint      Identifies the compiled puzzle the search belongs to.
+ * @param countAll         True for a count, false for a search for one solution.
+ * @param solutions        The solutions found so far.
+ * @param nodeCount        The placements tried so far.
+ * @param candidateIndices The candidate index per level, up to and including the current level.
+ * @param usedPieces       The bit mask of the placed pieces, 64 pieces per word.
+ */
+record SearchCheckpoint(long fingerprint, boolean countAll, long solutions, long nodeCount,
+                        int[] candidateIndices, long[] usedPieces) {
+
+    private static final int MAGIC = 0x4D4D434B; // "MMCK"
+    private static final int VERSION = 1;
+
+    /**
+     * Writes the checkpoint, replacing an older one.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        // A plain file stream, because channels are closed when the thread is interrupted
+        try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeBoolean(countAll);
+            out.writeLong(solutions);
+            out.writeLong(nodeCount);
+            out.writeInt(candidateIndices.length);
+            for (int index : candidateIndices) {
+                out.writeInt(index);
+            }
+            out.writeInt(usedPieces.length);
+            for (long word : usedPieces) {
+                out.writeLong(word);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint.
+     *
+     * @throws IOException if the file cannot be read or is not a checkpoint of this version.
+     */
+    static SearchCheckpoint read(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("The file " + file + " is not a search checkpoint of this version.");
+            }
+            long fingerprint = in.readLong();
+            boolean countAll = in.readBoolean();
+            long solutions = in.readLong();
+            long nodeCount = in.readLong();
+            int[] candidateIndices = new int[readLength(in, file)];
+            for (int i = 0; i < candidateIndices.length; i++) {
+                candidateIndices[i] = in.readInt();
+            }
+            long[] usedPieces = new long[readLength(in, file)];
+            for (int i = 0; i < usedPieces.length; i++) {
+                usedPieces[i] = in.readLong();
+            }
+            return new SearchCheckpoint(fingerprint, countAll, solutions, nodeCount, candidateIndices, usedPieces);
+        }
+    }
+
+    private static int readLength(DataInputStream in, Path file) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("The search checkpoint " + file + " is damaged.");
+        }
+        return length;
+    }
+}
@@ -0,0 +1,219 @@
+package logic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A worker process of the {@link DistributedSolver}. It connects to the coordinator on the local
+ * machine, receives the puzzle once and then searches one cube after the other with the
+ * {@link IterativeSolver} until the coordinator closes the connection.
+ * <p>
+ * Run with {@code java -cp <classpath> logic.SearchWorker <port>}. The coordinator starts its
+ * workers this way, but further workers can be started by hand while it accepts connections.
+ * <p>
+ * Messages are written with {@link DataOutputStream}. The coordinator sends {@link #PUZZLE} with
+ * the puzzle fingerprint and the puzzle, then {@link #CUBE} messages; the worker answers every cube
+ * with {@link #RESULT}, or with {@link #ERROR} if it compiled a different puzzle.
+ */
+public final class SearchWorker {
+
+    static final byte PUZZLE = 'P';
+    static final byte CUBE = 'C';
+    static final byte RESULT = 'R';
+    static final byte ERROR = 'E';
+
+    /** The puzzle as it is sent to a worker. */
+    record Puzzle(Field field, List<MosaicPiece> pieces, Map<BorderPosition, Color> borderColors) {}
+
+    private SearchWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java logic.SearchWorker <port>");
+            System.exit(2);
+        }
+        serve(Integer.parseInt(args[0]));
+    }
+
+    /**
+     * Connects to the coordinator and works on cubes until it closes the connection.
+     *
+     * @param port The port of the coordinator on the loopback address.
+     * @throws IOException if the connection fails or a message is damaged.
+     */
+    static void serve(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (in.readByte() != PUZZLE) {
+                throw new IOException("The coordinator did not send a puzzle.");
+            }
+            long fingerprint = in.readLong();
+            Puzzle puzzle = readPuzzle(in);
+            CompiledPuzzle compiled = CompiledPuzzle.compile(puzzle.field(), puzzle.pieces(), puzzle.borderColors());
+            if (IterativeSolver.fingerprint(compiled) != fingerprint) {
+                out.writeByte(ERROR);
+                out.writeUTF("The worker compiled a different puzzle than the coordinator.");
+                out.flush();
+                return;
+            }
+
+            IterativeSolver solver = new IterativeSolver();
+            while (true) {
+                byte tag;
+                try {
+                    tag = in.readByte();
+                } catch (EOFException e) {
+                    return; // The coordinator is done
+                }
+                if (tag != CUBE) {
+                    throw new IOException("Unexpected message " + tag + " from the coordinator.");
+                }
+                int id = in.readInt();
+                boolean countAll = in.readBoolean();
+                int[] cube = readInts(in);
+                long solutions = solver.searchCube(compiled, cube, countAll);
+
+                out.writeByte(RESULT);
+                out.writeInt(id);
+                out.writeLong(solutions);
+                out.writeLong(solver.getNodeCount());
+                writeInts(out, !countAll && solutions > 0 ? solver.getAssignment() : new int[0]);
+                out.flush();
+            }
+        }
+    }
+
+    /** Writes the {@link #PUZZLE} message. */
+    static void writePuzzle(DataOutputStream out, long fingerprint, Field field, List<MosaicPiece> pieces,
+                            Map<BorderPosition, Color> borderColors) throws IOException {
+        out.writeByte(PUZZLE);
+        out.writeLong(fingerprint);
+        out.writeInt(field.getRows());
+        out.writeInt(field.getColumns());
+
+        List<Map.Entry<BorderPosition, Color>> borders = new ArrayList<>();
+        for (Map.Entry<BorderPosition, Color> border : borderColors.entrySet()) {
+            if (border.getValue() != null) {
+                borders.add(border);
+            }
+        }
+        out.writeInt(borders.size());
+        for (Map.Entry<BorderPosition, Color> border : borders) {
+            out.writeByte(border.getKey().side().ordinal());
+            out.writeInt(border.getKey().index());
+            out.writeByte(border.getValue().ordinal());
+        }
+
+        out.writeInt(field.getNumberOfHoles());
+        if (field.getHoles() != null) {
+            for (Position hole : field.getHoles()) {
+                out.writeInt(hole.row());
+                out.writeInt(hole.column());
+            }
+        }
+
+        List<Position> occupied = new ArrayList<>();
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (!field.isCellEmpty(r, c) && !field.isCellHole(r, c)) {
+                    occupied.add(new Position(r, c));
+                }
+            }
+        }
+        out.writeInt(occupied.size());
+        for (Position cell : occupied) {
+            out.writeInt(cell.row());
+            out.writeInt(cell.column());
+            writePiece(out, field.getPieceAt(cell.row(), cell.column()));
+        }
+
+        out.writeInt(pieces.size());
+        for (MosaicPiece piece : pieces) {
+            writePiece(out, piece);
+        }
+    }
+
+    /** Reads the body of a {@link #PUZZLE} message, after the fingerprint. */
+    static Puzzle readPuzzle(DataInputStream in) throws IOException {
+        int rows = in.readInt();
+        int columns = in.readInt();
+
+        Map<BorderPosition, Color> borderColors = new HashMap<>();
+        for (int i = readLength(in); i > 0; i--) {
+            Direction side = Direction.values()[in.readByte()];
+            int index = in.readInt();
+            borderColors.put(new BorderPosition(side, index), Color.values()[in.readByte()]);
+        }
+
+        Set<Position> holes = new HashSet<>();
+        for (int i = readLength(in); i > 0; i--) {
+            holes.add(new Position(in.readInt(), in.readInt()));
+        }
+
+        Field field = new Field(rows, columns, borderColors, holes);
+        for (int i = readLength(in); i > 0; i--) {
+            int row = in.readInt();
+            int column = in.readInt();
+            field.setPieceAt(row, column, readPiece(in));
+        }
+
+        int pieceCount = readLength(in);
+        List<MosaicPiece> pieces = new ArrayList<>(pieceCount);
+        for (int i = 0; i < pieceCount; i++) {
+            pieces.add(readPiece(in));
+        }
+        return new Puzzle(field, pieces, borderColors);
+    }
+
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[readLength(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static void writePiece(DataOutputStream out, MosaicPiece piece) throws IOException {
+        StringBuilder pattern = new StringBuilder();
+        for (Color color : piece.getColorPattern()) {
+            pattern.append(color.getChar());
+        }
+        out.writeUTF(pattern.toString());
+        out.writeShort(piece.getOrientation());
+    }
+
+    private static MosaicPiece readPiece(DataInputStream in) throws IOException {
+        MosaicPiece piece = new MosaicPiece(in.readUTF());
+        piece.setOrientation(in.readShort());
+        return piece;
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("A message from the other process is damaged.");
+        }
+        return length;
+    }
+}
@@ -0,0 +1,360 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The complete solution space of a puzzle, compiled once into a reduced decision diagram.
+ * <p>
+ * Layer {@code k} of the diagram decides the placement of the k-th cell in the visiting order of
+ * the {@link ProfileSolver}; each arc is labeled with an oriented piece. Every path from the root
+ * to the terminal is one solution, and every solution is one path. The diagram is built in two passes:
+ * <ul>
+ *     <li>A forward pass creates one node per frontier state after each cell, as the profile count does,
+ *     but keeps the arcs between the states.</li>
+ *     <li>A backward pass drops nodes without a path to the terminal and merges nodes of a layer with the
+ *     same outgoing arcs, so equal remaining subproblems are stored once.</li>
+ * </ul>
+ * After that, each question is answered in time linear in the diagram size, without a new search:
+ * the number of solutions, uniformly random solutions, the pieces that fit a cell in some solution,
+ * and whether a cell is forced.
+ */
+public class SolutionDiagram {
+
+    static final int MAX_STATES = ProfileSolver.MAX_STATES;
+
+    private final CompiledPuzzle puzzle;
+    private final int[] order;            // layer -> cell
+    private final int[] layerOfCell;      // cell -> layer
+    private final int[] layerStart;       // layer -> first node; layerStart[cells] is the terminal
+    private final int[] firstArc;         // node -> first arc; firstArc[node + 1] ends its arcs
+    private final int[] arcLabel;         // arc -> oriented piece
+    private final int[] arcTarget;        // arc -> node
+    private final long[] pathCount;       // node -> number of paths to the terminal
+
+    private SolutionDiagram(CompiledPuzzle puzzle, int[] order, int[] layerStart, int[] firstArc,
+                            int[] arcLabel, int[] arcTarget) {
+        this.puzzle = puzzle;
+        this.order = order;
+        this.layerStart = layerStart;
+        this.firstArc = firstArc;
+        this.arcLabel = arcLabel;
+        this.arcTarget = arcTarget;
+        this.layerOfCell = new int[order.length];
+        for (int layer = 0; layer < order.length; layer++) {
+            layerOfCell[order[layer]] = layer;
+        }
+
+        int nodes = firstArc.length - 1;
+        pathCount = new long[nodes];
+        if (nodes > 0) {
+            pathCount[nodes - 1] = 1; // The terminal
+        }
+        for (int node = nodes - 2; node >= 0; node--) {
+            for (int arc = firstArc[node]; arc < firstArc[node + 1]; arc++) {
+                pathCount[node] += pathCount[arcTarget[arc]];
+            }
+        }
+    }
+
+    /**
+     * Compiles the solution space of a puzzle.
+     *
+     * @param fieldToSolve    The field configuration to solve. It is not modified.
+     * @param availablePieces The list of pieces available to use.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The diagram of all solutions; it has no nodes if the puzzle is unsolvable.
+     * @throws IllegalArgumentException if a frontier state does not fit into a long.
+     * @throws TooManyStatesException   if a layer grows beyond {@link #MAX_STATES} states.
+     * @throws CancellationException    if the current thread was interrupted.
+     */
+    public static SolutionDiagram compile(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                                          Map<BorderPosition, Color> borderColors) {
+        return compile(CompiledPuzzle.compile(fieldToSolve, availablePieces, borderColors), MAX_STATES);
+    }
+
+    /**
+     * Compiles the solution space of a compiled puzzle with a custom limit for the states of one layer.
+     *
+     * @throws IllegalArgumentException if a frontier state does not fit into a long.
+     * @throws TooManyStatesException   if a layer grows beyond the given number of states.
+     */
+    static SolutionDiagram compile(CompiledPuzzle puzzle, int maxStates) {
+        ProfileSolver profile = new ProfileSolver();
+        if (!profile.prepare(puzzle)) {
+            throw new IllegalArgumentException("The board is too large to compile a solution diagram.");
+        }
+        int[] order = profile.getOrder();
+        int layers = order.length;
+
+        // Forward pass: the states of every layer and the arcs between them, grouped by their source state
+        List<int[]> arcFirst = new ArrayList<>(layers);
+        List<int[]> arcLabels = new ArrayList<>(layers);
+        List<int[]> arcTargets = new ArrayList<>(layers);
+        long[] current = {0L};
+        for (int layer = 0; layer < layers; layer++) {
+            checkInterrupted();
+            int cell = order[layer];
+            LongLongHashMap index = new LongLongHashMap();
+            long[] next = new long[16];
+            int nextCount = 0;
+            IntList labels = new IntList();
+            IntList targets = new IntList();
+            int[] first = new int[current.length + 1];
+            for (int node = 0; node < current.length; node++) {
+                first[node] = labels.size();
+                for (int oriented : puzzle.getCandidates(cell)) {
+                    long successor = profile.successor(current[node], cell, oriented);
+                    if (successor < 0) {
+                        continue;
+                    }
+                    int target;
+                    if (index.containsKey(successor)) {
+                        target = (int) index.get(successor);
+                    } else {
+                        target = nextCount;
+                        index.put(successor, target);
+                        if (nextCount == next.length) {
+                            next = Arrays.copyOf(next, nextCount * 2);
+                        }
+                        next[nextCount++] = successor;
+                    }
+                    labels.add(oriented);
+                    targets.add(target);
+                }
+            }
+            first[current.length] = labels.size();
+            if (nextCount > maxStates) {
+                throw new TooManyStatesException("The solution space is too large to compile.");
+            }
+            arcFirst.add(first);
+            arcLabels.add(labels.toArray());
+            arcTargets.add(targets.toArray());
+            current = Arrays.copyOf(next, nextCount);
+        }
+
+        return reduce(puzzle, order, current.length, arcFirst, arcLabels, arcTargets);
+    }
+
+    /**
+     * Backward pass: all states after the last cell become the terminal. Going back layer by layer,
+     * nodes without arcs to surviving nodes are dropped, and nodes with equal arcs are merged.
+     */
+    private static SolutionDiagram reduce(CompiledPuzzle puzzle, int[] order, int finalStates,
+                                          List<int[]> arcFirst, List<int[]> arcLabels, List<int[]> arcTargets) {
+        int layers = order.length;
+        int[] canonical = new int[finalStates];               // state of the next layer -> node of its layer
+        List<int[][]> reducedArcs = new ArrayList<>();        // layer -> node -> (label, node of next layer)*
+        reducedArcs.add(null);
+
+        for (int layer = layers - 1; layer >= 0; layer--) {
+            checkInterrupted();
+            int[] first = arcFirst.get(layer);
+            int[] labels = arcLabels.get(layer);
+            int[] targets = arcTargets.get(layer);
+            int stateCount = first.length - 1;
+            int[] layerCanonical = new int[stateCount];
+            Map<Signature, Integer> nodes = new HashMap<>();
+            List<int[]> nodeArcs = new ArrayList<>();
+            for (int state = 0; state < stateCount; state++) {
+                IntList arcs = new IntList();
+                for (int arc = first[state]; arc < first[state + 1]; arc++) {
+                    int target = canonical.length > 0 ? canonical[targets[arc]] : -1;
+                    if (target >= 0) {
+                        arcs.add(labels[arc]);
+                        arcs.add(target);
+                    }
+                }
+                if (arcs.size() == 0) {
+                    layerCanonical[state] = -1;
+                    continue;
+                }
+                Signature signature = new Signature(arcs.toArray());
+                Integer node = nodes.get(signature);
+                if (node == null) {
+                    node = nodeArcs.size();
+                    nodes.put(signature, node);
+                    nodeArcs.add(signature.arcs);
+                }
+                layerCanonical[state] = node;
+            }
+            canonical = layerCanonical;
+            reducedArcs.add(nodeArcs.toArray(new int[0][]));
+        }
+        // The terminal of the last layer is only meaningful if the root survived
+        boolean solvable = canonical.length > 0 && canonical[0] >= 0;
+        if (!solvable) {
+            return new SolutionDiagram(puzzle, order, new int[layers + 1], new int[1], new int[0], new int[0]);
+        }
+
+        // Lay the nodes out layer by layer from the root; reducedArcs holds the layers in reverse order
+        int[] layerStart = new int[layers + 1];
+        int nodeTotal = 0;
+        for (int layer = 0; layer < layers; layer++) {
+            layerStart[layer] = nodeTotal;
+            nodeTotal += reducedArcs.get(layers - layer).length;
+        }
+        layerStart[layers] = nodeTotal;
+        nodeTotal++; // The terminal
+        int[] firstArc = new int[nodeTotal + 1];
+        IntList labels = new IntList();
+        IntList targets = new IntList();
+        for (int layer = 0; layer < layers; layer++) {
+            int[][] nodeArcs = reducedArcs.get(layers - layer);
+            for (int node = 0; node < nodeArcs.length; node++) {
+                firstArc[layerStart[layer] + node] = labels.size();
+                for (int i = 0; i < nodeArcs[node].length; i += 2) {
+                    labels.add(nodeArcs[node][i]);
+                    targets.add(layerStart[layer + 1] + nodeArcs[node][i + 1]);
+                }
+            }
+        }
+        firstArc[nodeTotal - 1] = labels.size();
+        firstArc[nodeTotal] = labels.size();
+        // Only the root's node of layer 0 is reachable, and it is node 0 because it is the only state
+        return new SolutionDiagram(puzzle, order, layerStart, firstArc, labels.toArray(), targets.toArray());
+    }
+
+    /** @return The number of solutions of the puzzle. */
+    public long getSolutionCount() {
+        return getNodeCount() > 0 ? pathCount[0] : 0;
+    }
+
+    /** @return The number of nodes of the reduced diagram, including the terminal. */
+    public int getNodeCount() {
+        return firstArc.length - 1;
+    }
+
+    /** @return The number of arcs of the reduced diagram. */
+    public int getArcCount() {
+        return arcLabel.length;
+    }
+
+    /**
+     * Draws a solution uniformly at random: at every node, an arc is chosen with a probability
+     * proportional to the number of solutions below it.
+     *
+     * @return A new field with the solution, or null if the puzzle is unsolvable.
+     */
+    public Field sample(Random random) {
+        if (getSolutionCount() == 0) {
+            return null;
+        }
+        int[] assignment = new int[order.length];
+        int node = 0;
+        for (int layer = 0; layer < order.length; layer++) {
+            long pick = random.nextLong(pathCount[node]);
+            int arc = firstArc[node];
+            while (pick >= pathCount[arcTarget[arc]]) {
+                pick -= pathCount[arcTarget[arc]];
+                arc++;
+            }
+            assignment[order[layer]] = arcLabel[arc];
+            node = arcTarget[arc];
+        }
+        return puzzle.toField(assignment);
+    }
+
+    /**
+     * @return The available pieces that are placed on a cell in at least one solution, in the order
+     * of the available pieces; empty if the puzzle is unsolvable.
+     * @throws IllegalArgumentException if the cell is a hole or already holds a piece.
+     */
+    public List<MosaicPiece> getPossiblePieces(int row, int column) {
+        boolean[] possible = new boolean[puzzle.getPieceCount()];
+        for (int arc : arcsOfCell(row, column)) {
+            possible[puzzle.getOrientedPiece(arcLabel[arc])] = true;
+        }
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (int p = 0; p < possible.length; p++) {
+            if (possible[p]) {
+                pieces.add(puzzle.getPieces().get(p));
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * A cell is forced if every solution shows the same colors on it. Identical pieces are
+     * interchangeable, so a cell can be forced although different copies of a piece fit it.
+     *
+     * @return True if the puzzle is solvable and all solutions agree on the cell.
+     * @throws IllegalArgumentException if the cell is a hole or already holds a piece.
+     */
+    public boolean isForced(int row, int column) {
+        int[] arcs = arcsOfCell(row, column);
+        if (arcs.length == 0) {
+            return false;
+        }
+        for (int arc : arcs) {
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                if (puzzle.getOrientedEdge(arcLabel[arc], d) != puzzle.getOrientedEdge(arcLabel[arcs[0]], d)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** @return The arcs of the layer that decides a cell; they all lie on some solution. */
+    private int[] arcsOfCell(int row, int column) {
+        int cell = puzzle.getCellAt(row, column);
+        if (cell == CompiledPuzzle.NO_CELL) {
+            throw new IllegalArgumentException("Cell (" + row + ", " + column + ") is not an empty cell.");
+        }
+        if (getSolutionCount() == 0) {
+            return new int[0];
+        }
+        int layer = layerOfCell[cell];
+        int from = firstArc[layerStart[layer]];
+        int to = firstArc[layerStart[layer + 1]];
+        int[] arcs = new int[to - from];
+        Arrays.setAll(arcs, i -> from + i);
+        return arcs;
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+    }
+
+    /** The outgoing arcs of a node, which identify it within its layer. */
+    private record Signature(int[] arcs) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Signature signature && Arrays.equals(arcs, signature.arcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arcs);
+        }
+    }
+
+    /** A growable list of ints without boxing. */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
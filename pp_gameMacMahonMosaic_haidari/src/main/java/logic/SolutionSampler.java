@@ -0,0 +1,133 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Draws solutions of a puzzle uniformly at random, for varied hints and puzzle variants.
+ * <p>
+ * Sampling is guided by exact solution counts, so no solution is enumerated. The puzzle is first
+ * compiled into a {@link SolutionDiagram}; all samples are then drawn from that one diagram. If its
+ * solution space has too many states to compile, the samples descend through the search tree of the
+ * {@link DancingLinksSolver} instead. One count splits the solutions by the placements on the first
+ * {@link #COUNTED_LEVELS} cells the search decides; a sample picks a placement with a probability
+ * proportional to its solutions, level by level, and only counts again below the deepest counted level.
+ * All counts run on the same linked structure and are kept, so later samples only count the parts of
+ * the tree they are the first to reach.
+ */
+public class SolutionSampler {
+
+    /** The largest diagram layer; a larger diagram takes longer to compile than the descent needs for its counts. */
+    static final int MAX_DIAGRAM_STATES = 100_000;
+    static final int COUNTED_LEVELS = 8;
+
+    private final Random random;
+    private final int maxStates;
+
+    public SolutionSampler() {
+        this(new Random());
+    }
+
+    /**
+     * @param random The source of randomness; a seeded one makes the samples reproducible.
+     */
+    public SolutionSampler(Random random) {
+        this(random, MAX_DIAGRAM_STATES);
+    }
+
+    /**
+     * @param maxStates The largest diagram layer before the samples descend cell by cell.
+     */
+    SolutionSampler(Random random, int maxStates) {
+        this.random = random;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Draws independent samples from the solutions of a puzzle. Solutions that only differ in which
+     * copy of identical pieces is used count separately, as in {@link PuzzleSolver#countSolutions}.
+     *
+     * @param fieldToSolve    The field configuration to solve. It is not modified.
+     * @param availablePieces The list of pieces available to use.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @param sampleCount     The number of samples to draw.
+     * @return The sampled solutions, which may repeat; empty if the puzzle is unsolvable.
+     * @throws IllegalArgumentException if the sample count is negative.
+     */
+    public List<Field> sample(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                              Map<BorderPosition, Color> borderColors, int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("The sample count must not be negative.");
+        }
+        CompiledPuzzle compiled = CompiledPuzzle.compile(fieldToSolve, new ArrayList<>(availablePieces), borderColors);
+        List<Field> samples = new ArrayList<>(sampleCount);
+        SolutionDiagram diagram = compileDiagram(compiled);
+        if (diagram != null) {
+            for (int i = 0; i < sampleCount && diagram.getSolutionCount() > 0; i++) {
+                samples.add(diagram.sample(random));
+            }
+            return samples;
+        }
+        DancingLinksSolver counter = new DancingLinksSolver();
+        int[] assignment = new int[compiled.getCellCount()];
+        Arrays.fill(assignment, -1);
+        DancingLinksSolver.PrefixCounts root = counter.countByPrefix(compiled, assignment, COUNTED_LEVELS);
+        long solutions = total(root);
+        for (int i = 0; i < sampleCount && solutions > 0; i++) {
+            Arrays.fill(assignment, -1);
+            samples.add(compiled.toField(descend(counter, compiled, root, assignment)));
+        }
+        return samples;
+    }
+
+    /** @return The diagram of the puzzle, or null if its frontier states do not fit or are too many. */
+    private SolutionDiagram compileDiagram(CompiledPuzzle compiled) {
+        if (!new ProfileSolver().prepare(compiled)) {
+            return null;
+        }
+        try {
+            return SolutionDiagram.compile(compiled, maxStates);
+        } catch (TooManyStatesException tooLarge) {
+            return null;
+        }
+    }
+
+    /**
+     * Picks the placements of one sample, counting the solutions below the deepest counted level on the way.
+     *
+     * @return The assignment of the sample.
+     */
+    private int[] descend(DancingLinksSolver counter, CompiledPuzzle compiled, DancingLinksSolver.PrefixCounts root,
+                          int[] assignment) {
+        DancingLinksSolver.PrefixCounts counts = root;
+        while (counts.cell != CompiledPuzzle.NO_CELL) {
+            long pick = random.nextLong(total(counts));
+            int placement = 0;
+            while (pick >= counts.counts[placement]) {
+                pick -= counts.counts[placement];
+                placement++;
+            }
+            assignment[counts.cell] = counts.orientedPieces[placement];
+            if (counts.next[placement] == null) {
+                counts.next[placement] = counter.countByPrefix(compiled, assignment, COUNTED_LEVELS);
+            }
+            counts = counts.next[placement];
+        }
+        return assignment;
+    }
+
+    /** @return The number of solutions below counted placements; 1 if every cell is filled. */
+    private static long total(DancingLinksSolver.PrefixCounts counts) {
+        if (counts.cell == CompiledPuzzle.NO_CELL) {
+            return 1;
+        }
+        long total = 0;
+        for (long count : counts.counts) {
+            total += count;
+        }
+        return total;
+    }
+}
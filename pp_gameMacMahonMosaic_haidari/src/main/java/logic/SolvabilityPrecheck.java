@@ -0,0 +1,206 @@
+package logic;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Cheap necessary conditions for solvability that are checked before any search.
+ * If one of them fails, the puzzle is proven unsolvable; if all pass, it may still be unsolvable.
+ * <ul>
+ *     <li>Color parity: an edge between two empty cells takes two half-edges of the same color, so the
+ *     pieces that fill the empty cells must show every color an even number of times more than the
+ *     fixed edges around the empty cells require. Every edge without a fixed color (next to a hole or
+ *     an uncolored border) can absorb one unpaired half-edge.</li>
+ *     <li>Cell matching: every empty cell needs its own piece that fits the fixed colors of the cell,
+ *     which is a maximum bipartite matching (Hopcroft-Karp) between cells and pieces.</li>
+ * </ul>
+ */
+public class SolvabilityPrecheck {
+
+    // Piece edges only use these colors.
+    private static final Color[] PIECE_COLORS = {Color.RED, Color.GREEN, Color.YELLOW};
+    private static final int NO_MATCH = -1;
+
+    /** A necessary condition that can prove a puzzle unsolvable. */
+    public enum Check {
+        COLOR_PARITY("precheck.failed.color.parity"),
+        CELL_MATCHING("precheck.failed.cell.matching");
+
+        private final String messageKey;
+
+        Check(String messageKey) {
+            this.messageKey = messageKey;
+        }
+
+        /** @return The key of the message that explains the failed check. */
+        public String getMessageKey() {
+            return messageKey;
+        }
+    }
+
+    private SolvabilityPrecheck() {
+    }
+
+    /**
+     * Runs all checks on a puzzle.
+     *
+     * @param field           The board with the pieces already placed.
+     * @param availablePieces The pieces not yet placed.
+     * @param borderColors    The border colors.
+     * @return The first check that fails, or null if the puzzle passes all of them.
+     */
+    public static Check findFailedCheck(Field field, List<MosaicPiece> availablePieces,
+                                        Map<BorderPosition, Color> borderColors) {
+        CompiledPuzzle puzzle = CompiledPuzzle.compile(field, availablePieces, borderColors);
+        if (!hasColorParity(puzzle)) {
+            return Check.COLOR_PARITY;
+        }
+        if (countMatchedCells(puzzle) < puzzle.getCellCount()) {
+            return Check.CELL_MATCHING;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether some choice of as many pieces as there are empty cells has the parity of
+     * color counts that the fixed edges around the empty cells require.
+     */
+    static boolean hasColorParity(CompiledPuzzle puzzle) {
+        int requiredParity = 0;
+        int freeEdges = 0;
+        for (int cell = 0; cell < puzzle.getCellCount(); cell++) {
+            for (int d = 0; d < Game.EDGE_COUNT; d++) {
+                if (puzzle.getNeighbor(cell, d) != CompiledPuzzle.NO_CELL) {
+                    continue; // Shared with another empty cell, which always adds two half-edges.
+                }
+                int fixed = puzzle.getFixedColor(cell, d);
+                if (fixed == CompiledPuzzle.NO_COLOR) {
+                    freeEdges++;
+                } else {
+                    requiredParity ^= colorBit(fixed);
+                }
+            }
+        }
+
+        // reachable[j] has bit m set if j pieces can be chosen whose color counts have the parities m.
+        int cellCount = puzzle.getCellCount();
+        int parityStates = 1 << PIECE_COLORS.length;
+        int[] reachable = new int[cellCount + 1];
+        reachable[0] = 1;
+        for (MosaicPiece piece : puzzle.getPieces()) {
+            int pieceParity = 0;
+            for (Color color : piece.getColorPattern()) {
+                pieceParity ^= colorBit(color.ordinal());
+            }
+            for (int j = cellCount; j > 0; j--) {
+                for (int parity = 0; parity < parityStates; parity++) {
+                    if ((reachable[j - 1] & 1 << parity) != 0) {
+                        reachable[j] |= 1 << (parity ^ pieceParity);
+                    }
+                }
+            }
+        }
+
+        for (int parity = 0; parity < parityStates; parity++) {
+            // Each free edge can take one unpaired half-edge of any color.
+            if ((reachable[cellCount] & 1 << parity) != 0
+                    && Integer.bitCount(parity ^ requiredParity) <= freeEdges) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int colorBit(int colorOrdinal) {
+        for (int i = 0; i < PIECE_COLORS.length; i++) {
+            if (PIECE_COLORS[i].ordinal() == colorOrdinal) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes a maximum matching between empty cells and pieces that fit them with Hopcroft-Karp.
+     *
+     * @return The number of cells that get their own piece.
+     */
+    static int countMatchedCells(CompiledPuzzle puzzle) {
+        int cellCount = puzzle.getCellCount();
+        int[][] adjacentPieces = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            Set<Integer> pieces = new LinkedHashSet<>();
+            for (int oriented : puzzle.getCandidates(cell)) {
+                pieces.add(puzzle.getOrientedPiece(oriented));
+            }
+            adjacentPieces[cell] = pieces.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int[] pieceOfCell = new int[cellCount];
+        int[] cellOfPiece = new int[puzzle.getPieceCount()];
+        Arrays.fill(pieceOfCell, NO_MATCH);
+        Arrays.fill(cellOfPiece, NO_MATCH);
+        int[] layer = new int[cellCount];
+        int matched = 0;
+        while (buildLayers(adjacentPieces, pieceOfCell, cellOfPiece, layer)) {
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (pieceOfCell[cell] == NO_MATCH && augment(cell, adjacentPieces, pieceOfCell, cellOfPiece, layer)) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Breadth-first search from all unmatched cells along alternating paths.
+     *
+     * @return True if an augmenting path exists.
+     */
+    private static boolean buildLayers(int[][] adjacentPieces, int[] pieceOfCell, int[] cellOfPiece, int[] layer) {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int cell = 0; cell < layer.length; cell++) {
+            if (pieceOfCell[cell] == NO_MATCH) {
+                layer[cell] = 0;
+                queue.add(cell);
+            } else {
+                layer[cell] = Integer.MAX_VALUE;
+            }
+        }
+        boolean foundFreePiece = false;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            for (int piece : adjacentPieces[cell]) {
+                int next = cellOfPiece[piece];
+                if (next == NO_MATCH) {
+                    foundFreePiece = true;
+                } else if (layer[next] == Integer.MAX_VALUE) {
+                    layer[next] = layer[cell] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return foundFreePiece;
+    }
+
+    /** Depth-first search for an augmenting path that follows the layers. */
+    private static boolean augment(int cell, int[][] adjacentPieces, int[] pieceOfCell, int[] cellOfPiece,
+                                   int[] layer) {
+        for (int piece : adjacentPieces[cell]) {
+            int next = cellOfPiece[piece];
+            if (next == NO_MATCH
+                    || (layer[next] == layer[cell] + 1 && augment(next, adjacentPieces, pieceOfCell, cellOfPiece, layer))) {
+                pieceOfCell[cell] = piece;
+                cellOfPiece[piece] = cell;
+                return true;
+            }
+        }
+        layer[cell] = Integer.MAX_VALUE; // Dead end for this phase
+        return false;
+    }
+}
@@ -1,11 +1,53 @@
 package logic;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
-public class Solver {
+public class Solver implements PuzzleSolver {
+
+    private final CellSelectionStrategy cellSelection;
+    private final ValueOrdering valueOrdering;
+    private long nodeCount; // Placements tried by the last search
+    private final EndgameTable endgames = new EndgameTable(EndgameTable.DEFAULT_CAPACITY);
+    private int emptyCellCount; // Empty, non-hole cells left in the current search
+    private CandidateFilter candidateFilter; // Over the pieces the current search started with
+    private BoardShape shape;                // Neighbor and border tables of the current board
+    private Color[] sideBorderColors;        // Border color per cell side of the current board, see BoardShape
+
+    /** A candidate for a cell: a piece in one orientation, with its rank for the value ordering. */
+    private record Placement(MosaicPiece piece, int orientation, int score) {}
+
+    /** The constraints of an empty neighbor cell and its option count per color of the shared edge. */
+    private record NeighborOptions(Map<Direction, Color> constraints, int[] optionsByColor) {}
+
+    public Solver() {
+        this(CellSelectionStrategy.MOST_CONSTRAINED);
+    }
+
+    /**
+     * @param cellSelection Decides which empty cell is filled next.
+     */
+    public Solver(CellSelectionStrategy cellSelection) {
+        this(cellSelection, ValueOrdering.LIST_ORDER);
+    }
+
+    /**
+     * @param cellSelection Decides which empty cell is filled next.
+     * @param valueOrdering Decides in which order the candidates of that cell are tried.
+     */
+    public Solver(CellSelectionStrategy cellSelection, ValueOrdering valueOrdering) {
+        this.cellSelection = cellSelection;
+        this.valueOrdering = valueOrdering;
+    }
+
+    @Override
+    public String getName() {
+        return "backtracking";
+    }
 
     /**
      * Public entry point for the solver.
@@ -14,11 +56,43 @@ public class Solver {
      * @param availablePieces The list of pieces available to use.
      * @return A Field object representing the solution, or null if unsolvable.
      */
+    @Override
     public Field findSolution(Field fieldToSolve, List<MosaicPiece> availablePieces,
                               Map<BorderPosition, Color> borderColors) {
+        nodeCount = 0;
+        emptyCellCount = collectEmptyCells(fieldToSolve).size();
+        candidateFilter = new CandidateFilter(availablePieces);
+        shape = BoardShape.of(fieldToSolve);
+        sideBorderColors = shape.resolveBorderColors(borderColors);
         return solvePuzzle(fieldToSolve, availablePieces, borderColors);
     }
 
+    /**
+     * Counts all solutions of the puzzle by exhausting the backtracking search.
+     * @param fieldToSolve The field configuration to solve.
+     * @param availablePieces The list of pieces available to use.
+     * @return The number of distinct solutions.
+     */
+    @Override
+    public long countSolutions(Field fieldToSolve, List<MosaicPiece> availablePieces,
+                               Map<BorderPosition, Color> borderColors) {
+        nodeCount = 0;
+        candidateFilter = new CandidateFilter(availablePieces);
+        shape = BoardShape.of(fieldToSolve);
+        sideBorderColors = shape.resolveBorderColors(borderColors);
+        return countPuzzleSolutions(fieldToSolve, availablePieces, borderColors);
+    }
+
+    /** @return The number of placements tried by the last search. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /** @return The memoized endgames of this solver, kept across searches. */
+    EndgameTable getEndgameTable() {
+        return endgames;
+    }
+
     /**
      * The core recursive backtracking algorithm. It attempts to find a valid
      * placement of pieces for the given field.
@@ -29,40 +103,335 @@ public class Solver {
      * @return A solved Field object if a solution is found, otherwise null.
      */
     private Field solvePuzzle(Field field, List<MosaicPiece> availablePieces, Map<BorderPosition, Color> borderColors) {
-        Position nextEmpty = field.findMostConstrainedEmptyCell();
+        if (emptyCellCount <= EndgameTable.MAX_CELLS) {
+            return solveEndgame(field, availablePieces, borderColors);
+        }
+        Position nextEmpty = selectEmptyCell(field, availablePieces, borderColors);
         if (nextEmpty == null) {
             return field;
         }
 
-        Map<Direction, Color> constraints = getConstraintsForCell(nextEmpty.row(), nextEmpty.column(), field, borderColors);
-        List<MosaicPiece> candidatePieces = new ArrayList<>();
+        // Iterate through only the promising candidates, in the configured order.
+        for (Placement placement : orderedPlacements(nextEmpty, field, availablePieces, borderColors)) {
+            MosaicPiece piece = placement.piece();
+            List<MosaicPiece> remainingPieces = new ArrayList<>(availablePieces);
+            remainingPieces.remove(piece);
+
+            piece.setOrientation(placement.orientation());
+            field.setPieceAt(nextEmpty.row(), nextEmpty.column(), piece);
+            nodeCount++;
+            emptyCellCount--;
+            Field solution = solvePuzzle(field, remainingPieces, borderColors);
+            if (solution != null) {
+                return solution;
+            }
+            field.setPieceAt(nextEmpty.row(), nextEmpty.column(), null); // Backtrack
+            emptyCellCount++;
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Completes the last few empty cells with the endgame table instead of searching them again.
+     *
+     * @return The solved field, or null if the remaining cells cannot be filled.
+     */
+    private Field solveEndgame(Field field, List<MosaicPiece> availablePieces, Map<BorderPosition, Color> borderColors) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
+        }
+        List<Position> emptyCells = collectEmptyCells(field);
+        if (emptyCells.isEmpty()) {
+            return field;
+        }
+        long endgameNodesBefore = endgames.getNodeCount();
+        boolean completed = endgames.complete(field, emptyCells, availablePieces, borderColors);
+        nodeCount += endgames.getNodeCount() - endgameNodesBefore;
+        return completed ? field : null;
+    }
+
+    /** @return The empty, non-hole cells of the field in row-major order. */
+    private static List<Position> collectEmptyCells(Field field) {
+        List<Position> emptyCells = new ArrayList<>();
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (field.isCellEmpty(r, c) && !field.isCellHole(r, c)) {
+                    emptyCells.add(new Position(r, c));
+                }
+            }
+        }
+        return emptyCells;
+    }
+
+    /**
+     * Collects every valid (piece, orientation) for a cell and sorts them by the value ordering.
+     * Symmetric pieces are only tried in their visually distinct orientations.
+     *
+     * @param cell            The empty cell to fill.
+     * @param field           The current state of the board being solved.
+     * @param availablePieces The list of pieces not yet placed.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The candidates in the order they should be tried.
+     */
+    private List<Placement> orderedPlacements(Position cell, Field field, List<MosaicPiece> availablePieces,
+                                              Map<BorderPosition, Color> borderColors) {
+        Map<Direction, Color> constraints = getConstraintsForCell(cell.row(), cell.column(), field);
+        Map<Direction, NeighborOptions> neighborOptions = valueOrdering == ValueOrdering.LEAST_CONSTRAINING
+                ? countNeighborOptions(cell, field, availablePieces, borderColors) : null;
+        Map<Color, Integer> colorFrequency = valueOrdering == ValueOrdering.SCARCITY
+                ? countEdgeColors(availablePieces) : null;
+        long[] matchingPieces = candidateFilter.matchingPieces(constraints);
+
+        List<Placement> placements = new ArrayList<>();
         for (MosaicPiece piece : availablePieces) {
-            if (canPieceMeetConstraints(piece, constraints)) {
-                candidatePieces.add(piece);
+            if (!canPieceMeetConstraints(piece, constraints, matchingPieces)) {
+                continue;
+            }
+            int orientationLimit = piece.getDistinctOrientationCount() * 90;
+            for (int orientation = 0; orientation < orientationLimit; orientation += 90) {
+                piece.setOrientation(orientation);
+                if (!fitsPlacement(piece, cell.row(), cell.column(), field)) {
+                    continue;
+                }
+                int score = 0;
+                if (valueOrdering == ValueOrdering.LEAST_CONSTRAINING) {
+                    int remainingOptions = remainingNeighborOptions(piece, neighborOptions);
+                    if (remainingOptions < 0) {
+                        continue; // A neighbor would be left without options, so this cannot lead to a solution.
+                    }
+                    score = -remainingOptions;
+                } else if (valueOrdering == ValueOrdering.SCARCITY) {
+                    score = edgeColorFrequency(piece, colorFrequency);
+                }
+                placements.add(new Placement(piece, orientation, score));
+            }
+        }
+        placements.sort(Comparator.comparingInt(Placement::score)); // Stable, so ties keep the list order.
+        return placements;
+    }
+
+    /**
+     * Counts, for every empty neighbor of a cell, how many (piece, orientation) options it has
+     * for each color of the edge it shares with the cell.
+     *
+     * @return The option counts per color ordinal, by the direction of the neighbor.
+     */
+    private Map<Direction, NeighborOptions> countNeighborOptions(Position cell, Field field,
+                                                                 List<MosaicPiece> availablePieces,
+                                                                 Map<BorderPosition, Color> borderColors) {
+        Map<Direction, NeighborOptions> neighborOptions = new EnumMap<>(Direction.class);
+        for (Direction dir : Direction.values()) {
+            Position neighbor = getEmptyNeighbor(cell, dir, field);
+            if (neighbor == null) {
+                continue;
             }
+            Map<Direction, Color> constraints =
+                    getConstraintsForCell(neighbor.row(), neighbor.column(), field);
+            int[] optionsByColor = new int[Color.values().length];
+            for (MosaicPiece piece : availablePieces) {
+                addMatchingOrientations(piece, constraints, dir.opposite(), optionsByColor);
+            }
+            neighborOptions.put(dir, new NeighborOptions(constraints, optionsByColor));
+        }
+        return neighborOptions;
+    }
+
+    /**
+     * Sums up the options that the empty neighbors of a cell keep if a piece is placed there.
+     * The piece itself is no longer available to the neighbors.
+     *
+     * @return The number of remaining options, or -1 if a neighbor would be left without any.
+     */
+    private int remainingNeighborOptions(MosaicPiece piece, Map<Direction, NeighborOptions> neighborOptions) {
+        int orientation = piece.getOrientation();
+        int remaining = 0;
+        for (Map.Entry<Direction, NeighborOptions> entry : neighborOptions.entrySet()) {
+            Direction dir = entry.getKey();
+            Color sharedColor = piece.getEdgeColor(dir);
+
+            int[] ownOptions = new int[Color.values().length];
+            addMatchingOrientations(piece, entry.getValue().constraints(), dir.opposite(), ownOptions);
+            piece.setOrientation(orientation);
+
+            int options = entry.getValue().optionsByColor()[sharedColor.ordinal()] - ownOptions[sharedColor.ordinal()];
+            if (options == 0) {
+                return -1;
+            }
+            remaining += options;
         }
+        return remaining;
+    }
 
-        // Iterate through only the promising candidates.
-        for (MosaicPiece piece : candidatePieces) {
+    /**
+     * Adds the distinct orientations of a piece that satisfy the constraints to the counter
+     * of the color the piece then shows on the given side.
+     */
+    private void addMatchingOrientations(MosaicPiece piece, Map<Direction, Color> constraints, Direction side,
+                                         int[] countsByColor) {
+        int orientationLimit = piece.getDistinctOrientationCount() * 90;
+        for (int orientation = 0; orientation < orientationLimit; orientation += 90) {
+            piece.setOrientation(orientation);
+            boolean rotationMatches = true;
+            for (Map.Entry<Direction, Color> entry : constraints.entrySet()) {
+                if (piece.getEdgeColor(entry.getKey()) != entry.getValue()) {
+                    rotationMatches = false;
+                    break;
+                }
+            }
+            if (rotationMatches) {
+                countsByColor[piece.getEdgeColor(side).ordinal()]++;
+            }
+        }
+    }
+
+    /** @return The neighbor cell in the given direction if it is on the board, empty and not a hole, else null. */
+    private Position getEmptyNeighbor(Position cell, Direction dir, Field field) {
+        int slot = shape.slot(cell.row(), cell.column(), dir.ordinal());
+        int row = shape.getNeighborRow(slot);
+        if (row < 0 || !field.isCellEmpty(row, shape.getNeighborColumn(slot))) {
+            return null; // Border, hole or occupied cell
+        }
+        return new Position(row, shape.getNeighborColumn(slot));
+    }
+
+    /** Counts how often each color appears on the edges of the given pieces. */
+    private static Map<Color, Integer> countEdgeColors(List<MosaicPiece> pieces) {
+        Map<Color, Integer> frequency = new EnumMap<>(Color.class);
+        for (MosaicPiece piece : pieces) {
+            for (Color color : piece.getColorPattern()) {
+                frequency.merge(color, 1, Integer::sum);
+            }
+        }
+        return frequency;
+    }
+
+    /** @return The summed frequency of the edge colors of a piece; lower means scarcer. */
+    private static int edgeColorFrequency(MosaicPiece piece, Map<Color, Integer> colorFrequency) {
+        int frequency = 0;
+        for (Color color : piece.getColorPattern()) {
+            frequency += colorFrequency.getOrDefault(color, 0);
+        }
+        return frequency;
+    }
+
+    /**
+     * Same search as {@link #solvePuzzle}, but continues after each solution and counts them.
+     *
+     * @param field           The current state of the board being solved.
+     * @param availablePieces The list of pieces not yet placed.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The number of solutions reachable from the current state.
+     */
+    private long countPuzzleSolutions(Field field, List<MosaicPiece> availablePieces,
+                                      Map<BorderPosition, Color> borderColors) {
+        Position nextEmpty = selectEmptyCell(field, availablePieces, borderColors);
+        if (nextEmpty == null) {
+            return 1;
+        }
+
+        Map<Direction, Color> constraints = getConstraintsForCell(nextEmpty.row(), nextEmpty.column(), field);
+        long[] matchingPieces = candidateFilter.matchingPieces(constraints);
+        long count = 0;
+        for (MosaicPiece piece : availablePieces) {
+            if (!canPieceMeetConstraints(piece, constraints, matchingPieces)) {
+                continue;
+            }
             List<MosaicPiece> remainingPieces = new ArrayList<>(availablePieces);
             remainingPieces.remove(piece);
 
-            for (int orientation = 0; orientation < 360; orientation += 90) {
+            int orientationLimit = piece.getDistinctOrientationCount() * 90;
+            for (int orientation = 0; orientation < orientationLimit; orientation += 90) {
                 piece.setOrientation(orientation);
-                if (checkPlacementValidity(piece, nextEmpty.row(), nextEmpty.column(), field, borderColors)) {
+                if (fitsPlacement(piece, nextEmpty.row(), nextEmpty.column(), field)) {
                     field.setPieceAt(nextEmpty.row(), nextEmpty.column(), piece);
-                    Field solution = solvePuzzle(field, remainingPieces, borderColors);
-                    if (solution != null) {
-                        return solution;
-                    }
+                    nodeCount++;
+                    count += countPuzzleSolutions(field, remainingPieces, borderColors);
                     field.setPieceAt(nextEmpty.row(), nextEmpty.column(), null); // Backtrack
                 }
             }
+        }
+        return count;
+    }
 
+    /**
+     * Selects the next empty cell according to the configured strategy.
+     * Also stops the search if the current thread was interrupted, e.g. by a solver portfolio.
+     *
+     * @param field           The current state of the board being solved.
+     * @param availablePieces The list of pieces not yet placed.
+     * @param borderColors    The map of required border colors for the puzzle.
+     * @return The position of the next cell to fill, or null if the board is full.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    private Position selectEmptyCell(Field field, List<MosaicPiece> availablePieces,
+                                     Map<BorderPosition, Color> borderColors) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Solver was interrupted.");
         }
+        return switch (cellSelection) {
+            case MOST_CONSTRAINED -> field.findMostConstrainedEmptyCell();
+            case MIN_DOMAIN -> findCellWithFewestCandidates(field, availablePieces, borderColors);
+            case BORDER_FIRST -> findMostConstrainedCellBorderFirst(field);
+        };
+    }
 
-        return null;
+    /**
+     * Finds the empty cell with the fewest (piece, orientation) candidates.
+     * A cell without any candidate is returned immediately, so the search fails fast.
+     */
+    private Position findCellWithFewestCandidates(Field field, List<MosaicPiece> availablePieces,
+                                                  Map<BorderPosition, Color> borderColors) {
+        Position bestPosition = null;
+        int fewestCandidates = Integer.MAX_VALUE;
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (!field.isCellEmpty(r, c) || field.isCellHole(r, c)) {
+                    continue;
+                }
+                Map<Direction, Color> constraints = getConstraintsForCell(r, c, field);
+                int candidates = 0;
+                for (MosaicPiece piece : availablePieces) {
+                    candidates += countMatchingOrientations(piece, constraints);
+                    if (candidates >= fewestCandidates) {
+                        break;
+                    }
+                }
+                if (candidates < fewestCandidates) {
+                    fewestCandidates = candidates;
+                    bestPosition = new Position(r, c);
+                    if (candidates == 0) {
+                        return bestPosition;
+                    }
+                }
+            }
+        }
+        return bestPosition;
+    }
 
+    /**
+     * Finds the most constrained empty cell on the outer ring of the board,
+     * or the most constrained interior cell once the ring is full.
+     */
+    private Position findMostConstrainedCellBorderFirst(Field field) {
+        Position bestPosition = null;
+        int bestScore = -1;
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (!field.isCellEmpty(r, c) || field.isCellHole(r, c)) {
+                    continue;
+                }
+                boolean onRing = r == 0 || c == 0 || r == field.getRows() - 1 || c == field.getColumns() - 1;
+                // Ring cells always rank above interior cells (at most 4 constrained sides each).
+                int score = field.countConstrainedSides(r, c) + (onRing ? Game.EDGE_COUNT + 1 : 0);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestPosition = new Position(r, c);
+                }
+            }
+        }
+        return bestPosition;
     }
 
     /**
@@ -72,12 +441,12 @@ public class Solver {
      * @param field The current state of the board.
      * @return A Map where the key is the direction and the value is the required Color enum.
      */
-    private Map<Direction, Color> getConstraintsForCell(int row, int col, Field field, Map<BorderPosition, Color> borderColors) {
+    private Map<Direction, Color> getConstraintsForCell(int row, int col, Field field) {
         Map<Direction, Color> constraints = new EnumMap<>(Direction.class);
 
         // Check all four directions for a constraint.
         for (Direction dir : Direction.values()) {
-            Color requiredColor = getRequiredEdgeColorFor(row, col, dir, field, borderColors);
+            Color requiredColor = requiredEdgeColor(row, col, dir, field);
             if (requiredColor != Color.NONE) {
                 constraints.put(dir, requiredColor);
             }
@@ -85,6 +454,20 @@ public class Solver {
         return constraints;
     }
 
+    /**
+     * Pre-filters a piece with the bit set of matching pieces computed once for the cell.
+     * Pieces that the {@link CandidateFilter} does not know are checked orientation by orientation.
+     * @param piece          The piece to check.
+     * @param constraints    The map of required colors from getConstraintsForCell.
+     * @param matchingPieces The result of {@link CandidateFilter#matchingPieces} for these constraints.
+     * @return True if the piece can meet the constraints, false otherwise.
+     */
+    private boolean canPieceMeetConstraints(MosaicPiece piece, Map<Direction, Color> constraints,
+                                            long[] matchingPieces) {
+        int index = candidateFilter.indexOf(piece);
+        return index >= 0 ? CandidateFilter.contains(matchingPieces, index) : canPieceMeetConstraints(piece, constraints);
+    }
+
     /**
      * Checks if a given piece can satisfy a set of color constraints in any of its orientations.
      * This is used to pre-filter pieces before trying to place them.
@@ -93,8 +476,9 @@ public class Solver {
      * @return True if the piece can meet the constraints, false otherwise.
      */
     private boolean canPieceMeetConstraints(MosaicPiece piece, Map<Direction, Color> constraints) {
-        // Try all 4 rotations to see if any of them match the constraints.
-        for (int orientation = 0; orientation < 360; orientation += 90) {
+        // Try every distinct rotation to see if any of them match the constraints.
+        int orientationLimit = piece.getDistinctOrientationCount() * 90;
+        for (int orientation = 0; orientation < orientationLimit; orientation += 90) {
             piece.setOrientation(orientation);
             boolean rotationMatches = true;
             for (Map.Entry<Direction, Color> entry : constraints.entrySet()) {
@@ -111,6 +495,60 @@ public class Solver {
         return false; // No orientation of this piece can satisfy the constraints.
     }
 
+    /**
+     * Counts the distinct orientations in which a piece satisfies a set of color constraints.
+     * @param piece       The piece to check.
+     * @param constraints The map of required colors from getConstraintsForCell.
+     * @return The number of matching orientations.
+     */
+    private int countMatchingOrientations(MosaicPiece piece, Map<Direction, Color> constraints) {
+        int matches = 0;
+        int orientationLimit = piece.getDistinctOrientationCount() * 90;
+        for (int orientation = 0; orientation < orientationLimit; orientation += 90) {
+            piece.setOrientation(orientation);
+            boolean rotationMatches = true;
+            for (Map.Entry<Direction, Color> entry : constraints.entrySet()) {
+                if (piece.getEdgeColor(entry.getKey()) != entry.getValue()) {
+                    rotationMatches = false;
+                    break;
+                }
+            }
+            if (rotationMatches) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Same check as {@link #checkPlacementValidity}, reading the tables of the current board shape.
+     */
+    private boolean fitsPlacement(MosaicPiece piece, int row, int col, Field field) {
+        for (Direction dir : Direction.values()) {
+            Color requiredColor = requiredEdgeColor(row, col, dir, field);
+            if (requiredColor != Color.NONE && piece.getEdgeColor(dir) != requiredColor) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same result as {@link #getRequiredEdgeColorFor}, reading the tables of the current board shape.
+     */
+    private Color requiredEdgeColor(int row, int col, Direction direction, Field field) {
+        int slot = shape.slot(row, col, direction.ordinal());
+        int neighborRow = shape.getNeighborRow(slot);
+        if (neighborRow == BoardShape.BORDER) {
+            return sideBorderColors[slot];
+        }
+        if (neighborRow == BoardShape.HOLE) {
+            return Color.NONE;
+        }
+        MosaicPiece neighborPiece = field.getPieceAt(neighborRow, shape.getNeighborColumn(slot));
+        return neighborPiece != null ? neighborPiece.getEdgeColor(direction.opposite()) : Color.NONE;
+    }
+
     /**
      * Checks if placing a given piece at a specific position on a GIVEN field is valid.
      * This version is used by the backtracking solver which operates on copies of the game state.
@@ -126,9 +564,8 @@ public class Solver {
         for (Direction dir : Direction.values()) {
             Color pieceEdgeColor = piece.getEdgeColor(dir);
 
-            int[] neighbor = getNeighborCoordinates(row, col, dir);
-            int neighborRow = neighbor[0];
-            int neighborCol = neighbor[1];
+            int neighborRow = row + CompiledPuzzle.ROW_OFFSET[dir.ordinal()];
+            int neighborCol = col + CompiledPuzzle.COLUMN_OFFSET[dir.ordinal()];
 
             // Check against borders
             if (neighborRow < 0 || neighborRow >= field.getRows() || neighborCol < 0 || neighborCol >= field.getColumns()) {
@@ -150,18 +587,6 @@ public class Solver {
         return true; // All sides are valid
     }
 
-    private static int[] getNeighborCoordinates(int row, int col, Direction dir) {
-        int neighborRow = row;
-        int neighborCol = col;
-        switch (dir) {
-            case TOP -> neighborRow--;
-            case RIGHT -> neighborCol++;
-            case BOTTOM -> neighborRow++;
-            case LEFT -> neighborCol--;
-        }
-        return new int[]{neighborRow, neighborCol};
-    }
-
     /**
      * Determines the required color for a single edge of an empty cell by checking
      * for adjacent borders or neighboring pieces.
@@ -174,9 +599,8 @@ public class Solver {
     public static Color getRequiredEdgeColorFor(int row, int col, Direction direction, Field field,
                                                 Map<BorderPosition, Color> borderColors) {
 
-        int[] neighbor = getNeighborCoordinates(row, col, direction);
-        int neighborRow = neighbor[0];
-        int neighborCol = neighbor[1];
+        int neighborRow = row + CompiledPuzzle.ROW_OFFSET[direction.ordinal()];
+        int neighborCol = col + CompiledPuzzle.COLUMN_OFFSET[direction.ordinal()];
 
         // Case 1: The neighbor is outside the board (it's a border).
         if (neighborRow < 0 || neighborRow >= field.getRows() ||
@@ -0,0 +1,544 @@
+package logic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Small command line benchmark that runs all registered solving engines on the same boards
+ * and prints the time needed to find one solution and to count all solutions.
+ * <p>
+ * Run with {@code java -cp <classpath> logic.SolverBenchmark}. With the argument {@code --fit}
+ * it instead prints a decision table for the {@link EngineSelector}. With {@code --local} it runs
+ * the {@link LocalSearchSolver} on large generated boards and prints the best placements found.
+ * With {@code --count <rows> <columns> <holes> <prePlaced> <seed> <checkpointFile>} it counts the
+ * solutions of one generated board with the {@link IterativeSolver}, saving a checkpoint every
+ * minute; running the same command again after the process died resumes the count. With
+ * {@code --distributed <workers> <rows> <columns> <holes> <prePlaced> <seed>} it counts the same
+ * board once in this process and once with a {@link DistributedSolver} over worker processes.
+ */
+public class SolverBenchmark {
+
+    private static final String DEFAULT_PUZZLE_RESOURCE = "/logic/json/defaultPuzzleField.json";
+    private static final int REPETITIONS = 3;
+    // Counting on larger boards takes far too long for the plain backtracker.
+    private static final int MAX_FREE_CELLS_FOR_COUNTING = 12;
+    // Upper bounds of the free cell ranges the decision table distinguishes.
+    private static final int[] FIT_FREE_CELL_BUCKETS = {4, 8, 12, Game.MIN_ALLOWED_FREE_CELL};
+    private static final int[][] FIT_BOARD_SIZES = {{3, 4}, {4, 4}, {4, 5}, {4, 6}};
+    // Boards without pre-placed pieces need as many cells as free cells, so they come in more sizes.
+    private static final int[][] FIT_BLANK_BOARD_SIZES = {{2, 2}, {2, 3}, {2, 4}, {3, 3}, {2, 5}, {3, 4},
+            {4, 4}, {3, 5}, {3, 6}, {4, 5}};
+    // The features a fitted profile has or lacks, as bits of the profile number.
+    private static final int FIT_HOLES = 1;
+    private static final int FIT_OPEN_BORDERS = 2;
+    private static final int FIT_PRE_PLACED = 4;
+    private static final int[] FIT_FEATURES = {FIT_HOLES, FIT_OPEN_BORDERS, FIT_PRE_PLACED};
+    private static final int FIT_PROFILES = 8;
+    private static final int FIT_BOARDS_PER_PROFILE = 8;
+    // Another engine replaces the fallback engine only if it is clearly faster, which keeps noise out of the table.
+    private static final double FIT_MIN_SPEEDUP = 1.25;
+    private static final int[] LOCAL_BOARD_SIZES = {6, 8, 10, 12};
+    private static final long LOCAL_TIME_BUDGET_MILLIS = 5_000;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 60_000;
+
+    /**
+     * A board used in the benchmark: an initial field, the pieces still available and its borders.
+     */
+    public record BenchmarkBoard(String name, Field field, List<MosaicPiece> availablePieces,
+                                 Map<BorderPosition, Color> borderColors) {
+
+        /** @return A fresh copy of the board so that every engine starts from the same state. */
+        public BenchmarkBoard copy() {
+            List<MosaicPiece> piecesCopy = new ArrayList<>();
+            for (MosaicPiece piece : availablePieces) {
+                piecesCopy.add(new MosaicPiece(piece.getColorPattern()));
+            }
+            return new BenchmarkBoard(name, field.deepCopy(), piecesCopy, borderColors);
+        }
+
+        public int freeCells() {
+            return CompiledPuzzle.compile(field, availablePieces, borderColors).getCellCount();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Supplier<PuzzleSolver>> engines = SolverRegistry.getDefault().getEngines();
+        if (args.length > 0 && args[0].equals("--fit")) {
+            engines.remove(new EngineSelector().getName()); // The selector cannot choose itself.
+            System.out.println(fitSelectionTable(engines).toJson());
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--local")) {
+            runLocalSearch();
+            return;
+        }
+        if (args.length == 7 && args[0].equals("--count")) {
+            runResumableCount(args);
+            return;
+        }
+        if (args.length == 7 && args[0].equals("--distributed")) {
+            runDistributedCount(args);
+            return;
+        }
+
+        System.out.printf("%-24s %-14s %12s %12s %14s%n", "board", "engine", "find [ms]", "count [ms]", "solutions");
+        for (BenchmarkBoard board : createBoards()) {
+            for (Map.Entry<String, Supplier<PuzzleSolver>> engine : engines.entrySet()) {
+                double findMillis = measureFind(engine.getValue(), board);
+                String countMillis = "-";
+                String solutions = "-";
+                if (board.freeCells() <= MAX_FREE_CELLS_FOR_COUNTING) {
+                    try {
+                        long[] countResult = measureCount(engine.getValue(), board);
+                        countMillis = String.format("%.2f", countResult[0] / 1_000_000.0);
+                        solutions = Long.toString(countResult[1]);
+                    } catch (UnsupportedOperationException e) {
+                        // The engine can only find solutions.
+                    }
+                }
+                System.out.printf("%-24s %-14s %12.2f %12s %14s%n", board.name(), engine.getKey(),
+                        findMillis, countMillis, solutions);
+            }
+            List<String> problems = SolverRegistry.crossCheck(
+                    SolverRegistry.getDefault().compareAll(board.field(), board.availablePieces(), board.borderColors()),
+                    board.field(), board.availablePieces(), board.borderColors());
+            for (String problem : problems) {
+                System.out.println("  CROSS-CHECK FAILED: " + problem);
+            }
+        }
+    }
+
+    /**
+     * Measures the best time of several runs of {@link PuzzleSolver#findSolution}.
+     *
+     * @return The best run time in milliseconds.
+     */
+    public static double measureFind(Supplier<PuzzleSolver> engine, BenchmarkBoard board) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i <= REPETITIONS; i++) {
+            BenchmarkBoard run = board.copy();
+            long start = System.nanoTime();
+            engine.get().findSolution(run.field(), run.availablePieces(), run.borderColors());
+            long elapsed = System.nanoTime() - start;
+            if (i > 0) { // The first run only warms up the JIT.
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1_000_000.0;
+    }
+
+    /**
+     * Measures one run of {@link PuzzleSolver#countSolutions}.
+     *
+     * @return The run time in nanoseconds and the number of solutions.
+     */
+    public static long[] measureCount(Supplier<PuzzleSolver> engine, BenchmarkBoard board) {
+        BenchmarkBoard run = board.copy();
+        long start = System.nanoTime();
+        long count = engine.get().countSolutions(run.field(), run.availablePieces(), run.borderColors());
+        return new long[]{System.nanoTime() - start, count};
+    }
+
+    /**
+     * Fits the decision table of the {@link EngineSelector}. For every range of free cells, every
+     * profile of a board with or without holes, open border segments and pre-placed pieces gets
+     * several generated boards, and the engine with the lowest total time to find a solution is chosen.
+     * All engines are warmed up on the whole corpus first, so that the JIT does not favor the engines
+     * measured last.
+     * <p>
+     * The table only keeps the splits that change the engine: a range splits on the features in the
+     * order that needs the fewest rules, adjacent ranges with the same rules are merged, and rules at the
+     * end that choose the fallback engine are left to it.
+     *
+     * @param engines The engines to choose from, by name.
+     * @return The fitted decision table.
+     */
+    static EngineSelector.SelectionTable fitSelectionTable(Map<String, Supplier<PuzzleSolver>> engines) {
+        // corpus[bucket][profile] holds the boards of one profile; a profile no board size fits has none.
+        List<List<List<BenchmarkBoard>>> corpus = new ArrayList<>();
+        int minFreeCells = 1;
+        for (int maxFreeCells : FIT_FREE_CELL_BUCKETS) {
+            List<List<BenchmarkBoard>> bucket = new ArrayList<>();
+            for (int profile = 0; profile < FIT_PROFILES; profile++) {
+                bucket.add(generateFitBoards(minFreeCells, maxFreeCells, profile));
+            }
+            corpus.add(bucket);
+            minFreeCells = maxFreeCells + 1;
+        }
+
+        for (List<List<BenchmarkBoard>> bucket : corpus) {
+            for (List<BenchmarkBoard> boards : bucket) {
+                fastestEngine(engines, boards);
+            }
+        }
+
+        List<List<EngineSelector.Rule>> bucketRules = new ArrayList<>();
+        for (int b = 0; b < FIT_FREE_CELL_BUCKETS.length; b++) {
+            String[] winners = new String[FIT_PROFILES];
+            for (int profile = 0; profile < FIT_PROFILES; profile++) {
+                List<BenchmarkBoard> boards = corpus.get(b).get(profile);
+                winners[profile] = boards.isEmpty() ? null : fastestEngine(engines, boards);
+            }
+            bucketRules.add(fitRules(FIT_FREE_CELL_BUCKETS[b], winners, 0, 0));
+        }
+        return new EngineSelector.SelectionTable(EngineSelector.FALLBACK_ENGINE, mergeRules(bucketRules));
+    }
+
+    /**
+     * Generates the boards of one profile within a range of free cells.
+     *
+     * @param profile The features of the boards, see {@link #FIT_FEATURES}.
+     * @return The boards; empty if no board size fits the profile.
+     */
+    private static List<BenchmarkBoard> generateFitBoards(int minFreeCells, int maxFreeCells, int profile) {
+        int holes = (profile & FIT_HOLES) != 0 ? 2 : 0;
+        boolean prePlaced = (profile & FIT_PRE_PLACED) != 0;
+        List<int[]> sizes = new ArrayList<>();
+        for (int[] size : prePlaced ? FIT_BOARD_SIZES : FIT_BLANK_BOARD_SIZES) {
+            int cells = size[0] * size[1] - holes;
+            if (prePlaced ? cells > minFreeCells : cells >= minFreeCells && cells <= maxFreeCells) {
+                sizes.add(size);
+            }
+        }
+        List<BenchmarkBoard> boards = new ArrayList<>();
+        Random random = new Random(31L * maxFreeCells + profile);
+        for (int i = 0; i < FIT_BOARDS_PER_PROFILE && !sizes.isEmpty(); i++) {
+            int[] size = sizes.get(random.nextInt(sizes.size()));
+            int cells = size[0] * size[1] - holes;
+            int freeCells = prePlaced
+                    ? Math.min(cells - 1, minFreeCells + random.nextInt(maxFreeCells - minFreeCells + 1))
+                    : cells;
+            BenchmarkBoard board = generateBoard(size[0], size[1], holes, cells - freeCells, random.nextLong());
+            boards.add((profile & FIT_OPEN_BORDERS) != 0 ? withOpenBorders(board, random) : board);
+        }
+        return boards;
+    }
+
+    /**
+     * Fits the rules for the profiles of one range that agree on the fixed features: one rule if they
+     * choose the same engine, otherwise the rules of both sides of the feature that needs the fewest
+     * rules in total. Profiles without boards choose no engine and go along with the others.
+     *
+     * @param fixed  The features the profiles agree on.
+     * @param values Which of the fixed features the profiles have.
+     * @return The rules, empty if no profile has boards.
+     */
+    private static List<EngineSelector.Rule> fitRules(int maxFreeCells, String[] winners, int fixed, int values) {
+        Set<String> engines = new HashSet<>();
+        for (int profile = 0; profile < FIT_PROFILES; profile++) {
+            if ((profile & fixed) == values && winners[profile] != null) {
+                engines.add(winners[profile]);
+            }
+        }
+        List<EngineSelector.Rule> fewest = new ArrayList<>();
+        if (engines.size() <= 1) {
+            for (String engine : engines) {
+                fewest.add(new EngineSelector.Rule(maxFreeCells,
+                        lowerBound(fixed, values, FIT_HOLES), upperBound(fixed, values, FIT_HOLES),
+                        lowerBound(fixed, values, FIT_OPEN_BORDERS), upperBound(fixed, values, FIT_OPEN_BORDERS),
+                        lowerBound(fixed, values, FIT_PRE_PLACED), upperBound(fixed, values, FIT_PRE_PLACED), engine));
+            }
+            return fewest;
+        }
+        fewest = null;
+        for (int feature : FIT_FEATURES) {
+            if ((fixed & feature) == 0) {
+                List<EngineSelector.Rule> rules = fitRules(maxFreeCells, winners, fixed | feature, values);
+                rules.addAll(fitRules(maxFreeCells, winners, fixed | feature, values | feature));
+                if (fewest == null || rules.size() < fewest.size()) {
+                    fewest = rules;
+                }
+            }
+        }
+        return fewest;
+    }
+
+    /** @return 1 if the rule requires the feature, otherwise no bound. */
+    private static Integer lowerBound(int fixed, int values, int feature) {
+        return (fixed & feature) != 0 && (values & feature) != 0 ? 1 : null;
+    }
+
+    /** @return 0 if the rule excludes the feature, otherwise no bound. */
+    private static Integer upperBound(int fixed, int values, int feature) {
+        return (fixed & feature) != 0 && (values & feature) == 0 ? 0 : null;
+    }
+
+    /**
+     * Joins the rules of the free cell ranges. A range with the same rules as the next one is left out,
+     * because the next one covers it, and rules at the end that choose the fallback engine are dropped.
+     */
+    private static List<EngineSelector.Rule> mergeRules(List<List<EngineSelector.Rule>> bucketRules) {
+        List<EngineSelector.Rule> rules = new ArrayList<>();
+        for (int b = 0; b < bucketRules.size(); b++) {
+            if (b + 1 < bucketRules.size() && haveSameChoices(bucketRules.get(b), bucketRules.get(b + 1))) {
+                continue;
+            }
+            rules.addAll(bucketRules.get(b));
+        }
+        while (!rules.isEmpty() && rules.get(rules.size() - 1).engine.equals(EngineSelector.FALLBACK_ENGINE)) {
+            rules.remove(rules.size() - 1);
+        }
+        return rules;
+    }
+
+    private static boolean haveSameChoices(List<EngineSelector.Rule> first, List<EngineSelector.Rule> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (!first.get(i).hasSameConditions(second.get(i)) || !first.get(i).engine.equals(second.get(i).engine)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String fastestEngine(Map<String, Supplier<PuzzleSolver>> engines, List<BenchmarkBoard> boards) {
+        Map<String, Double> totalMillis = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<PuzzleSolver>> engine : engines.entrySet()) {
+            double total = 0;
+            for (BenchmarkBoard board : boards) {
+                total += measureFind(engine.getValue(), board);
+            }
+            totalMillis.put(engine.getKey(), total);
+        }
+        String fastest = EngineSelector.FALLBACK_ENGINE;
+        double fastestMillis = totalMillis.get(fastest) / FIT_MIN_SPEEDUP;
+        for (Map.Entry<String, Double> engine : totalMillis.entrySet()) {
+            if (engine.getValue() < fastestMillis) {
+                fastestMillis = engine.getValue();
+                fastest = engine.getKey();
+            }
+        }
+        return fastest;
+    }
+
+    /** Removes the color of about half of the border segments of a board, which keeps it solvable. */
+    private static BenchmarkBoard withOpenBorders(BenchmarkBoard board, Random random) {
+        Map<BorderPosition, Color> borders = new HashMap<>(board.borderColors());
+        for (Map.Entry<BorderPosition, Color> border : borders.entrySet()) {
+            if (random.nextBoolean()) {
+                border.setValue(Color.NONE);
+            }
+        }
+        Field field = new Field(board.field().getRows(), board.field().getColumns(), borders,
+                board.field().getHoles());
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                field.setPieceAt(r, c, board.field().getPieceAt(r, c));
+            }
+        }
+        return new BenchmarkBoard(board.name() + " open", field, board.availablePieces(), borders);
+    }
+
+    /**
+     * Creates the benchmark corpus: the default puzzle shipped with the game and
+     * solvable boards of several sizes generated from random tilings.
+     */
+    public static List<BenchmarkBoard> createBoards() throws IOException {
+        List<BenchmarkBoard> boards = new ArrayList<>();
+        boards.add(loadDefaultPuzzle());
+        boards.add(generateBoard(3, 3, 0, 0, 1));
+        boards.add(generateBoard(3, 4, 1, 0, 2));
+        boards.add(generateBoard(4, 4, 0, 0, 3));
+        boards.add(generateBoard(4, 5, 0, 8, 4));
+        boards.add(generateBoard(4, 6, 0, 10, 5));
+        boards.add(generateBoard(5, 5, 1, 12, 6));
+        boards.add(generateBoard(4, 6, 0, 6, 7));
+        return boards;
+    }
+
+    private static BenchmarkBoard loadDefaultPuzzle() throws IOException {
+        List<MosaicPiece> allPieces = loadAllPieces();
+        try (InputStream inputStream = SolverBenchmark.class.getResourceAsStream(DEFAULT_PUZZLE_RESOURCE)) {
+            if (inputStream == null) {
+                throw new IOException("Resource not found: " + DEFAULT_PUZZLE_RESOURCE);
+            }
+            String json = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            PuzzleState state = new PuzzleFileManager(allPieces).loadPuzzleFromString(json);
+            List<MosaicPiece> available = new ArrayList<>(allPieces);
+            for (MosaicPiece piece : state.piecesOnBoard()) {
+                available.removeIf(p -> Arrays.equals(p.getColorPattern(), piece.getColorPattern()));
+            }
+            Field field = state.field();
+            return new BenchmarkBoard("default " + field.getRows() + "x" + field.getColumns(),
+                    field, available, state.borderColors());
+        }
+    }
+
+    /**
+     * Generates a solvable board. A random tiling of the whole board is computed first,
+     * its outer edges become the border colors, and all but {@code prePlaced} pieces are removed again.
+     *
+     * @param rows      The number of rows.
+     * @param columns   The number of columns.
+     * @param holes     The number of holes at random positions.
+     * @param prePlaced The number of pieces of the tiling that stay on the board.
+     * @param seed      The seed for all random decisions.
+     * @return The generated board.
+     */
+    public static BenchmarkBoard generateBoard(int rows, int columns, int holes, int prePlaced, long seed) {
+        Random random = new Random(seed);
+        List<MosaicPiece> allPieces = loadAllPieces();
+        Collections.shuffle(allPieces, random);
+
+        Set<Position> holePositions = new HashSet<>();
+        while (holePositions.size() < holes) {
+            holePositions.add(new Position(random.nextInt(rows), random.nextInt(columns)));
+        }
+        Field tiling = new DancingLinksSolver().findSolution(
+                new Field(rows, columns, new HashMap<>(), holePositions), allPieces, new HashMap<>());
+        if (tiling == null) {
+            throw new IllegalArgumentException("No tiling exists for a " + rows + "x" + columns + " board.");
+        }
+
+        Map<BorderPosition, Color> borderColors = new HashMap<>();
+        for (int c = 0; c < columns; c++) {
+            putBorderColor(borderColors, tiling, 0, c, Direction.TOP);
+            putBorderColor(borderColors, tiling, rows - 1, c, Direction.BOTTOM);
+        }
+        for (int r = 0; r < rows; r++) {
+            putBorderColor(borderColors, tiling, r, 0, Direction.LEFT);
+            putBorderColor(borderColors, tiling, r, columns - 1, Direction.RIGHT);
+        }
+
+        List<Position> pieceCells = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (!tiling.isCellHole(r, c)) {
+                    pieceCells.add(new Position(r, c));
+                }
+            }
+        }
+        Collections.shuffle(pieceCells, random);
+        Field field = new Field(rows, columns, borderColors, holePositions);
+        List<MosaicPiece> available = loadAllPieces();
+        for (Position cell : pieceCells.subList(0, Math.min(prePlaced, pieceCells.size()))) {
+            MosaicPiece piece = tiling.getPieceAt(cell.row(), cell.column());
+            field.setPieceAt(cell.row(), cell.column(), piece);
+            available.removeIf(p -> Arrays.equals(p.getColorPattern(), piece.getColorPattern()));
+        }
+
+        String name = rows + "x" + columns + " h" + holes + " p" + prePlaced + " #" + seed;
+        return new BenchmarkBoard(name, field, available, borderColors);
+    }
+
+    private static void putBorderColor(Map<BorderPosition, Color> borderColors, Field tiling,
+                                       int row, int column, Direction side) {
+        MosaicPiece piece = tiling.getPieceAt(row, column);
+        int index = (side == Direction.TOP || side == Direction.BOTTOM) ? column : row;
+        borderColors.put(new BorderPosition(side, index), piece != null ? piece.getEdgeColor(side) : Color.NONE);
+    }
+
+    /** Runs the local search on square generated boards and prints the mismatches it leaves. */
+    /**
+     * Counts the solutions of a generated board and resumes from the checkpoint file if it exists.
+     * The board is generated from its parameters again, so a new process counts the same board.
+     */
+    private static void runResumableCount(String[] args) throws IOException {
+        BenchmarkBoard board = generateBoard(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), Integer.parseInt(args[4]), Long.parseLong(args[5]));
+        Path checkpoint = Path.of(args[6]);
+        boolean resumed = Files.exists(checkpoint);
+        IterativeSolver solver = new IterativeSolver();
+        long start = System.nanoTime();
+        long solutions = solver.countSolutions(board.field(), board.availablePieces(), board.borderColors(),
+                checkpoint, CHECKPOINT_INTERVAL_MILLIS);
+        System.out.printf("%s: %d solutions, %d placements in total, %.0f ms in this run%s%n", board.name(),
+                solutions, solver.getNodeCount(), (System.nanoTime() - start) / 1_000_000.0,
+                resumed ? " (resumed)" : "");
+    }
+
+    /** Counts the solutions of a generated board in this process and with worker processes. */
+    private static void runDistributedCount(String[] args) {
+        int workers = Integer.parseInt(args[1]);
+        BenchmarkBoard board = generateBoard(Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                Integer.parseInt(args[4]), Integer.parseInt(args[5]), Long.parseLong(args[6]));
+        long start = System.nanoTime();
+        long solutions = new IterativeSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors());
+        System.out.printf("%s: %d solutions in %.0f ms in this process%n", board.name(), solutions,
+                (System.nanoTime() - start) / 1_000_000.0);
+
+        DistributedSolver solver = new DistributedSolver(workers);
+        start = System.nanoTime();
+        solutions = solver.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+        System.out.printf("%s: %d solutions in %.0f ms with %d workers, %d cubes, %d reassigned%n", board.name(),
+                solutions, (System.nanoTime() - start) / 1_000_000.0, workers, solver.getCubeCount(),
+                solver.getReassignedCubes());
+    }
+
+    private static void runLocalSearch() {
+        for (int size : LOCAL_BOARD_SIZES) {
+            BenchmarkBoard board = generateLargeBoard(size, size, size);
+            long start = System.nanoTime();
+            LocalSearchSolver.Result result = new LocalSearchSolver(LOCAL_TIME_BUDGET_MILLIS)
+                    .search(board.field(), board.availablePieces(), board.borderColors());
+            System.out.printf("%-22s %6d ms  %3d mismatched edges  %9d steps%n", board.name(),
+                    (System.nanoTime() - start) / 1_000_000, result.mismatches(), result.steps());
+        }
+    }
+
+    /**
+     * Generates a solvable board of any size. Unlike {@link #generateBoard}, the pieces are not the
+     * shipped tiles: every edge of the board gets a random color, and each cell's piece is made of the
+     * colors around it, in a random rotation. Pieces may repeat.
+     *
+     * @param rows    The number of rows.
+     * @param columns The number of columns.
+     * @param seed    The seed for all random decisions.
+     * @return The generated board, with one piece per cell and all border segments colored.
+     */
+    public static BenchmarkBoard generateLargeBoard(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        Color[] colors = {Color.RED, Color.GREEN, Color.YELLOW};
+        Color[][] horizontal = new Color[rows + 1][columns]; // Edge above each cell, and below the last row
+        Color[][] vertical = new Color[rows][columns + 1];   // Edge left of each cell, and right of the last column
+        for (Color[] line : horizontal) {
+            Arrays.setAll(line, i -> colors[random.nextInt(colors.length)]);
+        }
+        for (Color[] line : vertical) {
+            Arrays.setAll(line, i -> colors[random.nextInt(colors.length)]);
+        }
+
+        Map<BorderPosition, Color> borderColors = new HashMap<>();
+        for (int c = 0; c < columns; c++) {
+            borderColors.put(new BorderPosition(Direction.TOP, c), horizontal[0][c]);
+            borderColors.put(new BorderPosition(Direction.BOTTOM, c), horizontal[rows][c]);
+        }
+        for (int r = 0; r < rows; r++) {
+            borderColors.put(new BorderPosition(Direction.LEFT, r), vertical[r][0]);
+            borderColors.put(new BorderPosition(Direction.RIGHT, r), vertical[r][columns]);
+        }
+
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                Color[] pattern = {horizontal[r][c], vertical[r][c + 1], horizontal[r + 1][c], vertical[r][c]};
+                int turn = random.nextInt(Game.EDGE_COUNT);
+                Color[] rotated = new Color[Game.EDGE_COUNT];
+                for (int i = 0; i < Game.EDGE_COUNT; i++) {
+                    rotated[i] = pattern[(i + turn) % Game.EDGE_COUNT];
+                }
+                pieces.add(new MosaicPiece(rotated));
+            }
+        }
+        Collections.shuffle(pieces, random);
+
+        String name = rows + "x" + columns + " large #" + seed;
+        return new BenchmarkBoard(name, new Field(rows, columns, borderColors, new HashSet<>()), pieces, borderColors);
+    }
+
+    private static List<MosaicPiece> loadAllPieces() {
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (String pattern : TileLoader.loadTilePatterns()) {
+            pieces.add(new MosaicPiece(pattern));
+        }
+        return pieces;
+    }
+}
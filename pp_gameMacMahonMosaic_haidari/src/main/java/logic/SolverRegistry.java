@@ -0,0 +1,198 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Finds all {@link PuzzleSolver} engines on the class path with {@link ServiceLoader} and
+ * creates them by name. The engine used by the game is chosen with the system property
+ * {@value #ENGINE_PROPERTY}, e.g. {@code -Dmosaic.solver=dlx}; without it the
+ * {@link EngineSelector} ("auto") picks an engine per board.
+ * <p>
+ * The registry can also run every engine on the same puzzle to compare their times
+ * and to cross-check their answers.
+ */
+public class SolverRegistry {
+    public static final String ENGINE_PROPERTY = "mosaic.solver";
+    public static final String DEFAULT_ENGINE = "auto";
+
+    private final Map<String, ServiceLoader.Provider<PuzzleSolver>> providers = new LinkedHashMap<>();
+
+    /**
+     * The result of one engine in {@link #compareAll}.
+     *
+     * @param engine   The name of the engine.
+     * @param nanos    The time the engine needed.
+     * @param solution The solution found, or null if the engine reported the puzzle as unsolvable or failed.
+     * @param failure  The exception the engine threw, or null.
+     */
+    public record EngineRun(String engine, long nanos, Field solution, RuntimeException failure) {
+        public boolean isSolved() {
+            return solution != null;
+        }
+    }
+
+    /** Discovers the engines registered in {@code META-INF/services/logic.PuzzleSolver}. */
+    public SolverRegistry() {
+        for (ServiceLoader.Provider<PuzzleSolver> provider : ServiceLoader.load(PuzzleSolver.class).stream().toList()) {
+            String name = provider.get().getName();
+            if (providers.putIfAbsent(name, provider) != null) {
+                System.err.println("SolverRegistry Error: Engine name registered twice: " + name);
+            }
+        }
+    }
+
+    /** @return The registry shared by the whole application. */
+    public static SolverRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static class DefaultHolder {
+        static final SolverRegistry INSTANCE = new SolverRegistry();
+    }
+
+    /** @return The names of all registered engines, in registration order. */
+    public Set<String> getEngineNames() {
+        return providers.keySet();
+    }
+
+    public boolean contains(String name) {
+        return providers.containsKey(name);
+    }
+
+    /**
+     * Creates a new instance of an engine.
+     *
+     * @param name The name of the engine.
+     * @return The new engine.
+     * @throws IllegalArgumentException if no engine with this name is registered.
+     */
+    public PuzzleSolver create(String name) {
+        ServiceLoader.Provider<PuzzleSolver> provider = providers.get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown solver engine: " + name + ", known: " + getEngineNames());
+        }
+        return provider.get();
+    }
+
+    /**
+     * Creates the engine chosen by the system property {@value #ENGINE_PROPERTY}.
+     * An unknown name is reported and replaced by {@value #DEFAULT_ENGINE}.
+     *
+     * @return The configured engine.
+     */
+    public PuzzleSolver createConfigured() {
+        String name = System.getProperty(ENGINE_PROPERTY, DEFAULT_ENGINE);
+        if (!contains(name)) {
+            System.err.println("SolverRegistry Error: Unknown solver engine '" + name + "', using " + DEFAULT_ENGINE);
+            name = DEFAULT_ENGINE;
+        }
+        return create(name);
+    }
+
+    /** @return A factory for every registered engine, by name. */
+    public Map<String, Supplier<PuzzleSolver>> getEngines() {
+        Map<String, Supplier<PuzzleSolver>> engines = new LinkedHashMap<>();
+        for (Map.Entry<String, ServiceLoader.Provider<PuzzleSolver>> provider : providers.entrySet()) {
+            engines.put(provider.getKey(), provider.getValue()::get);
+        }
+        return engines;
+    }
+
+    /**
+     * Runs every registered engine on its own copy of the same puzzle.
+     *
+     * @param field           The field to solve. It is not modified.
+     * @param availablePieces The pieces still available. They are not modified.
+     * @param borderColors    The border colors.
+     * @return One result per engine, in registration order.
+     */
+    public List<EngineRun> compareAll(Field field, List<MosaicPiece> availablePieces,
+                                      Map<BorderPosition, Color> borderColors) {
+        List<EngineRun> runs = new ArrayList<>();
+        for (String name : getEngineNames()) {
+            List<MosaicPiece> piecesCopy = new ArrayList<>();
+            for (MosaicPiece piece : availablePieces) {
+                piecesCopy.add(new MosaicPiece(piece.getColorPattern()));
+            }
+            PuzzleSolver engine = create(name);
+            long start = System.nanoTime();
+            try {
+                Field solution = engine.findSolution(field.deepCopy(), piecesCopy, borderColors);
+                runs.add(new EngineRun(name, System.nanoTime() - start, solution, null));
+            } catch (RuntimeException e) {
+                runs.add(new EngineRun(name, System.nanoTime() - start, null, e));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Cross-checks the results of {@link #compareAll}: every engine has to finish, all engines
+     * have to agree on whether the puzzle is solvable, and every solution has to be valid.
+     *
+     * @return A description of every problem found; empty if the engines agree.
+     */
+    public static List<String> crossCheck(List<EngineRun> runs, Field field, List<MosaicPiece> availablePieces,
+                                          Map<BorderPosition, Color> borderColors) {
+        List<String> problems = new ArrayList<>();
+        Boolean solvable = null;
+        for (EngineRun run : runs) {
+            if (run.failure() != null) {
+                problems.add(run.engine() + " failed: " + run.failure());
+                continue;
+            }
+            if (solvable == null) {
+                solvable = run.isSolved();
+            } else if (solvable != run.isSolved()) {
+                problems.add(run.engine() + " disagrees on solvability: " + (run.isSolved() ? "solved" : "unsolvable"));
+            }
+            if (run.isSolved() && !isValidSolution(run.solution(), field, availablePieces, borderColors)) {
+                problems.add(run.engine() + " returned an invalid solution");
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Checks that a solution keeps the pieces already on the board, fills every other cell with one of
+     * the available pieces (each at most once) and matches all neighbors and borders.
+     */
+    static boolean isValidSolution(Field solution, Field field, List<MosaicPiece> availablePieces,
+                                   Map<BorderPosition, Color> borderColors) {
+        if (solution.getRows() != field.getRows() || solution.getColumns() != field.getColumns()) {
+            return false;
+        }
+        Map<String, Integer> unusedPieces = new HashMap<>();
+        for (MosaicPiece piece : availablePieces) {
+            unusedPieces.merge(Arrays.toString(piece.getColorPattern()), 1, Integer::sum);
+        }
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (field.isCellHole(r, c)) {
+                    continue;
+                }
+                MosaicPiece piece = solution.getPieceAt(r, c);
+                if (piece == null || !Solver.checkPlacementValidity(piece, r, c, solution, borderColors)) {
+                    return false;
+                }
+                MosaicPiece original = field.getPieceAt(r, c);
+                if (original != null) {
+                    if (!Arrays.equals(original.getColorPattern(), piece.getColorPattern())) {
+                        return false;
+                    }
+                } else if (unusedPieces.merge(Arrays.toString(piece.getColorPattern()), -1, Integer::sum) < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package logic;
+
+/** Thrown when a solution space grows beyond the number of states that may be kept in memory. */
+public class TooManyStatesException extends IllegalArgumentException {
+    public TooManyStatesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package logic;
+
+/**
+ * Decides in which order the backtracking {@link Solver} tries the (piece, orientation)
+ * candidates of a cell.
+ */
+public enum ValueOrdering {
+    /** The order of the available-piece list, each piece in ascending orientation. */
+    LIST_ORDER,
+    /**
+     * The candidate that leaves the most options to the empty neighbor cells first ("least constraining value").
+     * Candidates that leave a neighbor without any option are skipped.
+     */
+    LEAST_CONSTRAINING,
+    /** Pieces whose edge colors are rare among the remaining pieces first. */
+    SCARCITY
+}
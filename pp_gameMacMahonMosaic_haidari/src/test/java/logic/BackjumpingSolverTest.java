@@ -0,0 +1,98 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BackjumpingSolverTest {
+
+    /**
+     * Creates a copy of a generated board with one border segment recolored,
+     * which usually makes the board unsolvable.
+     */
+    static SolverBenchmark.BenchmarkBoard withRecoloredBorder(SolverBenchmark.BenchmarkBoard board, int index) {
+        Map<BorderPosition, Color> borders = new HashMap<>(board.borderColors());
+        BorderPosition position = new BorderPosition(Direction.TOP, index);
+        Color current = borders.get(position);
+        borders.put(position, current == Color.RED ? Color.GREEN : Color.RED);
+        Field field = new Field(board.field().getRows(), board.field().getColumns(), borders, board.field().getHoles());
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                field.setPieceAt(r, c, board.field().getPieceAt(r, c));
+            }
+        }
+        return new SolverBenchmark.BenchmarkBoard(board.name() + " recolored", field, board.availablePieces(), borders);
+    }
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 0, 6, seed);
+            Field solution = new BackjumpingSolver().findSolution(board.field(), board.availablePieces(),
+                    board.borderColors());
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+        }
+    }
+
+    @Test
+    public void testFindSolution_AgreesWithDancingLinksOnModifiedBorders() {
+        for (long seed = 1; seed <= 6; seed++) {
+            SolverBenchmark.BenchmarkBoard board =
+                    withRecoloredBorder(TestBoards.generateBoard(3, 4, 0, 0, seed), (int) (seed % 4));
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            Field expected = new DancingLinksSolver().findSolution(copy.field(), copy.availablePieces(),
+                    copy.borderColors());
+            Field actual = new BackjumpingSolver().findSolution(board.field(), board.availablePieces(),
+                    board.borderColors());
+
+            assertEquals("Backjumping must not lose solutions.", expected != null, actual != null);
+            if (actual != null) {
+                DancingLinksSolverTest.assertValidSolution(actual, board.borderColors());
+            }
+        }
+    }
+
+    @Test
+    public void testFindSolution_ReusedInstanceAgreesWithDancingLinksOnDifferentBoards() {
+        BackjumpingSolver solver = new BackjumpingSolver();
+        for (long seed = 1; seed <= 100; seed++) {
+            SolverBenchmark.BenchmarkBoard generated = TestBoards.generateBoard(3 + (int) (seed % 2),
+                    4 + (int) (seed % 3), (int) (seed % 3), (int) (seed % 4), seed);
+            // Only boards without pre-placed pieces are recolored, so no piece contradicts its border
+            SolverBenchmark.BenchmarkBoard board = seed % 4 == 0
+                    ? withRecoloredBorder(generated, (int) (seed % 4)) : generated;
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            Field expected = new DancingLinksSolver().findSolution(copy.field(), copy.availablePieces(),
+                    copy.borderColors());
+            Field actual = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+            assertEquals("Seed " + seed, expected != null, actual != null);
+            if (actual != null) {
+                assertTrue(SolverRegistry.isValidSolution(actual, board.field(), board.availablePieces(),
+                        board.borderColors()));
+            }
+        }
+    }
+
+    @Test
+    public void testNogoodStore_DetectsViolationAndEvictsOldest() {
+        NogoodStore store = new NogoodStore(2, 3);
+        int orientedCount = 10;
+        int[] assignment = {4, 7, -1};
+
+        // Cell 0 with oriented 4 and cell 2 with oriented 1 cannot coexist.
+        assertTrue(store.add(new int[]{4, 2 * orientedCount + 1}));
+        assertNotNull(store.findViolated(2 * orientedCount + 1, assignment, orientedCount));
+        assertNull(store.findViolated(2 * orientedCount + 2, assignment, orientedCount));
+
+        assertFalse("Nogoods above the size limit are not stored.", store.add(new int[]{1, 11, 21, 22}));
+        store.add(new int[]{orientedCount + 7, 2 * orientedCount + 3});
+        store.add(new int[]{2 * orientedCount + 5});
+        assertEquals(2, store.size());
+        assertNull("The oldest nogood should have been evicted.",
+                store.findViolated(2 * orientedCount + 1, assignment, orientedCount));
+    }
+}
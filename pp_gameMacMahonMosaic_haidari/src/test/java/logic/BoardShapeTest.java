@@ -0,0 +1,50 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class BoardShapeTest {
+
+    @Test
+    public void testOf_SameShapeSharesTables() {
+        Field first = new Field(3, 4, new HashMap<>(), Set.of(new Position(1, 1)));
+        Field second = new Field(3, 4, new HashMap<>(), Set.of(new Position(1, 1)));
+        Field otherHoles = new Field(3, 4, new HashMap<>(), Set.of(new Position(1, 2)));
+
+        assertSame(BoardShape.of(first), BoardShape.of(second));
+        assertNotSame(BoardShape.of(first), BoardShape.of(otherHoles));
+    }
+
+    @Test
+    public void testNeighbors_BorderHoleAndInnerSides() {
+        BoardShape shape = BoardShape.of(new Field(3, 4, new HashMap<>(), Set.of(new Position(1, 1))));
+
+        int corner = shape.slot(0, 0, Direction.TOP.ordinal());
+        assertEquals(BoardShape.BORDER, shape.getNeighborRow(corner));
+        assertEquals(new BorderPosition(Direction.TOP, 0), shape.getBorderSlot(corner));
+        assertEquals(new BorderPosition(Direction.RIGHT, 2), shape.getBorderSlot(shape.slot(2, 3, Direction.RIGHT.ordinal())));
+        assertEquals(BoardShape.HOLE, shape.getNeighborRow(shape.slot(0, 1, Direction.BOTTOM.ordinal())));
+
+        int inner = shape.slot(2, 2, Direction.LEFT.ordinal());
+        assertEquals(2, shape.getNeighborRow(inner));
+        assertEquals(1, shape.getNeighborColumn(inner));
+        assertNull(shape.getBorderSlot(inner));
+    }
+
+    @Test
+    public void testResolveBorderColors_MissingSegmentsAreNone() {
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        borders.put(new BorderPosition(Direction.LEFT, 1), Color.GREEN);
+        BoardShape shape = BoardShape.of(new Field(2, 2, borders, Set.of()));
+
+        Color[] colors = shape.resolveBorderColors(borders);
+        assertEquals(Color.GREEN, colors[shape.slot(1, 0, Direction.LEFT.ordinal())]);
+        assertEquals(Color.NONE, colors[shape.slot(0, 0, Direction.LEFT.ordinal())]);
+        assertEquals(Color.NONE, colors[shape.slot(0, 0, Direction.RIGHT.ordinal())]);
+    }
+}
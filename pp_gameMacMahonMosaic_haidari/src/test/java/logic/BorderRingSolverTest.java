@@ -0,0 +1,72 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BorderRingSolverTest {
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, seed % 2 == 0 ? 1 : 0, 6, seed);
+            BorderRingSolver solver = new BorderRingSolver();
+            Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            assertTrue(solver.getCompletedRings() >= 1);
+        }
+    }
+
+    @Test
+    public void testCountSolutions_AgreesWithDancingLinks() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 4, 0, 3, seed);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            assertEquals(new DancingLinksSolver().countSolutions(copy.field(), copy.availablePieces(), copy.borderColors()),
+                    new BorderRingSolver().countSolutions(board.field(), board.availablePieces(), board.borderColors()));
+        }
+    }
+
+    @Test
+    public void testFindSolution_ImpossibleBorderIsRejectedWithoutSearch() {
+        // A 2x2 board with a red border needs a red corner pair on every piece, but only one piece has red edges.
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            for (Direction side : Direction.values()) {
+                borders.put(new BorderPosition(side, i), Color.RED);
+            }
+        }
+        Field field = new Field(2, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRR"), new MosaicPiece("RGGG"),
+                new MosaicPiece("GGGG"), new MosaicPiece("YYYY"));
+
+        BorderRingSolver solver = new BorderRingSolver();
+        assertNull(solver.findSolution(field, pieces, borders));
+        assertTrue(solver.isRejectedByPrecheck());
+        assertEquals(0, solver.getCompletedRings());
+    }
+
+    @Test
+    public void testFindSolution_RingCellsCannotShareOnePiece() {
+        // Every cell only fits the single red piece, which cannot be used four times.
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            for (Direction side : Direction.values()) {
+                borders.put(new BorderPosition(side, i), Color.RED);
+            }
+        }
+        Field field = new Field(2, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRR"), new MosaicPiece("GGGG"),
+                new MosaicPiece("GGGG"), new MosaicPiece("YYYY"));
+
+        BorderRingSolver solver = new BorderRingSolver();
+        assertNull(solver.findSolution(field, pieces, borders));
+        assertTrue(solver.isRejectedByPrecheck());
+    }
+}
@@ -0,0 +1,67 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CandidateFilterTest {
+
+    private static final Color[] CONSTRAINT_COLORS = {null, Color.RED, Color.GREEN, Color.YELLOW, Color.HOLE};
+
+    @Test
+    public void testMatchingPieces_AgreesWithScalarAndOrientationChecksForAllConstraints() {
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (String pattern : TileLoader.loadTilePatterns()) {
+            pieces.add(new MosaicPiece(pattern));
+        }
+        CandidateFilter filter = new CandidateFilter(pieces);
+
+        int combinations = (int) Math.pow(CONSTRAINT_COLORS.length, Game.EDGE_COUNT);
+        for (int combination = 0; combination < combinations; combination++) {
+            Map<Direction, Color> constraints = new EnumMap<>(Direction.class);
+            int rest = combination;
+            for (Direction dir : Direction.values()) {
+                Color color = CONSTRAINT_COLORS[rest % CONSTRAINT_COLORS.length];
+                rest /= CONSTRAINT_COLORS.length;
+                if (color != null) {
+                    constraints.put(dir, color);
+                }
+            }
+
+            long[] matching = filter.matchingPieces(constraints);
+            assertArrayEquals(constraints.toString(), filter.matchingPiecesScalar(constraints), matching);
+            for (MosaicPiece piece : pieces) {
+                assertEquals(constraints + " " + piece, meetsConstraints(piece, constraints),
+                        CandidateFilter.contains(matching, filter.indexOf(piece)));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOf_UnknownPieceIsMinusOne() {
+        MosaicPiece known = new MosaicPiece("RGYR");
+        CandidateFilter filter = new CandidateFilter(List.of(known));
+
+        assertEquals(0, filter.indexOf(known));
+        assertEquals(-1, filter.indexOf(new MosaicPiece("RGYR")));
+    }
+
+    private static boolean meetsConstraints(MosaicPiece piece, Map<Direction, Color> constraints) {
+        for (int orientation = 0; orientation < 360; orientation += 90) {
+            piece.setOrientation(orientation);
+            boolean matches = true;
+            for (Map.Entry<Direction, Color> entry : constraints.entrySet()) {
+                matches &= piece.getEdgeColor(entry.getKey()) == entry.getValue();
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DancingLinksSolverTest {
+
+    /**
+     * Verifies that every non-hole cell is filled and every placed piece matches its neighbors and borders.
+     */
+    static void assertValidSolution(Field solution, Map<BorderPosition, Color> borderColors) {
+        assertNotNull("A solution should have been found.", solution);
+        for (int r = 0; r < solution.getRows(); r++) {
+            for (int c = 0; c < solution.getColumns(); c++) {
+                if (solution.isCellHole(r, c)) {
+                    continue;
+                }
+                MosaicPiece piece = solution.getPieceAt(r, c);
+                assertNotNull("Cell (" + r + "," + c + ") should be filled.", piece);
+                assertTrue("Piece at (" + r + "," + c + ") should match its neighbors.",
+                        Solver.checkPlacementValidity(piece, r, c, solution, borderColors));
+            }
+        }
+    }
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 4, 0, 4, seed);
+            Field solution = new DancingLinksSolver().findSolution(board.field(), board.availablePieces(),
+                    board.borderColors());
+            assertValidSolution(solution, board.borderColors());
+        }
+    }
+
+    @Test
+    public void testCountSolutions_MatchesBacktracker() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 3, 1, 0, seed);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            long expected = new Solver().countSolutions(copy.field(), copy.availablePieces(), copy.borderColors());
+            long actual = new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                    board.borderColors());
+            assertTrue("A generated board has at least one solution.", expected > 0);
+            assertEquals("DLX and backtracking should count the same solutions.", expected, actual);
+        }
+    }
+
+    /** @return The solutions below counted placements, checking that every counted level adds up. */
+    private static long checkedTotal(DancingLinksSolver.PrefixCounts counts) {
+        if (counts.cell == CompiledPuzzle.NO_CELL) {
+            return 1;
+        }
+        long total = 0;
+        for (int p = 0; p < counts.counts.length; p++) {
+            if (counts.next[p] != null) {
+                assertEquals(counts.counts[p], checkedTotal(counts.next[p]));
+            }
+            total += counts.counts[p];
+        }
+        return total;
+    }
+
+    @Test
+    public void testCountByPrefix_LevelsAddUpToTheCount() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 1, 4, 2);
+        CompiledPuzzle compiled = CompiledPuzzle.compile(board.field(), board.availablePieces(), board.borderColors());
+        DancingLinksSolver solver = new DancingLinksSolver();
+        int[] assignment = new int[compiled.getCellCount()];
+        Arrays.fill(assignment, -1);
+
+        DancingLinksSolver.PrefixCounts root = solver.countByPrefix(compiled, assignment, 3);
+        long count = new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors());
+        assertEquals(count, checkedTotal(root));
+
+        // Counting again below a placement reuses the structure and agrees with the first count
+        int placement = 0;
+        while (root.counts[placement] == 0) {
+            placement++;
+        }
+        assignment[root.cell] = root.orientedPieces[placement];
+        assertEquals(root.counts[placement], checkedTotal(solver.countByPrefix(compiled, assignment, 2)));
+        assignment[root.cell] = -1;
+        assertEquals(count, checkedTotal(solver.countByPrefix(compiled, assignment, 1)));
+    }
+
+    @Test
+    public void testCountSolutions_SymmetricPieceCountsOnce() {
+        // A single cell without constraints: RRRR fits once, GRGR twice.
+        Field field = new Field(1, 1, new HashMap<>(), new HashSet<>());
+        List<MosaicPiece> pieces = new ArrayList<>(List.of(new MosaicPiece("RRRR"), new MosaicPiece("GRGR")));
+        assertEquals(3, new DancingLinksSolver().countSolutions(field, pieces, new HashMap<>()));
+        assertEquals(3, new Solver().countSolutions(field, pieces, new HashMap<>()));
+    }
+
+    @Test
+    public void testFindSolution_ConflictingBordersAreUnsolvable() {
+        // A 1x1 field that needs RED on top and GREEN at the bottom, but only monochrome pieces are available.
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        borders.put(new BorderPosition(Direction.TOP, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.BOTTOM, 0), Color.GREEN);
+        Field field = new Field(1, 1, borders, new HashSet<>());
+        List<MosaicPiece> pieces = new ArrayList<>(List.of(new MosaicPiece("RRRR"), new MosaicPiece("GGGG")));
+
+        assertNull(new DancingLinksSolver().findSolution(field, pieces, borders));
+        assertEquals(0, new DancingLinksSolver().countSolutions(field, pieces, borders));
+    }
+}
@@ -0,0 +1,130 @@
+package logic;
+
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class DistributedSolverTest {
+
+    /** Starts a worker on a thread of this JVM instead of a process. */
+    private static void startThreadWorker(int port, CountDownLatch startSignal) {
+        Thread worker = new Thread(() -> {
+            try {
+                startSignal.await();
+                SearchWorker.serve(port);
+            } catch (IOException e) {
+                // The coordinator ended the connection
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Starts a worker that takes the puzzle and one cube, and then drops the connection. */
+    private static void startCrashingWorker(int port, CountDownLatch crashed) {
+        Thread worker = new Thread(() -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                assertEquals(SearchWorker.PUZZLE, in.readByte());
+                in.readLong();
+                SearchWorker.readPuzzle(in);
+                assertEquals(SearchWorker.CUBE, in.readByte());
+                in.readInt();
+                in.readBoolean();
+                SearchWorker.readInts(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                crashed.countDown();
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Test
+    public void testCountSolutions_WorkerProcessesMatchDancingLinks() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        DistributedSolver solver = new DistributedSolver(3);
+
+        long count = solver.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors()), count);
+        assertTrue(solver.getCubeCount() >= 3 * 16);
+    }
+
+    @Test
+    public void testCountSolutions_FewSolutionsAreStillSearchedByWorkers() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(5, 5, 1, 7, 1);
+        IterativeSolver local = new IterativeSolver();
+        long expected = local.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+        CountDownLatch start = new CountDownLatch(0);
+        DistributedSolver solver = new DistributedSolver(2, port -> {
+            startThreadWorker(port, start);
+            return null;
+        });
+
+        long count = solver.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(expected, count);
+        assertTrue(expected < 2 * 16);
+        assertTrue(solver.getCubeCount() > 0);
+        // The final split and the cubes together try every placement exactly once
+        assertEquals(local.getNodeCount(), solver.getNodeCount());
+    }
+
+    @Test
+    public void testFindSolution_WorkerProcessesFindValidSolution() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 1, 5, 2);
+
+        Field solution = new DistributedSolver(2).findSolution(board.field(), board.availablePieces(),
+                board.borderColors());
+
+        assertTrue(SolverRegistry.isValidSolution(solution, board.field(), board.availablePieces(),
+                board.borderColors()));
+    }
+
+    @Test
+    public void testCountSolutions_CubeOfCrashedWorkerIsReassigned() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        CountDownLatch crashed = new CountDownLatch(1);
+        int[] launched = {0};
+        // The second worker only starts after the first one dropped its cube
+        DistributedSolver solver = new DistributedSolver(2, port -> {
+            if (launched[0]++ == 0) {
+                startCrashingWorker(port, crashed);
+            } else {
+                startThreadWorker(port, crashed);
+            }
+            return null;
+        });
+
+        long count = solver.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors()), count);
+        assertEquals(1, solver.getReassignedCubes());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCountSolutions_FailsWhenNoWorkerIsLeft() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        DistributedSolver solver = new DistributedSolver(1, port -> {
+            startCrashingWorker(port, new CountDownLatch(1));
+            return null;
+        });
+
+        solver.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+    }
+}
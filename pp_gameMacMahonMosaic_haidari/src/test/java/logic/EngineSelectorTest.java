@@ -0,0 +1,55 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EngineSelectorTest {
+
+    @Test
+    public void testBoardProfile_CountsBoardFeatures() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 2, 7, 1);
+
+        BoardProfile profile = BoardProfile.of(board.field(), board.borderColors());
+
+        assertEquals(4, profile.rows());
+        assertEquals(5, profile.columns());
+        assertEquals(2, profile.holes());
+        assertEquals(20 - 2 - 7, profile.freeCells());
+        assertEquals(7, profile.prePlaced());
+        assertTrue(profile.fixedBorders() <= profile.borderSegments());
+    }
+
+    @Test
+    public void testSelectEngine_FirstMatchingRuleWins() {
+        EngineSelector.SelectionTable table = new EngineSelector.SelectionTable("dlx", List.of(
+                new EngineSelector.Rule(6, null, 0, null, null, null, null, "backtracking"),
+                new EngineSelector.Rule(6, 1, null, null, null, null, null, "backjumping"),
+                new EngineSelector.Rule(12, null, null, 1, null, null, null, "restarts"),
+                new EngineSelector.Rule(12, null, null, null, null, 1, null, "unknown"),
+                new EngineSelector.Rule(12, null, null, null, null, null, 0, "backjumping")));
+        EngineSelector selector = new EngineSelector(table);
+
+        assertEquals("backtracking", selector.selectEngine(new BoardProfile(3, 4, 0, 5, 14, 7)));
+        assertEquals("backjumping", selector.selectEngine(new BoardProfile(3, 4, 1, 5, 14, 6)));
+        assertEquals("restarts", selector.selectEngine(new BoardProfile(4, 4, 0, 10, 12, 6)));
+        assertEquals("Unknown engines fall back to the default.",
+                "dlx", selector.selectEngine(new BoardProfile(4, 4, 0, 10, 16, 6)));
+        assertEquals("backjumping", selector.selectEngine(new BoardProfile(2, 5, 0, 10, 14, 0)));
+        assertEquals("dlx", selector.selectEngine(new BoardProfile(4, 6, 0, 20, 20, 4)));
+    }
+
+    @Test
+    public void testFindSolution_ShippedTableDispatchesToKnownEngine() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 2);
+        EngineSelector selector = new EngineSelector();
+
+        Field solution = selector.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+        DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+        assertTrue(SolverRegistry.getDefault().contains(selector.getLastEngine()));
+        assertNotEquals(selector.getName(), selector.getLastEngine());
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -153,4 +156,56 @@ public class GameSolvabilityTest {
                 game.isPuzzleSolvable());
     }
 
+    @Test
+    public void testCheckSolvability_FailedPrecheckKeepsItsMessage() {
+        List<String> messages = new ArrayList<>();
+        GUIConnector recordingGui = new FakeGUI() {
+            @Override
+            public void showStatusMessage(String key, Object... args) {
+                messages.add(key);
+            }
+        };
+        // Both cells have a fitting piece, but the yellow edge of one cannot meet the green edge of the other
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        borders.put(new BorderPosition(Direction.LEFT, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.RIGHT, 0), Color.GREEN);
+        borders.put(new BorderPosition(Direction.TOP, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.BOTTOM, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.TOP, 1), Color.GREEN);
+        borders.put(new BorderPosition(Direction.BOTTOM, 1), Color.GREEN);
+        Field field = new Field(1, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = new ArrayList<>(List.of(new MosaicPiece("RRRY"), new MosaicPiece("GGGG")));
+        Game precheckedGame = new Game(recordingGui, field, pieces, new ArrayList<>(pieces), borders);
+
+        assertEquals(Game.Solvability.REPORTED, precheckedGame.checkSolvability());
+        assertEquals(List.of(SolvabilityPrecheck.Check.COLOR_PARITY.getMessageKey()), messages);
+    }
+
+    @Test
+    public void testPrepareClosestPlacementSearch_SearchesTheBoardAsItWasPrepared() throws Exception {
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        borders.put(new BorderPosition(Direction.LEFT, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.RIGHT, 0), Color.GREEN);
+        borders.put(new BorderPosition(Direction.TOP, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.BOTTOM, 0), Color.RED);
+        borders.put(new BorderPosition(Direction.TOP, 1), Color.GREEN);
+        borders.put(new BorderPosition(Direction.BOTTOM, 1), Color.GREEN);
+        Field field = new Field(1, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = new ArrayList<>(List.of(new MosaicPiece("RRRR"), new MosaicPiece("GGGG")));
+        Game editedGame = new Game(new FakeGUI(), field, pieces, new ArrayList<>(pieces), borders);
+
+        Callable<MismatchOptimizer.Result> search = editedGame.prepareClosestPlacementSearch();
+        field.setPieceAt(0, 0, new MosaicPiece("GGGG")); // An edit while the search waits for its thread
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MismatchOptimizer.Result closest;
+        try {
+            closest = executor.submit(search).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Only the edge between the two cells mismatches, as on the board before the edit
+        assertEquals(1, closest.mismatches());
+        assertTrue(closest.optimal());
+    }
 }
@@ -0,0 +1,156 @@
+package logic;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+public class IterativeSolverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Counts with a checkpoint, interrupting every run at its first interrupt check, so each
+     * run only gets a little further before it is saved and resumed by a fresh solver.
+     *
+     * @return The count and the number of runs it took.
+     */
+    private static long[] countWithInterrupts(SolverBenchmark.BenchmarkBoard board, Path checkpoint) throws IOException {
+        for (long runs = 1; ; runs++) {
+            Thread.currentThread().interrupt();
+            try {
+                long count = new IterativeSolver().countSolutions(board.field(), board.availablePieces(),
+                        board.borderColors(), checkpoint, 60_000);
+                Thread.interrupted();
+                return new long[]{count, runs};
+            } catch (CancellationException e) {
+                Thread.interrupted();
+                assertTrue(Files.exists(checkpoint));
+            }
+        }
+    }
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 1, 5, seed);
+            Field solution = new IterativeSolver().findSolution(board.field(), board.availablePieces(),
+                    board.borderColors());
+            assertTrue(SolverRegistry.isValidSolution(solution, board.field(), board.availablePieces(),
+                    board.borderColors()));
+        }
+    }
+
+    @Test
+    public void testCountSolutions_MatchesDancingLinks() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        assertEquals(new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(), board.borderColors()),
+                new IterativeSolver().countSolutions(board.field(), board.availablePieces(), board.borderColors()));
+    }
+
+    @Test
+    public void testFindSolution_RecoloredBorderAgreesWithDancingLinks() {
+        SolverBenchmark.BenchmarkBoard board = BackjumpingSolverTest.withRecoloredBorder(
+                TestBoards.generateBoard(4, 5, 0, 6, 2), 1);
+        Field expected = new DancingLinksSolver().findSolution(board.field(), board.availablePieces(),
+                board.borderColors());
+        Field solution = new IterativeSolver().findSolution(board.field(), board.availablePieces(),
+                board.borderColors());
+
+        assertEquals(expected != null, solution != null);
+    }
+
+    @Test
+    public void testFindSolution_DeepBoardNeedsNoCallStack() {
+        int size = 60; // 3600 decision levels
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            for (Direction side : Direction.values()) {
+                borders.put(new BorderPosition(side, i), Color.RED);
+            }
+        }
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (int i = 0; i < size * size; i++) {
+            pieces.add(new MosaicPiece("RRRR"));
+        }
+        Field field = new Field(size, size, borders, new HashSet<>());
+
+        IterativeSolver solver = new IterativeSolver();
+        Field solution = solver.findSolution(field, pieces, borders);
+
+        assertTrue(SolverRegistry.isValidSolution(solution, field, pieces, borders));
+        assertEquals(size * size, solver.getNodeCount());
+    }
+
+    @Test
+    public void testSplitIntoCubes_CubeCountsAddUpToTheWholeCount() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        CompiledPuzzle compiled = CompiledPuzzle.compile(board.field(), board.availablePieces(), board.borderColors());
+        IterativeSolver solver = new IterativeSolver();
+
+        List<int[]> cubes = solver.splitIntoCubes(compiled, 3);
+        long sum = 0;
+        for (int[] cube : cubes) {
+            assertEquals(3, cube.length);
+            sum += solver.searchCube(compiled, cube, true);
+        }
+
+        assertTrue(cubes.size() > 1);
+        assertEquals(solver.countSolutions(board.field(), board.availablePieces(), board.borderColors()), sum);
+    }
+
+    @Test
+    public void testCountSolutions_ResumedCountReachesSameResult() throws IOException {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 4, 2);
+        Path checkpoint = folder.getRoot().toPath().resolve("count.checkpoint");
+
+        long[] result = countWithInterrupts(board, checkpoint);
+
+        assertEquals(new IterativeSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors()), result[0]);
+        assertTrue("Only " + result[1] + " runs", result[1] > 10);
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testFindSolution_IntervalCheckpointIsDeletedAtTheEnd() throws IOException {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 4, 2);
+        Path checkpoint = folder.getRoot().toPath().resolve("find.checkpoint");
+
+        Field solution = new IterativeSolver().findSolution(board.field(), board.availablePieces(),
+                board.borderColors(), checkpoint, 0);
+
+        assertTrue(SolverRegistry.isValidSolution(solution, board.field(), board.availablePieces(),
+                board.borderColors()));
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountSolutions_CheckpointOfAnotherPuzzleIsRejected() throws IOException {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 4, 2);
+        Path checkpoint = folder.getRoot().toPath().resolve("other.checkpoint");
+        Thread.currentThread().interrupt();
+        try {
+            new IterativeSolver().countSolutions(board.field(), board.availablePieces(), board.borderColors(),
+                    checkpoint, 60_000);
+        } catch (CancellationException e) {
+            Thread.interrupted();
+        }
+
+        SolverBenchmark.BenchmarkBoard other = TestBoards.generateBoard(4, 6, 0, 4, 1);
+        new IterativeSolver().countSolutions(other.field(), other.availablePieces(), other.borderColors(),
+                checkpoint, 60_000);
+    }
+}
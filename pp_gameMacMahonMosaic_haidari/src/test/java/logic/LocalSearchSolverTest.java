@@ -0,0 +1,56 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LocalSearchSolverTest {
+
+    @Test
+    public void testSearch_SolvesShippedTileBoard() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 0, 3);
+        LocalSearchSolver.Result result = new LocalSearchSolver(10_000)
+                .search(board.field(), board.availablePieces(), board.borderColors());
+
+        assertTrue(result.isSolved());
+        assertTrue(SolverRegistry.isValidSolution(result.field(), board.field(), board.availablePieces(),
+                board.borderColors()));
+    }
+
+    @Test
+    public void testSearch_SolvesLargeGeneratedBoard() {
+        SolverBenchmark.BenchmarkBoard board = SolverBenchmark.generateLargeBoard(12, 12, 1);
+        LocalSearchSolver.Result result = new LocalSearchSolver(10_000)
+                .search(board.field(), board.availablePieces(), board.borderColors());
+
+        assertTrue(result.isSolved());
+        assertTrue(SolverRegistry.isValidSolution(result.field(), board.field(), board.availablePieces(),
+                board.borderColors()));
+    }
+
+    @Test
+    public void testSearch_ReportsBestPlacementOfUnsolvableBoard() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.unmatchedGreenEdge();
+
+        LocalSearchSolver.Result result = new LocalSearchSolver(50)
+                .search(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(1, result.mismatches()); // The green edge faces a red one at best
+        for (int r = 0; r < 2; r++) {
+            for (int c = 0; c < 2; c++) {
+                assertNotNull(result.field().getPieceAt(r, c));
+            }
+        }
+        assertNull(board.field().getPieceAt(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearch_TooFewPiecesIsRejected() {
+        Field field = new Field(2, 2, new HashMap<>(), new HashSet<>());
+        new LocalSearchSolver(50).search(field, List.of(new MosaicPiece("RRRR")), new HashMap<>());
+    }
+}
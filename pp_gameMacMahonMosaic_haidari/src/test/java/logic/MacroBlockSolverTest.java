@@ -0,0 +1,84 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MacroBlockSolverTest {
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 4; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, (int) (seed % 2), 5, seed);
+            MacroBlockSolver solver = new MacroBlockSolver();
+            Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            assertFalse(solver.isFallbackUsed());
+        }
+    }
+
+    @Test
+    public void testCountSolutions_AgreesWithDancingLinks() {
+        int[][] shapes = {{3, 4}, {4, 4}, {5, 3}};
+        for (int[] shape : shapes) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(shape[0], shape[1], 0, 4, shape[1]);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            assertEquals(new DancingLinksSolver().countSolutions(copy.field(), copy.availablePieces(), copy.borderColors()),
+                    new MacroBlockSolver().countSolutions(board.field(), board.availablePieces(), board.borderColors()));
+        }
+    }
+
+    @Test
+    public void testFindSolution_BlocksCoverSquaresAndSinglesTheRest() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 5, 0, 0, 1);
+        MacroBlockSolver solver = new MacroBlockSolver();
+        Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+        DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+        assertEquals(2, solver.getBlockUnits()); // Rows 0-1, columns 0-3; the rest are single pieces
+    }
+
+    @Test
+    public void testFindSolution_PiecesOutsideShippedTilesGetTheirOwnIndex() {
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            for (Direction side : Direction.values()) {
+                borders.put(new BorderPosition(side, i), Color.RED);
+            }
+        }
+        Field field = new Field(2, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRR"), new MosaicPiece("RRRR"),
+                new MosaicPiece("RRRR"), new MosaicPiece("RRRR"));
+
+        MacroBlockSolver solver = new MacroBlockSolver();
+        DancingLinksSolverTest.assertValidSolution(solver.findSolution(field, pieces, borders), borders);
+        assertEquals(24, solver.countSolutions(field, pieces, borders));
+        assertEquals(1, solver.getBlockUnits());
+    }
+
+    @Test
+    public void testLookup_IndexKeepsOnlyRecentGroupings() {
+        MacroBlockIndex index = MacroBlockIndex.forCatalog(List.of(new MosaicPiece("RRRG"), new MosaicPiece("RRRR"),
+                new MosaicPiece("RRRR"), new MosaicPiece("RGRG"), new MosaicPiece("RRRR")));
+        int[] red = new int[MacroBlockIndex.OUTER_EDGES.length];
+        Arrays.fill(red, Color.RED.ordinal());
+        int allBlocks = index.lookup(0, red).length;
+        int allRed = index.lookup(0b1111_1111, red).length;
+
+        for (int edges = 1; edges < 1 << MacroBlockIndex.OUTER_EDGES.length; edges++) {
+            index.lookup(edges, red);
+            assertTrue(index.getGroupingCount() <= 8);
+        }
+        assertEquals(index.getBlockCount(), allBlocks);
+        // Evicted and grouped again, with the same result
+        assertEquals(allBlocks, index.lookup(0, red).length);
+        assertEquals(allRed, index.lookup(0b1111_1111, red).length);
+    }
+}
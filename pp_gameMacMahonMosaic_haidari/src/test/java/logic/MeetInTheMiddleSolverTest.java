@@ -0,0 +1,70 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MeetInTheMiddleSolverTest {
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, seed % 2 == 0 ? 1 : 0, 6, seed);
+            MeetInTheMiddleSolver solver = new MeetInTheMiddleSolver();
+            Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            assertFalse(solver.isFallbackUsed());
+            assertTrue(solver.getStoredFillings() > 0);
+        }
+    }
+
+    @Test
+    public void testCountSolutions_AgreesWithDancingLinks() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 4, seed == 2 ? 1 : 0, 3, seed);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            assertEquals(new DancingLinksSolver().countSolutions(copy.field(), copy.availablePieces(), copy.borderColors()),
+                    new MeetInTheMiddleSolver().countSolutions(board.field(), board.availablePieces(), board.borderColors()));
+        }
+    }
+
+    @Test
+    public void testFindSolution_WideBoundaryIsHandedToDancingLinks() {
+        int columns = MeetInTheMiddleSolver.MAX_BOUNDARY_EDGES + 3;
+        SolverBenchmark.BenchmarkBoard board = SolverBenchmark.generateLargeBoard(2, columns, 3);
+        MeetInTheMiddleSolver solver = new MeetInTheMiddleSolver();
+
+        Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+        assertTrue(solver.isFallbackUsed());
+        assertEquals(0, solver.getStoredFillings()); // Decided from the boundary, before any enumeration
+        assertTrue(SolverRegistry.isValidSolution(solution, board.field(), board.availablePieces(),
+                board.borderColors()));
+    }
+
+    @Test
+    public void testFindSolution_HalvesWithoutCommonBoundary() {
+        // Each row on its own can be filled, but the top row only shows red and the bottom row only green.
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            borders.put(new BorderPosition(Direction.TOP, i), Color.RED);
+            borders.put(new BorderPosition(Direction.BOTTOM, i), Color.GREEN);
+            borders.put(new BorderPosition(Direction.LEFT, i), i == 0 ? Color.RED : Color.GREEN);
+            borders.put(new BorderPosition(Direction.RIGHT, i), i == 0 ? Color.RED : Color.GREEN);
+        }
+        Field field = new Field(2, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRR"), new MosaicPiece("RRRR"),
+                new MosaicPiece("GGGG"), new MosaicPiece("GGGG"));
+
+        MeetInTheMiddleSolver solver = new MeetInTheMiddleSolver();
+        assertNull(solver.findSolution(field, pieces, borders));
+        assertFalse(solver.isFallbackUsed());
+        assertEquals(2, solver.getStoredFillings()); // Both red pieces in either order
+    }
+}
@@ -0,0 +1,58 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MismatchOptimizerTest {
+
+    @Test
+    public void testOptimize_SingleMismatchIsProvenOptimal() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.unmatchedGreenEdge();
+
+        MismatchOptimizer.Result result = new MismatchOptimizer()
+                .optimize(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(1, result.mismatches());
+        assertTrue(result.optimal());
+        for (int r = 0; r < 2; r++) {
+            for (int c = 0; c < 2; c++) {
+                assertNotNull(result.field().getPieceAt(r, c));
+            }
+        }
+        assertNull(board.field().getPieceAt(0, 0));
+    }
+
+    @Test
+    public void testOptimize_TwoGreenEdgesCannotBothBeMatched() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.redBorderBoard("RRRR", "RRRR", "RRRR", "RRGG");
+
+        MismatchOptimizer.Result result = new MismatchOptimizer()
+                .optimize(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(2, result.mismatches());
+        assertTrue(result.optimal());
+    }
+
+    @Test
+    public void testOptimize_SolvableBoardHasNoMismatches() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 1, 4, 2);
+        MismatchOptimizer.Result result = new MismatchOptimizer()
+                .optimize(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(0, result.mismatches());
+        assertTrue(result.optimal());
+        assertTrue(SolverRegistry.isValidSolution(result.field(), board.field(), board.availablePieces(),
+                board.borderColors()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOptimize_TooFewPiecesIsRejected() {
+        Field field = new Field(2, 2, new HashMap<>(), new HashSet<>());
+        new MismatchOptimizer().optimize(field, List.of(new MosaicPiece("RRRR")), new HashMap<>());
+    }
+}
@@ -0,0 +1,48 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MosaicPieceTest {
+
+    @Test
+    public void testDistinctOrientations_SymmetricPatterns() {
+        assertEquals(1, new MosaicPiece("RRRR").getDistinctOrientationCount());
+        assertEquals(2, new MosaicPiece("GRGR").getDistinctOrientationCount());
+        assertEquals(4, new MosaicPiece("GGRR").getDistinctOrientationCount());
+        assertEquals(4, new MosaicPiece("RGYR").getDistinctOrientationCount());
+    }
+
+    @Test
+    public void testDistinctOrientations_LoadedTileSet() {
+        // --- Setup ---
+        List<String> patterns = TileLoader.loadTilePatterns();
+        assertFalse("The tile set should be loaded from tiles.json.", patterns.isEmpty());
+
+        int[] piecesPerCount = new int[5];
+        for (String pattern : patterns) {
+            piecesPerCount[new MosaicPiece(pattern).getDistinctOrientationCount()]++;
+        }
+
+        // --- Assertion ---
+        // RRRR, GGGG and YYYY have one orientation; GRGR, YRYR and YGYG have two.
+        assertEquals(3, piecesPerCount[1]);
+        assertEquals(3, piecesPerCount[2]);
+        assertEquals(patterns.size() - 6, piecesPerCount[4]);
+    }
+
+    @Test
+    public void testDistinctOrientations_RepeatedRotationsLookTheSame() {
+        MosaicPiece piece = new MosaicPiece("YRYR");
+        piece.setOrientation(180);
+        MosaicPiece reference = new MosaicPiece("YRYR");
+        for (Direction dir : Direction.values()) {
+            assertEquals("A half turn of a half-turn symmetric piece should not change its edges.",
+                    reference.getEdgeColor(dir), piece.getEdgeColor(dir));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class PortfolioSolverTest {
+
+    @Test
+    public void testFindSolution_DefaultPortfolioReportsWinner() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 0, 6, 3);
+        PortfolioSolver portfolio = new PortfolioSolver();
+
+        Field solution = portfolio.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+        DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+        assertTrue("The winner should be one of the default strategies.",
+                PortfolioSolver.defaultStrategies().containsKey(portfolio.getLastWinner()));
+    }
+
+    @Test
+    public void testFindSolution_LosingStrategyIsCancelled() throws InterruptedException {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowCancelled = new CountDownLatch(1);
+        PuzzleSolver slow = new PuzzleSolver() {
+            @Override
+            public Field findSolution(Field field, List<MosaicPiece> pieces, Map<BorderPosition, Color> borders) {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    slowCancelled.countDown();
+                }
+                return null;
+            }
+        };
+        PuzzleSolver fast = new PuzzleSolver() {
+            @Override
+            public Field findSolution(Field field, List<MosaicPiece> pieces, Map<BorderPosition, Color> borders) {
+                try {
+                    slowStarted.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new DancingLinksSolver().findSolution(field, pieces, borders);
+            }
+        };
+        Map<String, Supplier<PuzzleSolver>> strategies = new LinkedHashMap<>();
+        strategies.put("slow", () -> slow);
+        strategies.put("fast", () -> fast);
+        PortfolioSolver portfolio = new PortfolioSolver(strategies);
+
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 3, 0, 0, 1);
+        Field solution = portfolio.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+        DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+        assertEquals("fast", portfolio.getLastWinner());
+        assertTrue("The losing strategy should have been interrupted.", slowCancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFindSolution_UnsolvableAnswerIsReturned() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 3, 0, 0, 1);
+        Map<String, Supplier<PuzzleSolver>> strategies = new LinkedHashMap<>();
+        strategies.put("unsolvable", () -> (field, pieces, borders) -> null);
+        PortfolioSolver portfolio = new PortfolioSolver(strategies);
+
+        assertNull(portfolio.findSolution(board.field(), board.availablePieces(), board.borderColors()));
+        assertEquals("unsolvable", portfolio.getLastWinner());
+    }
+}
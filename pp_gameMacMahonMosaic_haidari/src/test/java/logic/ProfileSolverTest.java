@@ -0,0 +1,83 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ProfileSolverTest {
+
+    @Test
+    public void testFindSolution_NarrowBoardsAreSolved() {
+        int[][] shapes = {{3, 6}, {4, 5}, {6, 3}};
+        for (int[] shape : shapes) {
+            for (long seed = 1; seed <= 3; seed++) {
+                SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(shape[0], shape[1], (int) (seed % 2), 4, seed);
+                ProfileSolver solver = new ProfileSolver();
+                Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+                DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+                assertFalse(solver.isFallbackUsed());
+            }
+        }
+    }
+
+    @Test
+    public void testCountSolutions_AgreesWithDancingLinks() {
+        int[][] shapes = {{3, 4}, {3, 5}, {5, 3}};
+        for (int[] shape : shapes) {
+            for (long seed = 1; seed <= 2; seed++) {
+                SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(shape[0], shape[1], (int) (seed - 1), 4, seed);
+                SolverBenchmark.BenchmarkBoard copy = board.copy();
+                ProfileSolver solver = new ProfileSolver();
+                assertEquals(new DancingLinksSolver().countSolutions(copy.field(), copy.availablePieces(), copy.borderColors()),
+                        solver.countSolutions(board.field(), board.availablePieces(), board.borderColors()));
+                assertTrue(solver.getLargestLayer() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testFindSolution_UnsolvableBoardReturnsNull() {
+        // The top row only fits the red pieces and the bottom row only the green ones, but they meet in the middle.
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            borders.put(new BorderPosition(Direction.TOP, i), Color.RED);
+            borders.put(new BorderPosition(Direction.BOTTOM, i), Color.GREEN);
+            borders.put(new BorderPosition(Direction.LEFT, i), i == 0 ? Color.RED : Color.GREEN);
+            borders.put(new BorderPosition(Direction.RIGHT, i), i == 0 ? Color.RED : Color.GREEN);
+        }
+        Field field = new Field(2, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRR"), new MosaicPiece("RRRR"),
+                new MosaicPiece("GGGG"), new MosaicPiece("GGGG"));
+
+        ProfileSolver solver = new ProfileSolver();
+        assertNull(solver.findSolution(field, pieces, borders));
+        assertEquals(0, solver.countSolutions(field, pieces, borders));
+        assertFalse(solver.isFallbackUsed());
+    }
+
+    @Test
+    public void testLongLongHashMap_GrowsAndReusesCapacity() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 0; key < 1000; key++) {
+            map.addTo(key << 20, 1);
+            map.addTo(key << 20, key);
+        }
+        assertEquals(1000, map.size());
+        assertEquals(501, map.get(500L << 20));
+        assertFalse(map.containsKey(1));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.get(500L << 20));
+        map.put(7, 3);
+        long[] sum = new long[1];
+        map.forEach((key, value) -> sum[0] += key * value);
+        assertEquals(21, sum[0]);
+    }
+}
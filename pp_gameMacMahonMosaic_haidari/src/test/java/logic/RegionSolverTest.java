@@ -0,0 +1,89 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RegionSolverTest {
+
+    /** A board whose middle column is a wall of holes, with borders taken from a tiling. */
+    private static SolverBenchmark.BenchmarkBoard walledBoard(int rows, int columns, long seed) {
+        Set<Position> holes = new HashSet<>();
+        for (int r = 0; r < rows; r++) {
+            holes.add(new Position(r, columns / 2));
+        }
+        List<MosaicPiece> pieces = TestBoards.generateBoard(rows, columns, 0, 0, seed).availablePieces();
+        Field tiling = new DancingLinksSolver().findSolution(new Field(rows, columns, new HashMap<>(), holes),
+                new ArrayList<>(pieces), new HashMap<>());
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (Direction side : Direction.values()) {
+            boolean horizontal = side == Direction.TOP || side == Direction.BOTTOM;
+            for (int i = 0; i < (horizontal ? columns : rows); i++) {
+                int row = horizontal ? (side == Direction.TOP ? 0 : rows - 1) : i;
+                int column = horizontal ? i : (side == Direction.LEFT ? 0 : columns - 1);
+                MosaicPiece piece = tiling.getPieceAt(row, column);
+                borders.put(new BorderPosition(side, i), piece != null ? piece.getEdgeColor(side) : Color.NONE);
+            }
+        }
+        return new SolverBenchmark.BenchmarkBoard("walled", new Field(rows, columns, borders, holes), pieces, borders);
+    }
+
+    @Test
+    public void testFindRegions_WallOfHolesSplitsBoard() {
+        SolverBenchmark.BenchmarkBoard board = walledBoard(3, 5, 1);
+        List<int[]> regions = RegionSolver.findRegions(
+                CompiledPuzzle.compile(board.field(), board.availablePieces(), board.borderColors()));
+
+        assertEquals(2, regions.size());
+        assertEquals(6, regions.get(0).length);
+        assertEquals(6, regions.get(1).length);
+    }
+
+    @Test
+    public void testFindSolution_WalledBoardsAreSolved() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SolverBenchmark.BenchmarkBoard board = walledBoard(seed == 3 ? 4 : 3, 5, seed);
+            RegionSolver solver = new RegionSolver();
+            Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            assertFalse(solver.isFallbackUsed());
+            assertEquals(2, solver.getRegionCount());
+        }
+    }
+
+    @Test
+    public void testCountSolutions_AgreesWithDancingLinks() {
+        int checked = 0;
+        for (long seed = 1; checked < 4; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 2, 8, seed);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            RegionSolver solver = new RegionSolver();
+            long count = solver.countSolutions(board.field(), board.availablePieces(), board.borderColors());
+            if (solver.isFallbackUsed()) {
+                continue; // Not split into regions
+            }
+            assertEquals(new DancingLinksSolver().countSolutions(copy.field(), copy.availablePieces(), copy.borderColors()),
+                    count);
+            checked++;
+        }
+    }
+
+    @Test
+    public void testFindSolution_SingleRegionIsHandedToDancingLinks() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 4, 0, 0, 1);
+        RegionSolver solver = new RegionSolver();
+        Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+        DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+        assertTrue(solver.isFallbackUsed());
+        assertEquals(1, solver.getRegionCount());
+    }
+}
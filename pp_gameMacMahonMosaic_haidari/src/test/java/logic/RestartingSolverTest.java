@@ -0,0 +1,43 @@
+package logic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RestartingSolverTest {
+
+    @Test
+    public void testLuby_FirstElements() {
+        long[] expected = {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Luby element " + (i + 1), expected[i], RestartingSolver.luby(i + 1));
+        }
+    }
+
+    @Test
+    public void testFindSolution_TinyBudgetStillSolves() {
+        // A budget unit of one placement forces many restarts before the budget is large enough.
+        for (long seed = 1; seed <= 3; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 4, 0, 2, seed);
+            RestartingSolver solver = new RestartingSolver(seed, 1);
+            Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            assertTrue("A budget of one placement cannot fill 14 cells without restarting.",
+                    solver.getRestartCount() > 0);
+        }
+    }
+
+    @Test
+    public void testFindSolution_AgreesWithDancingLinksOnModifiedBorders() {
+        for (long seed = 1; seed <= 6; seed++) {
+            SolverBenchmark.BenchmarkBoard board = BackjumpingSolverTest.withRecoloredBorder(
+                    TestBoards.generateBoard(3, 4, 0, 0, seed), (int) (seed % 4));
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            Field expected = new DancingLinksSolver().findSolution(copy.field(), copy.availablePieces(),
+                    copy.borderColors());
+            Field actual = new RestartingSolver(seed, 4).findSolution(board.field(), board.availablePieces(),
+                    board.borderColors());
+            assertEquals("Restarts must not lose solutions.", expected != null, actual != null);
+        }
+    }
+}
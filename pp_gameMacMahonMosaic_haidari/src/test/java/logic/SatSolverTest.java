@@ -0,0 +1,47 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SatSolverTest {
+
+    @Test
+    public void testFindSolution_GeneratedBoardsAreSolved() {
+        for (long seed = 1; seed <= 4; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, (int) (seed % 2), (int) seed, seed);
+            SatSolver solver = new SatSolver();
+            Field solution = solver.findSolution(board.field(), board.availablePieces(), board.borderColors());
+
+            DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            assertTrue(solver.getVariableCount() > 0);
+        }
+    }
+
+    @Test
+    public void testFindSolution_UnsatisfiableWhenInnerEdgesCannotMatch() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.unmatchedGreenEdge();
+
+        assertNull(new SatSolver().findSolution(board.field(), board.availablePieces(), board.borderColors()));
+    }
+
+    @Test
+    public void testFindSolution_AgreesWithDancingLinksOnSolvability() {
+        for (long seed = 1; seed <= 6; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 4, 0, 2, seed);
+            // Dropping a piece from a full board may leave it without a solution
+            List<MosaicPiece> pieces = board.availablePieces().subList(1, board.availablePieces().size());
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            Field expected = new DancingLinksSolver().findSolution(copy.field(),
+                    copy.availablePieces().subList(1, copy.availablePieces().size()), copy.borderColors());
+
+            Field solution = new SatSolver().findSolution(board.field(), pieces, board.borderColors());
+            assertEquals(expected != null, solution != null);
+            if (solution != null) {
+                DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SolutionDiagramTest {
+
+    private static final int SAMPLES = 300;
+
+    private static String edgesAt(Field field, int row, int column) {
+        StringBuilder edges = new StringBuilder();
+        for (Direction dir : Direction.values()) {
+            edges.append(field.getPieceAt(row, column).getEdgeColor(dir));
+        }
+        return edges.toString();
+    }
+
+    private static String solutionKey(Field field) {
+        StringBuilder key = new StringBuilder();
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                key.append(field.getPieceAt(r, c) != null ? edgesAt(field, r, c) : "-").append(' ');
+            }
+        }
+        return key.toString();
+    }
+
+    @Test
+    public void testCompile_CountMatchesDancingLinks() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, seed);
+            SolutionDiagram diagram = SolutionDiagram.compile(board.field(), board.availablePieces(),
+                    board.borderColors());
+
+            assertEquals(new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                    board.borderColors()), diagram.getSolutionCount());
+        }
+    }
+
+    @Test
+    public void testSample_DrawsEverySolutionAboutEquallyOften() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 2);
+        SolutionDiagram diagram = SolutionDiagram.compile(board.field(), board.availablePieces(), board.borderColors());
+
+        Map<String, Integer> draws = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            Field sample = diagram.sample(random);
+            assertTrue(SolverRegistry.isValidSolution(sample, board.field(), board.availablePieces(),
+                    board.borderColors()));
+            draws.merge(solutionKey(sample), 1, Integer::sum);
+        }
+
+        assertEquals(diagram.getSolutionCount(), draws.size());
+        long expected = SAMPLES / diagram.getSolutionCount();
+        for (int count : draws.values()) {
+            assertTrue("Drawn " + count + " times, expected about " + expected, count > expected / 2);
+        }
+    }
+
+    @Test
+    public void testCellQueries_AgreeWithSampledSolutions() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        SolutionDiagram diagram = SolutionDiagram.compile(board.field(), board.availablePieces(), board.borderColors());
+        Random random = new Random(3);
+        List<Field> samples = new ArrayList<>();
+        for (int i = 0; i < SAMPLES * 2; i++) {
+            samples.add(diagram.sample(random));
+        }
+
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 6; c++) {
+                if (board.field().getPieceAt(r, c) != null) {
+                    continue;
+                }
+                Set<String> sampledPieces = new HashSet<>();
+                Set<String> sampledEdges = new HashSet<>();
+                for (Field sample : samples) {
+                    sampledPieces.add(Arrays.toString(sample.getPieceAt(r, c).getColorPattern()));
+                    sampledEdges.add(edgesAt(sample, r, c));
+                }
+                Set<String> possiblePieces = new HashSet<>();
+                for (MosaicPiece piece : diagram.getPossiblePieces(r, c)) {
+                    possiblePieces.add(Arrays.toString(piece.getColorPattern()));
+                }
+
+                assertEquals(sampledPieces, possiblePieces);
+                assertEquals(sampledEdges.size() == 1, diagram.isForced(r, c));
+            }
+        }
+    }
+
+    @Test
+    public void testCompile_UnsolvablePuzzleHasEmptyDiagram() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.unmatchedGreenEdge();
+
+        SolutionDiagram diagram = SolutionDiagram.compile(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(0, diagram.getSolutionCount());
+        assertNull(diagram.sample(new Random(1)));
+        assertTrue(diagram.getPossiblePieces(0, 0).isEmpty());
+        assertFalse(diagram.isForced(1, 1));
+    }
+
+    @Test(expected = TooManyStatesException.class)
+    public void testCompile_TooManyStatesIsReported() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        SolutionDiagram.compile(CompiledPuzzle.compile(board.field(), board.availablePieces(), board.borderColors()), 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCellQueries_HoleIsRejected() {
+        Field field = new Field(1, 2, new HashMap<>(), Set.of(new Position(0, 1)));
+        SolutionDiagram.compile(field, List.of(new MosaicPiece("RRRR")), new HashMap<>()).isForced(0, 1);
+    }
+}
@@ -0,0 +1,97 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SolutionSamplerTest {
+
+    private static String solutionKey(Field field) {
+        StringBuilder key = new StringBuilder();
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                MosaicPiece piece = field.getPieceAt(r, c);
+                if (piece != null) {
+                    for (Direction dir : Direction.values()) {
+                        key.append(piece.getEdgeColor(dir));
+                    }
+                }
+                key.append(' ');
+            }
+        }
+        return key.toString();
+    }
+
+    /** Draws samples and checks that they are valid; returns how often each solution was drawn. */
+    private static Map<String, Integer> drawValid(SolutionSampler sampler, SolverBenchmark.BenchmarkBoard board,
+                                                  int sampleCount) {
+        List<Field> samples = sampler.sample(board.field(), board.availablePieces(), board.borderColors(), sampleCount);
+        assertEquals(sampleCount, samples.size());
+        Map<String, Integer> draws = new HashMap<>();
+        for (Field sample : samples) {
+            assertTrue(SolverRegistry.isValidSolution(sample, board.field(), board.availablePieces(),
+                    board.borderColors()));
+            draws.merge(solutionKey(sample), 1, Integer::sum);
+        }
+        return draws;
+    }
+
+    @Test
+    public void testSample_EverySolutionAboutEquallyOften() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 2);
+        long solutions = new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors());
+
+        Map<String, Integer> draws = drawValid(new SolutionSampler(new Random(5)), board, 300);
+
+        assertEquals(solutions, draws.size());
+        for (int count : draws.values()) {
+            assertTrue("Drawn " + count + " of 300 times", count > 300 / solutions / 2);
+        }
+    }
+
+    @Test
+    public void testSample_SplitsPuzzlesTooLargeToCompile() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, 1);
+        long solutions = new DancingLinksSolver().countSolutions(board.field(), board.availablePieces(),
+                board.borderColors());
+
+        // A tiny layer limit forces the split on cells before the diagrams fit
+        Map<String, Integer> draws = drawValid(new SolutionSampler(new Random(9), 4), board, (int) solutions * 20);
+
+        assertEquals(solutions, draws.size());
+    }
+
+    @Test
+    public void testSample_TenSamplesOfTwentyFreeCellsWithinFiveSeconds() {
+        // 5x5 with one hole and four pieces placed: 13328 solutions, far too many states for a diagram
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(5, 5, 1, 4, 2);
+        long start = System.nanoTime();
+
+        Map<String, Integer> draws = drawValid(new SolutionSampler(new Random(3)), board, 10);
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Took " + millis + " ms", millis < 5_000);
+        assertFalse(draws.isEmpty());
+    }
+
+    @Test
+    public void testSample_UnsolvablePuzzleHasNoSamples() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.unmatchedGreenEdge();
+
+        assertTrue(new SolutionSampler(new Random(1))
+                .sample(board.field(), board.availablePieces(), board.borderColors(), 5).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSample_NegativeCountIsRejected() {
+        Field field = new Field(1, 1, new HashMap<>(), new HashSet<>());
+        new SolutionSampler().sample(field, List.of(new MosaicPiece("RRRR")), new HashMap<>(), -1);
+    }
+}
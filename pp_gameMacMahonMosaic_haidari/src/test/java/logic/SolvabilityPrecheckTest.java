@@ -0,0 +1,67 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SolvabilityPrecheckTest {
+
+    /** Creates the borders of a 1x2 board: the left cell is framed in one color, the right cell in another. */
+    private static Map<BorderPosition, Color> twoCellBorders(Color left, Color right) {
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        borders.put(new BorderPosition(Direction.LEFT, 0), left);
+        borders.put(new BorderPosition(Direction.TOP, 0), left);
+        borders.put(new BorderPosition(Direction.BOTTOM, 0), left);
+        borders.put(new BorderPosition(Direction.RIGHT, 0), right);
+        borders.put(new BorderPosition(Direction.TOP, 1), right);
+        borders.put(new BorderPosition(Direction.BOTTOM, 1), right);
+        return borders;
+    }
+
+    @Test
+    public void testColorParity_UnpairedEdgeColorsAreRejected() {
+        // Both cells have a fitting piece, but the yellow edge of one cannot meet the green edge of the other.
+        Map<BorderPosition, Color> borders = twoCellBorders(Color.RED, Color.GREEN);
+        Field field = new Field(1, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRY"), new MosaicPiece("GGGG"));
+
+        assertEquals(SolvabilityPrecheck.Check.COLOR_PARITY,
+                SolvabilityPrecheck.findFailedCheck(field, pieces, borders));
+    }
+
+    @Test
+    public void testCellMatching_CellsCompetingForOnePieceAreRejected() {
+        Map<BorderPosition, Color> borders = twoCellBorders(Color.RED, Color.RED);
+        Field field = new Field(1, 2, borders, new HashSet<>());
+        List<MosaicPiece> pieces = List.of(new MosaicPiece("RRRR"), new MosaicPiece("GGGG"));
+
+        assertEquals(SolvabilityPrecheck.Check.CELL_MATCHING,
+                SolvabilityPrecheck.findFailedCheck(field, pieces, borders));
+    }
+
+    @Test
+    public void testFindFailedCheck_SolvableBoardsPass() {
+        for (long seed = 1; seed <= 5; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, seed % 2 == 0 ? 1 : 0, 4, seed);
+            assertNull(SolvabilityPrecheck.findFailedCheck(board.field(), board.availablePieces(),
+                    board.borderColors()));
+        }
+    }
+
+    @Test
+    public void testFindFailedCheck_OnlyRejectsUnsolvableBoards() {
+        for (long seed = 1; seed <= 12; seed++) {
+            SolverBenchmark.BenchmarkBoard board =
+                    BackjumpingSolverTest.withRecoloredBorder(TestBoards.generateBoard(3, 3, 0, 0, seed), (int) (seed % 3));
+            if (SolvabilityPrecheck.findFailedCheck(board.field(), board.availablePieces(), board.borderColors()) != null) {
+                assertNull(new DancingLinksSolver().findSolution(board.field(), board.availablePieces(),
+                        board.borderColors()));
+            }
+        }
+    }
+}
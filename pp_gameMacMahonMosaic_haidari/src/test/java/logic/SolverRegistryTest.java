@@ -0,0 +1,106 @@
+package logic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SolverRegistryTest {
+
+    @Test
+    public void testRegistry_DiscoversAllEngines() {
+        SolverRegistry registry = new SolverRegistry();
+
+        for (String name : List.of("backtracking", "dlx", "backjumping", "restarts", "portfolio", "auto")) {
+            assertTrue("Engine should be registered: " + name, registry.contains(name));
+            assertEquals(name, registry.create(name).getName());
+        }
+        assertNotSame(registry.create("dlx"), registry.create("dlx"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_UnknownEngineIsRejected() {
+        new SolverRegistry().create("no-such-engine");
+    }
+
+    @Test
+    public void testCreateConfigured_UsesSystemProperty() {
+        SolverRegistry registry = new SolverRegistry();
+        String previous = System.getProperty(SolverRegistry.ENGINE_PROPERTY);
+        try {
+            System.setProperty(SolverRegistry.ENGINE_PROPERTY, "dlx");
+            assertTrue(registry.createConfigured() instanceof DancingLinksSolver);
+
+            System.clearProperty(SolverRegistry.ENGINE_PROPERTY);
+            assertEquals(SolverRegistry.DEFAULT_ENGINE, registry.createConfigured().getName());
+        } finally {
+            if (previous != null) {
+                System.setProperty(SolverRegistry.ENGINE_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    public void testCompareAll_EnginesAgreeAndLeaveInputUntouched() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 4, 1, 5, 4);
+        int freeCellsBefore = BoardProfile.of(board.field(), board.borderColors()).freeCells();
+
+        List<SolverRegistry.EngineRun> runs = SolverRegistry.getDefault()
+                .compareAll(board.field(), board.availablePieces(), board.borderColors());
+
+        assertEquals(SolverRegistry.getDefault().getEngineNames().size(), runs.size());
+        assertTrue(runs.stream().allMatch(SolverRegistry.EngineRun::isSolved));
+        assertEquals(List.of(), SolverRegistry.crossCheck(runs, board.field(), board.availablePieces(),
+                board.borderColors()));
+        assertEquals(freeCellsBefore, BoardProfile.of(board.field(), board.borderColors()).freeCells());
+    }
+
+    @Test
+    public void testEngines_InstanceReusedOnDifferentBoardsAgreesWithDancingLinks() {
+        List<SolverBenchmark.BenchmarkBoard> boards = List.of(
+                TestBoards.generateBoard(4, 4, 1, 5, 4),
+                BackjumpingSolverTest.withRecoloredBorder(TestBoards.generateBoard(3, 4, 0, 0, 2), 1),
+                TestBoards.generateBoard(3, 5, 1, 2, 7),
+                TestBoards.generateBoard(3, 3, 0, 0, 1));
+        SolverRegistry registry = SolverRegistry.getDefault();
+
+        for (String name : registry.getEngineNames()) {
+            PuzzleSolver engine = registry.create(name);
+            for (SolverBenchmark.BenchmarkBoard board : boards) {
+                SolverBenchmark.BenchmarkBoard copy = board.copy();
+                boolean solvable = new DancingLinksSolver().findSolution(copy.field(), copy.availablePieces(),
+                        copy.borderColors()) != null;
+                copy = board.copy();
+                Field solution = engine.findSolution(copy.field(), copy.availablePieces(), copy.borderColors());
+
+                assertEquals(name + " on " + board.name(), solvable, solution != null);
+                if (solution != null) {
+                    assertTrue(name + " on " + board.name(), SolverRegistry.isValidSolution(solution,
+                            board.field(), board.availablePieces(), board.borderColors()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCrossCheck_ReportsDisagreementAndInvalidSolution() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 3, 0, 0, 1);
+        Field valid = new DancingLinksSolver().findSolution(board.copy().field(), board.copy().availablePieces(),
+                board.borderColors());
+        Field invalid = board.field().deepCopy(); // Nothing placed at all
+
+        List<SolverRegistry.EngineRun> runs = new ArrayList<>();
+        runs.add(new SolverRegistry.EngineRun("good", 1, valid, null));
+        runs.add(new SolverRegistry.EngineRun("pessimist", 1, null, null));
+        runs.add(new SolverRegistry.EngineRun("sloppy", 1, invalid, null));
+
+        List<String> problems = SolverRegistry.crossCheck(runs, board.field(), board.availablePieces(),
+                board.borderColors());
+
+        assertEquals(2, problems.size());
+        assertTrue(problems.get(0).startsWith("pessimist"));
+        assertTrue(problems.get(1).startsWith("sloppy"));
+    }
+}
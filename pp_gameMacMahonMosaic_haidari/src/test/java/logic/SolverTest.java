@@ -3,10 +3,13 @@ package logic;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -112,4 +115,89 @@ public class SolverTest {
                 Solver.checkPlacementValidity(pieceToPlace, 1, 1, field, borderColors));
 
     }
+
+    @Test
+    public void testValueOrdering_AllOrderingsFindValidSolutions() {
+        for (ValueOrdering ordering : ValueOrdering.values()) {
+            for (long seed = 1; seed <= 4; seed++) {
+                SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 5, 0, 6, seed);
+                Field solution = new Solver(CellSelectionStrategy.MOST_CONSTRAINED, ordering)
+                        .findSolution(board.field(), board.availablePieces(), board.borderColors());
+                DancingLinksSolverTest.assertValidSolution(solution, board.borderColors());
+            }
+        }
+    }
+
+    @Test
+    public void testValueOrdering_LeastConstrainingKeepsUnsolvableBoardsUnsolvable() {
+        for (long seed = 1; seed <= 4; seed++) {
+            SolverBenchmark.BenchmarkBoard board =
+                    BackjumpingSolverTest.withRecoloredBorder(TestBoards.generateBoard(3, 4, 0, 0, seed), 1);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+            Field expected = new DancingLinksSolver().findSolution(copy.field(), copy.availablePieces(),
+                    copy.borderColors());
+            Field actual = new Solver(CellSelectionStrategy.MOST_CONSTRAINED, ValueOrdering.LEAST_CONSTRAINING)
+                    .findSolution(board.field(), board.availablePieces(), board.borderColors());
+            assertEquals(expected != null, actual != null);
+        }
+    }
+
+    @Test
+    public void testValueOrdering_LeastConstrainingNeedsFewerNodes() {
+        long listOrderNodes = 0;
+        long leastConstrainingNodes = 0;
+        for (long seed = 1; seed <= 10; seed++) {
+            SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(4, 6, 0, 6, seed);
+            SolverBenchmark.BenchmarkBoard copy = board.copy();
+
+            Solver listOrder = new Solver(CellSelectionStrategy.MOST_CONSTRAINED, ValueOrdering.LIST_ORDER);
+            listOrder.findSolution(board.field(), board.availablePieces(), board.borderColors());
+            listOrderNodes += listOrder.getNodeCount();
+
+            Solver leastConstraining =
+                    new Solver(CellSelectionStrategy.MOST_CONSTRAINED, ValueOrdering.LEAST_CONSTRAINING);
+            leastConstraining.findSolution(copy.field(), copy.availablePieces(), copy.borderColors());
+            leastConstrainingNodes += leastConstraining.getNodeCount();
+        }
+        assertTrue("Expected fewer nodes, got " + leastConstrainingNodes + " vs " + listOrderNodes,
+                leastConstrainingNodes < listOrderNodes);
+    }
+
+    @Test
+    public void testEndgameTable_RepeatedEndgameIsLookedUp() {
+        SolverBenchmark.BenchmarkBoard board = TestBoards.generateBoard(3, 4, 0, 8, 2);
+        EndgameTable table = new EndgameTable(EndgameTable.DEFAULT_CAPACITY);
+        List<Position> emptyCells = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 4; c++) {
+                if (board.field().isCellEmpty(r, c)) {
+                    emptyCells.add(new Position(r, c));
+                }
+            }
+        }
+
+        SolverBenchmark.BenchmarkBoard first = board.copy();
+        assertTrue(table.complete(first.field(), emptyCells, first.availablePieces(), first.borderColors()));
+        DancingLinksSolverTest.assertValidSolution(first.field(), first.borderColors());
+
+        SolverBenchmark.BenchmarkBoard second = board.copy();
+        assertTrue(table.complete(second.field(), emptyCells, second.availablePieces(), second.borderColors()));
+        DancingLinksSolverTest.assertValidSolution(second.field(), second.borderColors());
+        assertEquals(1, table.getMisses());
+        assertEquals(1, table.getHits());
+    }
+
+    @Test
+    public void testEndgameTable_ImpossibleEndgameLeavesFieldUnchanged() {
+        field.setPieceAt(0, 0, new MosaicPiece("RRRR"));
+        field.setPieceAt(0, 2, new MosaicPiece("GGGG"));
+        List<Position> emptyCells = List.of(new Position(0, 1));
+        EndgameTable table = new EndgameTable(EndgameTable.DEFAULT_CAPACITY);
+
+        // The cell between a red and a green piece needs red on the left and green on the right.
+        assertFalse(table.complete(field, emptyCells, List.of(new MosaicPiece("YYYY")), borderColors));
+        assertTrue(field.isCellEmpty(0, 1));
+        assertTrue(table.complete(field, emptyCells, List.of(new MosaicPiece("YGYR")), borderColors));
+        assertFalse(field.isCellEmpty(0, 1));
+    }
 }
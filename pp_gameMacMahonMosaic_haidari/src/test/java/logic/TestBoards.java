@@ -0,0 +1,52 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boards shared by the solver tests.
+ */
+final class TestBoards {
+
+    private TestBoards() {
+    }
+
+    /**
+     * Generates a solvable board from a random tiling.
+     *
+     * @see SolverBenchmark#generateBoard(int, int, int, int, long)
+     */
+    static SolverBenchmark.BenchmarkBoard generateBoard(int rows, int columns, int holes, int prePlaced, long seed) {
+        return SolverBenchmark.generateBoard(rows, columns, holes, prePlaced, seed);
+    }
+
+    /**
+     * @param patterns The color patterns of the four pieces.
+     * @return An empty 2x2 board with red borders all around.
+     */
+    static SolverBenchmark.BenchmarkBoard redBorderBoard(String... patterns) {
+        Map<BorderPosition, Color> borders = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            for (Direction side : Direction.values()) {
+                borders.put(new BorderPosition(side, i), Color.RED);
+            }
+        }
+        List<MosaicPiece> pieces = new ArrayList<>();
+        for (String pattern : patterns) {
+            pieces.add(new MosaicPiece(pattern));
+        }
+        return new SolverBenchmark.BenchmarkBoard("2x2 red", new Field(2, 2, borders, new HashSet<>()),
+                pieces, borders);
+    }
+
+    /**
+     * @return A 2x2 board without a solution: the one green edge must face an inner edge, where every
+     * other piece is red.
+     */
+    static SolverBenchmark.BenchmarkBoard unmatchedGreenEdge() {
+        return redBorderBoard("RRRR", "RRRR", "RRRR", "RRRG");
+    }
+}